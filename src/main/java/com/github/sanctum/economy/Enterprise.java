@@ -21,41 +21,201 @@
 package com.github.sanctum.economy;
 
 import com.github.sanctum.economy.construct.EconomyAction;
-import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.EconomyExecutor;
+import com.github.sanctum.economy.construct.currency.normal.EconomyCurrency;
+import com.github.sanctum.economy.construct.entity.EntityInterner;
+import com.github.sanctum.economy.construct.entity.EntityResolver;
 import com.github.sanctum.economy.construct.events.AsyncEconomyInfoEvent;
 import com.github.sanctum.economy.construct.events.AsyncTransactionEvent;
+import com.github.sanctum.economy.construct.events.EconomyEventDispatcher;
 import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import com.github.sanctum.economy.conversion.CheckpointJournal;
+import com.github.sanctum.economy.conversion.ConversionSettings;
+import com.github.sanctum.economy.conversion.ConversionTask;
+import com.github.sanctum.economy.conversion.PartitionedTask;
+import com.github.sanctum.economy.conversion.SessionPromotion;
+import com.github.sanctum.economy.conversion.VerificationTask;
+import com.github.sanctum.economy.journal.TransactionJournal;
+import com.github.sanctum.economy.leaderboard.BalanceRanking;
+import com.github.sanctum.economy.leaderboard.Leaderboard;
+import com.github.sanctum.economy.leaderboard.Leaderboards;
+import com.github.sanctum.economy.memory.MemoryEconomy;
+import com.github.sanctum.economy.metrics.EconomyMetrics;
+import com.github.sanctum.economy.metrics.OperationStats;
+import com.github.sanctum.economy.metrics.ProviderMetrics;
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.util.Collection;
-import java.util.Objects;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandMap;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.ServiceRegisterEvent;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class Enterprise extends JavaPlugin {
 
 	private static Enterprise instance;
 
+	private PartitionedTask conversion;
+
+	private TransactionJournal journal;
+
+	private ExecutorService asyncExecutor;
+
+	private SessionPromotion promotion;
+
 	@Override
 	public void onEnable() {//
 		instance = this;
+		saveDefaultConfig();
+		startEventDispatcher();
+		startAsyncExecutor();
 		registerCommand(new EnterpriseCommand());
-		getServer().getPluginManager().registerEvents(new LoggingListener(), this);
+		startJournal();
+		getServer().getPluginManager().registerEvents(new SessionListener(), this);
+		registerMemoryEconomy();
+		startPromotion();
+		if (getConfig().getBoolean("leaderboard.enabled", false) || getConfig().getBoolean("metrics.enabled", false)) {
+			wrapProviders();
+			getServer().getPluginManager().registerEvents(new ProviderListener(), this);
+		}
+		if (getConfig().getBoolean("journal.console", false)) {
+			getServer().getPluginManager().registerEvents(new LoggingListener(), this);
+		}
 	}
 
 	@Override//
 	public void onDisable() {//
+		if (conversion != null) {
+			conversion.cancel();
+		}
+		if (promotion != null) {
+			promotion.stop();
+			promotion = null;
+		}
+		// the journal is written by event listeners, so close it only once they are done
+		final TransactionJournal journal = this.journal;
+		this.journal = null;
+		EconomyEventDispatcher.stop(journal == null ? null : () -> closeJournal(journal));
+		if (asyncExecutor != null) {
+			EconomyExecutor.set(null);
+			asyncExecutor.shutdown();
+			asyncExecutor = null;
+		}
+	}
+
+	private void closeJournal(TransactionJournal journal) {
+		try {
+			journal.close();
+		} catch (IOException e) {
+			getLogger().log(Level.WARNING, "Unable to close the transaction journal", e);
+		}
+	}
+
+	private void startJournal() {
+		if (!getConfig().getBoolean("journal.enabled", true)) {
+			return;
+		}
+		final long maxFileSize = getConfig().getLong("journal.max-file-size-mb", 64) * 1024 * 1024;
+		final int keepFiles = getConfig().getInt("journal.keep-files", 10);
+		try {
+			journal = TransactionJournal.open(new File(getDataFolder(), "journal"), maxFileSize, keepFiles, getLogger());
+		} catch (IOException e) {
+			getLogger().log(Level.SEVERE, "Unable to open the transaction journal", e);
+			return;
+		}
+		getServer().getPluginManager().registerEvents(new JournalListener(journal), this);
+		getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+			try {
+				journal.flush();
+			} catch (IOException e) {
+				getLogger().log(Level.WARNING, "Unable to flush the transaction journal", e);
+			}
+		}, 20L, 20L);
+	}
+
+	private void startAsyncExecutor() {
+		final int threads = getConfig().getInt("async.threads", 4);
+		if (threads <= 0) {
+			return;
+		}
+		final AtomicInteger count = new AtomicInteger();
+		asyncExecutor = Executors.newFixedThreadPool(threads, r -> {
+			final Thread thread = new Thread(r, "Enterprise-Async-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		EconomyExecutor.set(asyncExecutor);
+	}
+
+	/**
+	 * Rank first so the metrics wrapper, outermost, measures each call once.
+	 */
+	private void wrapProviders() {
+		if (getConfig().getBoolean("leaderboard.enabled", false)) {
+			Leaderboards.rank(getServer().getServicesManager(), getLogger());
+		}
+		if (getConfig().getBoolean("metrics.enabled", false)) {
+			EconomyMetrics.instrument(getServer().getServicesManager());
+		}
+	}
+
+	private void startPromotion() {
+		if (!getConfig().getBoolean("promotion.enabled", false)) {
+			return;
+		}
+		promotion = new SessionPromotion(this, getConfig().getInt("promotion.batch-size", SessionPromotion.DEFAULT_BATCH_SIZE),
+				getConfig().getBoolean("promotion.delete-session-wallets", false));
+		promotion.start(getConfig().getLong("promotion.interval-ticks", SessionPromotion.DEFAULT_INTERVAL_TICKS));
+		getServer().getPluginManager().registerEvents(new PromotionListener(promotion), this);
+	}
+
+	private void registerMemoryEconomy() {
+		if (!getConfig().getBoolean("memory-economy.enabled", false)) {
+			return;
+		}
+		final EconomyCurrency currency = EconomyCurrency.getCurrencyLayoutBuilder()
+				.setMajorSingular(getConfig().getString("memory-economy.major-singular", "Dollar"))
+				.setMajorPlural(getConfig().getString("memory-economy.major-plural", "Dollars"))
+				.setMinorSingular(getConfig().getString("memory-economy.minor-singular", "Cent"))
+				.setMinorPlural(getConfig().getString("memory-economy.minor-plural", "Cents"))
+				.setScale(getConfig().getInt("memory-economy.scale", 2))
+				.toCurrency();
+		getServer().getServicesManager().register(AdvancedEconomy.class,
+				new MemoryEconomy(this, currency, 1024), this, ServicePriority.Lowest);
+		getLogger().warning("Registered the in-memory economy; balances will be lost on shutdown.");
+	}
+
+	private void startEventDispatcher() {
+		final int capacity = getConfig().getInt("events.queue-capacity", EconomyEventDispatcher.DEFAULT_CAPACITY);
+		final int batchSize = getConfig().getInt("events.batch-size", EconomyEventDispatcher.DEFAULT_BATCH_SIZE);
+		EconomyEventDispatcher.Overflow overflow;
+		try {
+			overflow = EconomyEventDispatcher.Overflow.valueOf(getConfig().getString("events.overflow", "BLOCK").toUpperCase());
+		} catch (IllegalArgumentException e) {
+			getLogger().warning("Unknown events.overflow policy, using BLOCK.");
+			overflow = EconomyEventDispatcher.Overflow.BLOCK;
+		}
+		final int batchEventSize = getConfig().getInt("events.batch-event-size", EconomyEventDispatcher.DEFAULT_BATCH_EVENT_SIZE);
+		final long batchWindow = getConfig().getLong("events.batch-window-ms", EconomyEventDispatcher.DEFAULT_BATCH_WINDOW_MILLIS);
+		EconomyEventDispatcher.start(getServer().getPluginManager(), getLogger(), capacity, batchSize, overflow, batchEventSize, batchWindow);
 	}
 
 	private void registerCommand(Command command) {
@@ -71,6 +231,77 @@ public final class Enterprise extends JavaPlugin {
 		}
 	}
 
+	private static class SessionListener implements Listener {
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onJoin(PlayerJoinEvent e) {
+			// the name may have been cached as unknown while offline
+			EntityResolver.global().invalidate("p_name=".concat(e.getPlayer().getName()));
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onQuit(PlayerQuitEvent e) {
+			EntityInterner.global().forgetSession(e.getPlayer());
+			EntityResolver.global().invalidate("p_name=".concat(e.getPlayer().getName()));
+		}
+	}
+
+	private static class PromotionListener implements Listener {
+		private final SessionPromotion promotion;
+
+		PromotionListener(SessionPromotion promotion) {
+			this.promotion = promotion;
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onJoin(PlayerJoinEvent e) {
+			promotion.enqueue(e.getPlayer());
+		}
+	}
+
+	private class ProviderListener implements Listener {
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onRegister(ServiceRegisterEvent e) {
+			if (e.getProvider().getService() == AdvancedEconomy.class) {
+				// wrap once the registering plugin is done, not from inside its register call
+				getServer().getScheduler().runTask(Enterprise.this, Enterprise.this::wrapProviders);
+			}
+		}
+	}
+
+	private class JournalListener implements Listener {
+		private final TransactionJournal journal;
+		private boolean failing;
+
+		JournalListener(TransactionJournal journal) {
+			this.journal = journal;
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onInfoEvent(AsyncEconomyInfoEvent e) {
+			append(e.getEconomyAction());
+		}
+
+		@EventHandler(priority = EventPriority.MONITOR)
+		public void onInfoEvent(AsyncTransactionEvent e) {
+			append(e.getEconomyAction());
+		}
+
+		private void append(EconomyAction economyAction) {
+			try {
+				journal.append(economyAction);
+				failing = false;
+			} catch (IOException ex) {
+				// report once per outage rather than once per transaction
+				if (!failing) {
+					failing = true;
+					getLogger().log(Level.WARNING, "Unable to write to the transaction journal", ex);
+				}
+			} catch (IllegalArgumentException ex) {
+				getLogger().warning("Skipped a transaction in the journal: " + ex.getMessage());
+			}
+		}
+	}
+
 	private class LoggingListener implements Listener {
 		@EventHandler
 		public void onInfoEvent(AsyncEconomyInfoEvent e) {
@@ -102,6 +333,29 @@ public final class Enterprise extends JavaPlugin {
 			player.sendMessage(ChatColor.translateAlternateColorCodes('&', "&f[&2" + instance.getName() +"&f] " + message));
 		}
 
+		private String formatNanos(long nanos) {
+			if (nanos < 1_000) {
+				return nanos + "ns";
+			}
+			if (nanos < 1_000_000) {
+				return String.format("%.1fus", nanos / 1_000D);
+			}
+			if (nanos < 1_000_000_000) {
+				return String.format("%.1fms", nanos / 1_000_000D);
+			}
+			return String.format("%.2fs", nanos / 1_000_000_000D);
+		}
+
+		private AdvancedEconomy findEconomy(CommandSender sender, Collection<RegisteredServiceProvider<AdvancedEconomy>> economies, String name) {
+			AdvancedEconomy economy = economies.stream().filter(e -> e.getProvider().getPlugin().getName().equalsIgnoreCase(name)).findFirst().map(RegisteredServiceProvider::getProvider).orElse(null);
+			if (economy == null) {
+				String ecos = economies.stream().map(RegisteredServiceProvider::getProvider).map(AdvancedEconomy::getPlugin).map(Plugin::getName).collect(Collectors.toList()).toString();
+				sendMessage(sender, "Economy " + name + " was not found. Ensure you have it loaded properly.");
+				sendMessage(sender, "Valid economies are: " + ecos);
+			}
+			return economy;
+		}
+
 		@Override
 		public boolean execute(CommandSender sender, String commandLabel, String[] args) {
 			Collection<RegisteredServiceProvider<AdvancedEconomy>> economies = getServer().getServicesManager().getRegistrations(AdvancedEconomy.class);
@@ -116,40 +370,144 @@ public final class Enterprise extends JavaPlugin {
 				sendMessage(sender, "Registered Advanced Economies: " + ecos);
 				return true;
 			}
-			if (args.length == 3) {
-				if (args[0].equalsIgnoreCase("convert")) {
+			if (args.length >= 1 && args[0].equalsIgnoreCase("stats")) {
+				final boolean reset = args[args.length - 1].equalsIgnoreCase("reset");
+				final Collection<ProviderMetrics> all;
+				if (args.length >= 2 && !args[1].equalsIgnoreCase("reset")) {
+					final ProviderMetrics metrics = EconomyMetrics.get(args[1]);
+					if (metrics == null) {
+						sendMessage(sender, "No metrics for " + args[1] + ". Is metrics.enabled set in config.yml?");
+						return true;
+					}
+					all = Collections.singletonList(metrics);
+				} else {
+					all = EconomyMetrics.getAll();
+				}
+				if (all.isEmpty()) {
+					sendMessage(sender, "No economies have been instrumented. Is metrics.enabled set in config.yml?");
+					return true;
+				}
+				for (ProviderMetrics metrics : all) {
+					if (reset) {
+						metrics.reset();
+						sendMessage(sender, "Reset metrics for " + metrics.getName() + ".");
+						continue;
+					}
+					sendMessage(sender, "&2" + metrics.getName() + ":");
+					for (OperationStats stats : metrics.getAll()) {
+						if (stats.getCalls() == 0) {
+							continue;
+						}
+						sendMessage(sender, String.format("&7%s: %d calls, %.2f%% errors, %d failed, p50 %s p99 %s p99.9 %s max %s",
+								stats.getOperation().getMethodName(), stats.getCalls(), stats.getErrorRate() * 100, stats.getFailures(),
+								formatNanos(stats.getLatency().getValueAtPercentile(50)),
+								formatNanos(stats.getLatency().getValueAtPercentile(99)),
+								formatNanos(stats.getLatency().getValueAtPercentile(99.9)),
+								formatNanos(stats.getLatency().getMax())));
+					}
+				}
+				return true;
+			}
+			if (args.length >= 2 && args[0].equalsIgnoreCase("top")) {
+				final Leaderboard leaderboard = Leaderboards.get(args[1]);
+				if (leaderboard == null) {
+					sendMessage(sender, "No leaderboard for " + args[1] + ". Is leaderboard.enabled set in config.yml?");
+					return true;
+				}
+				int page = 1;
+				if (args.length >= 3) {
+					try {
+						page = Math.max(1, Integer.parseInt(args[2]));
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+				final String world = args.length >= 4 ? args[3] : null;
+				final BalanceRanking ranking = leaderboard.getRanking(null, world);
+				final int pages = Math.max(1, (ranking.size() + 9) / 10);
+				sendMessage(sender, "&2" + leaderboard.getName() + (world != null ? " in " + world : "") + " (page " + page + "/" + pages
+						+ (leaderboard.isLoaded() ? "" : ", still loading") + "):");
+				for (BalanceRanking.Entry entry : ranking.range((page - 1) * 10 + 1, page * 10)) {
+					sendMessage(sender, "&7" + entry.getRank() + ". " + entry.getHolder().friendlyName() + " - " + entry.getBalance().toPlainString());
+				}
+				return true;
+			}
+			if (args.length == 1 && args[0].equalsIgnoreCase("events")) {
+				final EconomyEventDispatcher dispatcher = EconomyEventDispatcher.getInstance();
+				if (dispatcher == null) {
+					sendMessage(sender, "The event dispatcher is not running.");
+					return true;
+				}
+				sendMessage(sender, "Event queue: " + dispatcher.getQueueDepth() + "/" + dispatcher.getCapacity()
+						+ " (" + dispatcher.getOverflow().name().toLowerCase() + " when full), "
+						+ dispatcher.getDispatched() + " dispatched, " + dispatcher.getDropped() + " dropped");
+				return true;
+			}
+			final boolean verify = args.length > 0 && args[0].equalsIgnoreCase("verify");
+			if (args.length == 2 && (args[0].equalsIgnoreCase("convert") || verify)) {
+				if (args[1].equalsIgnoreCase("status")) {
+					if (conversion == null) {
+						sendMessage(sender, "No conversion has been started.");
+					} else {
+						sendMessage(sender, conversion.getName() + " " + conversion.getState().name().toLowerCase() + ": " + conversion.getProgress());
+					}
+					return true;
+				}
+				if (args[1].equalsIgnoreCase("cancel")) {
+					if (conversion == null || !conversion.cancel()) {
+						sendMessage(sender, "No conversion is running.");
+					}
+					return true;
+				}
+				return false;
+			}
+			final boolean dryRun = args.length == 4 && args[0].equalsIgnoreCase("convert") && args[3].equalsIgnoreCase("--dry-run");
+			final boolean fresh = args.length == 4 && args[0].equalsIgnoreCase("convert") && args[3].equalsIgnoreCase("--fresh");
+			if (args.length == 3 || dryRun || fresh) {
+				if (args[0].equalsIgnoreCase("convert") || verify) {
+					if (conversion != null && conversion.isRunning()) {
+						sendMessage(sender, conversion.getName() + " is already running: " + conversion.getProgress());
+						sendMessage(sender, "Use /enterprise convert cancel to stop it.");
+						return true;
+					}
 					if (economies == null || economies.size() < 2) {
 						sendMessage(sender, "You must have at least 2 Enterprise-compatible economies loaded to convert.");
 						return true;
 					}
-					AdvancedEconomy econ1 = economies.stream().filter(e -> e.getProvider().getPlugin().getName().equalsIgnoreCase(args[1])).findFirst().map(RegisteredServiceProvider::getProvider).orElse(null);
+					AdvancedEconomy econ1 = findEconomy(sender, economies, args[1]);
 					if (econ1 == null) {
-						String ecos = economies.stream().map(RegisteredServiceProvider::getProvider).map(AdvancedEconomy::getPlugin).map(Plugin::getName).collect(Collectors.toList()).toString();
-						sendMessage(sender, "Economy " + args[1] + " was not found. Ensure you have it loaded properly.");
-						sendMessage(sender, "Valid economies are: " + ecos);
 						return true;
 					}
-					AdvancedEconomy econ2 = economies.stream().filter(e -> e.getProvider().getPlugin().getName().equalsIgnoreCase(args[2])).findFirst().map(RegisteredServiceProvider::getProvider).orElse(null);
+					AdvancedEconomy econ2 = findEconomy(sender, economies, args[2]);
 					if (econ2 == null) {
-						String ecos = economies.stream().map(RegisteredServiceProvider::getProvider).map(AdvancedEconomy::getPlugin).map(Plugin::getName).collect(Collectors.toList()).toString();
-						sendMessage(sender, "Economy " + args[2] + " was not found. Ensure you have it loaded properly.");
-						sendMessage(sender, "Valid economies are: " + ecos);
 						return true;
 					}
-					sendMessage(sender, "&e&oDepending on the amount of registrations this may take a while.");
-					long time = System.currentTimeMillis();
-					for (OfflinePlayer op : Bukkit.getServer().getOfflinePlayers()) {
-						if (econ1.hasWalletAccount(op)) {
-							final Wallet wallet1 = econ1.getWallet(op);
-							final Wallet wallet2 = econ2.getWallet(op);
-							if (Objects.requireNonNull(wallet1.getBalance()).compareTo(BigDecimal.ZERO) > 0) {
-								wallet2.setBalance(wallet1.getBalance());
-							}
+					final ConversionSettings settings = ConversionSettings.fromConfig(getConfig().getConfigurationSection("convert"));
+					if (verify || dryRun) {
+						conversion = new VerificationTask(instance, econ1, econ2, settings, message -> sendMessage(sender, message));
+						sendMessage(sender, "&e&oComparing " + conversion.getTotal() + " registrations in the background. Nothing will be written.");
+					} else {
+						final File checkpoint = new File(getDataFolder(), "checkpoints" + File.separator
+								+ econ1.getPlugin().getName() + "-to-" + econ2.getPlugin().getName() + ".journal");
+						if (fresh && checkpoint.exists() && !checkpoint.delete()) {
+							sendMessage(sender, "&cUnable to delete the previous checkpoint " + checkpoint.getName() + ".");
+							return true;
+						}
+						final CheckpointJournal journal;
+						try {
+							journal = CheckpointJournal.open(checkpoint);
+						} catch (IOException e) {
+							getLogger().log(Level.SEVERE, "Unable to open " + checkpoint, e);
+							sendMessage(sender, "&cUnable to open the checkpoint " + checkpoint.getName() + ". Use --fresh to discard it.");
+							return true;
+						}
+						conversion = new ConversionTask(instance, econ1, econ2, settings, journal, message -> sendMessage(sender, message));
+						if (journal.getCompletedEntities() > 0) {
+							sendMessage(sender, "&e&oResuming: " + journal.getCompletedEntities() + " registrations were already converted. Use --fresh to start over.");
 						}
+						sendMessage(sender, "&e&oConverting " + conversion.getTotal() + " registrations in the background. Use /enterprise convert status or cancel.");
 					}
-					long complete = (System.currentTimeMillis() - time) / 1000;
-					int second = Integer.parseInt(String.valueOf(complete));
-					sendMessage(sender, "&aConversion completed in " + second + " seconds.");
+					conversion.start();
 					return true;
 				}
 				return true;
@@ -23,6 +23,7 @@ package com.github.sanctum.economy.construct;
 import com.github.sanctum.economy.construct.entity.EconomyEntity;
 import com.github.sanctum.economy.construct.events.AsyncEconomyInfoEvent;
 import com.github.sanctum.economy.construct.events.AsyncTransactionEvent;
+import com.github.sanctum.economy.construct.events.EconomyEventDispatcher;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -38,18 +39,28 @@ public class EconomyAction {
 
 	private static final PluginManager PM = Bukkit.getPluginManager();
 
-	private final BigDecimal amount;
+	private BigDecimal amount;
+
+	private final long minorUnits;
+
+	// -1 unless the amount was given in minor units
+	private final int scale;
 
 	private final boolean success;
 
 	private boolean logged = false;
 
+	private final boolean shared;
+
 	private final String info;
 
 	private final EconomyEntity holder;
 
 	public EconomyAction(BigDecimal amount, EconomyEntity holder, boolean success, String transactionInfo) {
 		this.amount = amount;
+		this.minorUnits = 0;
+		this.scale = -1;
+		this.shared = false;
 		this.success = success;
 		this.info = transactionInfo != null ? transactionInfo : "";
 		this.holder = holder;
@@ -59,6 +70,57 @@ public class EconomyAction {
 		this(null, holder, success, transactionInfo);
 	}
 
+	/**
+	 * Create a transaction whose amount is given in minor units. The
+	 * BigDecimal is only created if {@link #getAmount()} is called.
+	 * @param minorUnits      amount in minor units
+	 * @param scale           decimal places of one minor unit
+	 * @param holder          entity involved
+	 * @param success         result of the transaction
+	 * @param transactionInfo information about the transaction
+	 */
+	public EconomyAction(long minorUnits, int scale, EconomyEntity holder, boolean success, String transactionInfo) {
+		this.minorUnits = minorUnits;
+		this.scale = scale;
+		this.shared = false;
+		this.success = success;
+		this.info = transactionInfo != null ? transactionInfo : "";
+		this.holder = holder;
+	}
+
+	private EconomyAction(EconomyEntity holder, boolean success, String transactionInfo, boolean shared) {
+		this.amount = null;
+		this.minorUnits = 0;
+		this.scale = -1;
+		this.shared = shared;
+		this.success = success;
+		this.info = transactionInfo != null ? transactionInfo : "";
+		this.holder = holder;
+	}
+
+	/**
+	 * Create an info action which never changes, so one instance may be
+	 * returned by every call that has the same outcome, e.g. each failed
+	 * call on a missing account.
+	 * <p>{@link #log()} on a shared action dispatches it every time and
+	 * records nothing on the object.</p>
+	 * @param holder          entity involved
+	 * @param success         result of the action
+	 * @param transactionInfo information about the action
+	 * @return a shareable action
+	 */
+	public static EconomyAction shared(EconomyEntity holder, boolean success, String transactionInfo) {
+		return new EconomyAction(holder, success, transactionInfo, true);
+	}
+
+	/**
+	 * Check whether this action may be returned more than once.
+	 * @return true if created by {@link #shared}
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
 	/**
 	 * Get the end result of the transaction
 	 * @return false is transaction failed
@@ -81,9 +143,20 @@ public class EconomyAction {
 	 */
 	@Nullable
 	public BigDecimal getAmount() {
+		if (amount == null && scale >= 0) {
+			amount = Money.toBigDecimal(minorUnits, scale);
+		}
 		return amount;
 	}
 
+	/**
+	 * Check whether this action involves an amount, i.e. is a transaction.
+	 * @return true if {@link #getAmount()} is not null
+	 */
+	public boolean hasAmount() {
+		return amount != null || scale >= 0;
+	}
+
 	/**
 	 * Gets the transaction result information.
 	 * @return The returned information from the constructor - empty if absent
@@ -94,20 +167,34 @@ public class EconomyAction {
 
 	/**
 	 * Fluid-interface method to enable log for this EconomyAction.
+	 * <p>The event is handed to the running {@link EconomyEventDispatcher};
+	 * before Enterprise has started it, an async task is scheduled instead.
+	 * Unless the action is {@link #isShared() shared}, it is only logged once.</p>
 	 * @return this EconomyAction
 	 */
 	public EconomyAction log() {
-		if (!logged) {
-			final EconomyAction economyAction = this;
-			new BukkitRunnable() {
-				@Override
-				public void run() {
-					PM.callEvent(((amount != null) ? new AsyncTransactionEvent(economyAction) :
-							new AsyncEconomyInfoEvent(economyAction)));
-				}
-			}.runTaskAsynchronously(JavaPlugin.getProvidingPlugin(EconomyAction.class));
+		if (shared) {
+			dispatch();
+		} else if (!logged) {
+			dispatch();
 			logged = true;
 		}
 		return this;
 	}
+
+	private void dispatch() {
+		final EconomyEventDispatcher dispatcher = EconomyEventDispatcher.getInstance();
+		if (dispatcher != null) {
+			dispatcher.submit(this);
+			return;
+		}
+		final EconomyAction economyAction = this;
+		new BukkitRunnable() {
+			@Override
+			public void run() {
+				PM.callEvent((hasAmount() ? new AsyncTransactionEvent(economyAction) :
+						new AsyncEconomyInfoEvent(economyAction)));
+			}
+		}.runTaskAsynchronously(JavaPlugin.getProvidingPlugin(EconomyAction.class));
+	}
 }
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The Executor running the default {@code *Async} methods of Balance and
+ * AdvancedEconomy.
+ * <p>Until {@link #set(Executor)} is called, calls run on a shared pool
+ * of daemon threads. Enterprise installs a fixed-size pool on enable;
+ * providers wanting their own threads override
+ * {@code getAsyncExecutor()} instead.</p>
+ */
+public final class EconomyExecutor {
+
+	private static volatile Executor executor;
+
+	private EconomyExecutor() {
+	}
+
+	private static final class DefaultPool {
+		static final ExecutorService POOL = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "Enterprise-Async-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Get the Executor for async economy calls.
+	 * @return the installed executor or the shared default pool
+	 */
+	public static Executor get() {
+		final Executor installed = executor;
+		return installed != null ? installed : DefaultPool.POOL;
+	}
+
+	/**
+	 * Install the Executor for async economy calls.
+	 * @param executor an executor, or null to restore the default pool
+	 */
+	public static void set(@Nullable Executor executor) {
+		EconomyExecutor.executor = executor;
+	}
+}
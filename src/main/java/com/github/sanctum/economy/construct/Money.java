@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fixed-point amount: a count of minor units and the number of decimal
+ * places they represent (2 for cents).
+ * <p>The static methods convert between minor units and BigDecimal
+ * without creating a Money; they back the {@code long} overloads of
+ * {@link com.github.sanctum.economy.construct.account.Balance}.</p>
+ */
+public final class Money implements Comparable<Money> {
+
+	/**
+	 * Returned by {@code getBalanceMinor} when there is no balance.
+	 */
+	public static final long ABSENT = Long.MIN_VALUE;
+
+	/**
+	 * Largest supported scale; 10^18 is the largest power of ten in a long.
+	 */
+	public static final int MAX_SCALE = 18;
+
+	private final long minorUnits;
+	private final int scale;
+
+	private Money(long minorUnits, int scale) {
+		this.minorUnits = minorUnits;
+		this.scale = scale;
+	}
+
+	/**
+	 * @param minorUnits amount in minor units
+	 * @param scale      decimal places of one minor unit
+	 * @return a Money
+	 */
+	public static Money of(long minorUnits, int scale) {
+		checkScale(scale);
+		return new Money(minorUnits, scale);
+	}
+
+	/**
+	 * @param amount an amount with no more than 'scale' decimal places
+	 * @param scale  decimal places of one minor unit
+	 * @return a Money
+	 * @throws ArithmeticException if the amount needs rounding or does not fit
+	 */
+	public static Money of(@NotNull BigDecimal amount, int scale) {
+		return new Money(toMinorUnits(amount, scale), scale);
+	}
+
+	private static void checkScale(int scale) {
+		if (scale < 0 || scale > MAX_SCALE) {
+			throw new IllegalArgumentException("scale must be between 0 and " + MAX_SCALE);
+		}
+	}
+
+	/**
+	 * Convert minor units to a BigDecimal.
+	 * @param minorUnits amount in minor units
+	 * @param scale      decimal places of one minor unit
+	 * @return the amount
+	 */
+	public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+		return BigDecimal.valueOf(minorUnits, scale);
+	}
+
+	/**
+	 * Convert an amount to minor units exactly.
+	 * @param amount the amount
+	 * @param scale  decimal places of one minor unit
+	 * @return the amount in minor units
+	 * @throws ArithmeticException if the amount needs rounding or does not fit
+	 */
+	public static long toMinorUnits(@NotNull BigDecimal amount, int scale) {
+		checkScale(scale);
+		return amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Convert an amount to minor units, rounding toward negative infinity
+	 * and clamping to the range of a long.
+	 * @param amount the amount
+	 * @param scale  decimal places of one minor unit
+	 * @return the amount in minor units
+	 */
+	public static long toMinorUnitsFloor(@NotNull BigDecimal amount, int scale) {
+		checkScale(scale);
+		final BigDecimal scaled = amount.setScale(scale, RoundingMode.FLOOR);
+		if (scaled.unscaledValue().bitLength() > 63) {
+			return scaled.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE + 1;
+		}
+		return scaled.unscaledValue().longValue();
+	}
+
+	public long getMinorUnits() {
+		return minorUnits;
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	public BigDecimal toBigDecimal() {
+		return toBigDecimal(minorUnits, scale);
+	}
+
+	/**
+	 * @param other an amount of the same scale
+	 * @return the sum
+	 * @throws ArithmeticException if the sum overflows
+	 */
+	public Money plus(Money other) {
+		checkSameScale(other);
+		return new Money(Math.addExact(minorUnits, other.minorUnits), scale);
+	}
+
+	/**
+	 * @param other an amount of the same scale
+	 * @return the difference
+	 * @throws ArithmeticException if the difference overflows
+	 */
+	public Money minus(Money other) {
+		checkSameScale(other);
+		return new Money(Math.subtractExact(minorUnits, other.minorUnits), scale);
+	}
+
+	private void checkSameScale(Money other) {
+		if (other.scale != scale) {
+			throw new IllegalArgumentException("Scale " + other.scale + " does not match " + scale);
+		}
+	}
+
+	public int signum() {
+		return Long.signum(minorUnits);
+	}
+
+	@Override
+	public int compareTo(@NotNull Money o) {
+		if (o.scale == scale) return Long.compare(minorUnits, o.minorUnits);
+		return toBigDecimal().compareTo(o.toBigDecimal());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Money)) return false;
+		final Money money = (Money) o;
+		return minorUnits == money.minorUnits && scale == money.scale;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(minorUnits) + scale;
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+}
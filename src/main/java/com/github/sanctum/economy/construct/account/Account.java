@@ -23,38 +23,147 @@ package com.github.sanctum.economy.construct.account;
 import com.github.sanctum.economy.construct.entity.EconomyEntity;
 import com.github.sanctum.economy.construct.account.permissive.AccountType;
 
-import java.util.Arrays;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.github.sanctum.economy.construct.EconomyAction;
 import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * The abstract base for Bank Accounts
  */
 public abstract class Account extends Balance {
 
+	private final String id;
+
+	// false when the id was derived by the legacy constructor
+	private final boolean identified;
+
 	private final AccountType accountType;
 
-	private final List<String> members;
+	private final Set<String> members = ConcurrentHashMap.newKeySet();
+
+	private final List<String> memberList = new MemberList();
+
+	// set by MembershipIndex#track
+	volatile MembershipIndex index;
 
+	/**
+	 * @param id          stable id of this account, unique within its
+	 *                    economy; null for a view of a missing account
+	 * @param accountType type of this account
+	 * @param holder      owner of this account
+	 * @param members     initial members
+	 */
+	public Account(@Nullable String id, AccountType accountType, EconomyEntity holder, EconomyEntity... members) {
+		this(id, true, accountType, holder, members);
+	}
+
+	/**
+	 * Create an account identified by its holder and type, for providers
+	 * keeping one account of each type per holder.
+	 * <p>The derived id only serves lookups: such accounts are equal only
+	 * to themselves.</p>
+	 */
 	public Account(AccountType accountType, EconomyEntity holder, EconomyEntity... members) {
+		this(defaultId(accountType, holder), false, accountType, holder, members);
+	}
+
+	private Account(@Nullable String id, boolean identified, AccountType accountType, EconomyEntity holder, EconomyEntity... members) {
 		super(holder);
+		this.id = id;
+		this.identified = identified && id != null;
 		this.accountType = accountType;
-		this.members = Arrays.stream(members).map(EconomyEntity::id).collect(Collectors.toList());
+		for (EconomyEntity member : members) {
+			this.members.add(member.id());
+		}
+	}
+
+	private static String defaultId(AccountType accountType, EconomyEntity holder) {
+		return (holder != null ? holder.id() : "null") + '/' + accountType;
 	}
 
 	public AccountType getType() {
 		return accountType;
 	}
 
-	public String getId() { return "your-id-here"; }
+	/**
+	 * Get the id of this account. Accounts created with the same id are
+	 * equal; accounts with an id derived from their holder and type are
+	 * only equal to themselves.
+	 * @return the id, or null for a view of a missing account
+	 */
+	public String getId() {
+		return id;
+	}
 
+	/**
+	 * Get the ids of the members of this account.
+	 * <p>Adding to or removing from the list goes through
+	 * {@link #addMemberId(String)} and {@link #removeMemberId(String)};
+	 * adding a member twice has no effect.</p>
+	 * @return live view of {@link #getMemberIds()}
+	 */
 	public List<String> getMembers() {
-		return members;
+		return memberList;
+	}
+
+	/**
+	 * Get the ids of the members of this account.
+	 * @return unmodifiable live view
+	 */
+	public Set<String> getMemberIds() {
+		return Collections.unmodifiableSet(members);
+	}
+
+	/**
+	 * Check membership without building an {@link EconomyAction}.
+	 * @param entityId {@link EconomyEntity#id()} of the entity
+	 * @return true if the entity is a member
+	 */
+	public boolean hasMember(String entityId) {
+		return getMemberIds().contains(entityId);
+	}
+
+	public boolean hasMember(EconomyEntity entity) {
+		return hasMember(entity.id());
+	}
+
+	/**
+	 * Add a member to the set kept by this class and to the
+	 * {@link MembershipIndex} tracking this account, if any.
+	 * Implementations of {@code addMember} may call this.
+	 * @param entityId {@link EconomyEntity#id()} of the new member
+	 * @return true if it was not a member yet
+	 */
+	protected boolean addMemberId(String entityId) {
+		final boolean added = members.add(entityId);
+		final MembershipIndex index = this.index;
+		if (added && index != null) {
+			index.add(entityId, getId());
+		}
+		return added;
+	}
+
+	/**
+	 * Remove a member from the set kept by this class and from the
+	 * {@link MembershipIndex} tracking this account, if any.
+	 * @param entityId {@link EconomyEntity#id()} of the member
+	 * @return true if it was a member
+	 */
+	protected boolean removeMemberId(String entityId) {
+		final boolean removed = members.remove(entityId);
+		final MembershipIndex index = this.index;
+		if (removed && index != null) {
+			index.remove(entityId, getId());
+		}
+		return removed;
 	}
 
 	// ===== MEMBER MANAGEMENT =====
@@ -139,11 +248,98 @@ public abstract class Account extends Balance {
 	public abstract EconomyAction removeMember(UUID uuid);
 	public abstract EconomyAction removeMember(UUID uuid, String world);
 
+	// list view of 'members' for getMembers(), writing through addMemberId/removeMemberId
+	private final class MemberList extends AbstractList<String> {
+		@Override
+		public String get(int index) {
+			if (index >= 0) {
+				int i = 0;
+				for (String member : members) {
+					if (i++ == index) return member;
+				}
+			}
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+
+		@Override
+		public int size() {
+			return members.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return members.contains(o);
+		}
+
+		@Override
+		public boolean add(String member) {
+			return addMemberId(member);
+		}
+
+		@Override
+		public void add(int index, String member) {
+			addMemberId(member);
+		}
+
+		@Override
+		public String set(int index, String member) {
+			final String previous = get(index);
+			removeMemberId(previous);
+			addMemberId(member);
+			return previous;
+		}
+
+		@Override
+		public String remove(int index) {
+			final String member = get(index);
+			removeMemberId(member);
+			return member;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return o instanceof String && removeMemberId((String) o);
+		}
+
+		@Override
+		public void clear() {
+			for (String member : members) {
+				removeMemberId(member);
+			}
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			final Iterator<String> iterator = members.iterator();
+			return new Iterator<String>() {
+				private String last;
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public String next() {
+					return last = iterator.next();
+				}
+
+				@Override
+				public void remove() {
+					if (last == null) throw new IllegalStateException();
+					removeMemberId(last);
+					last = null;
+				}
+			};
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "Account{" +
-				"accountType=" + accountType +
-				", members=" + members +
+				"id=" + getId() +
+				", accountType=" + accountType +
+				", members=" + getMemberIds() +
 				'}';
 	}
 
@@ -151,13 +347,14 @@ public abstract class Account extends Balance {
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (!(o instanceof Account)) return false;
-		Account account = (Account) o;
-		return accountType == account.accountType &&
-				Objects.equals(getMembers(), account.getMembers());
+		final Account other = (Account) o;
+		final String id = getId();
+		return identified && other.identified && id != null && id.equals(other.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(accountType, getMembers());
+		final String id = getId();
+		return identified && id != null ? id.hashCode() : System.identityHashCode(this);
 	}
 }
@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One page of accounts and the cursor of the next page.
+ * <p>Cursors are opaque to callers: pass {@link #getNextCursor()} back to
+ * the method that returned this page, or null for the first page. The
+ * helpers here page in id order and use the id of the last account of a
+ * page.</p>
+ */
+public final class AccountPage {
+
+	private static final AccountPage EMPTY = new AccountPage(Collections.emptyList(), null);
+
+	private final List<Account> accounts;
+	private final String nextCursor;
+
+	public AccountPage(List<Account> accounts, @Nullable String nextCursor) {
+		this.accounts = Collections.unmodifiableList(accounts);
+		this.nextCursor = nextCursor;
+	}
+
+	public static AccountPage empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Take one page from a stream of accounts, in id order.
+	 * <p>The page holds the accounts with the smallest ids after 'cursor',
+	 * so the stream may list accounts in any order, and accounts added or
+	 * deleted between pages never make paging skip the others. Accounts
+	 * without an id are left out. Every account is read once, keeping
+	 * only the page in memory.</p>
+	 * @param accounts the accounts to page through
+	 * @param cursor   cursor from the previous page or null
+	 * @param pageSize maximum accounts on the page
+	 * @return the page
+	 */
+	public static AccountPage after(Stream<? extends Account> accounts, @Nullable String cursor, int pageSize) {
+		final int size = Math.max(1, pageSize);
+		final TreeMap<String, Account> page = new TreeMap<>();
+		boolean more = false;
+		final Iterator<? extends Account> iterator = accounts.iterator();
+		while (iterator.hasNext()) {
+			final Account account = iterator.next();
+			final String id = account.getId();
+			if (id == null || cursor != null && id.compareTo(cursor) <= 0 || page.containsKey(id)) {
+				continue;
+			}
+			if (page.size() < size) {
+				page.put(id, account);
+			} else {
+				more = true;
+				if (id.compareTo(page.lastKey()) < 0) {
+					page.pollLastEntry();
+					page.put(id, account);
+				}
+			}
+		}
+		return new AccountPage(new ArrayList<>(page.values()), more ? page.lastKey() : null);
+	}
+
+	/**
+	 * Match accounts by type and world.
+	 * @param type  required type, or null for any
+	 * @param world world the account must exist in, or null for any
+	 * @return filter for {@link Stream#filter(Predicate)}
+	 */
+	public static Predicate<Account> filter(@Nullable AccountType type, @Nullable String world) {
+		if (type == null && world == null) {
+			return account -> true;
+		}
+		return account -> (type == null || account.getType() == type)
+				&& (world == null || account.exists(world));
+	}
+
+	/**
+	 * Get the accounts of this page.
+	 * @return unmodifiable list, empty on the last page if nothing remained
+	 */
+	public List<Account> getAccounts() {
+		return accounts;
+	}
+
+	/**
+	 * Get the cursor of the next page.
+	 * @return the cursor, or null if this is the last page
+	 */
+	public @Nullable String getNextCursor() {
+		return nextCursor;
+	}
+
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+	@Override
+	public String toString() {
+		return "AccountPage{" +
+				"accounts=" + accounts.size() +
+				", nextCursor='" + nextCursor + '\'' +
+				'}';
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Accounts of one economy indexed by {@link Account#getId()}, by holder and
+ * by member.
+ * <p>Lookups by id, holder or member are O(1). Registered accounts are
+ * {@link MembershipIndex#track(Account) tracked}, so members added through
+ * {@link Account#addMemberId(String)} are found by
+ * {@link #getAccountsOf(EconomyEntity)} right away.</p>
+ * @param <A> the provider's account type
+ */
+public final class AccountRegistry<A extends Account> {
+
+	private final Map<String, A> byId = new ConcurrentHashMap<>();
+	// holder id to ids of the accounts it owns, oldest first
+	private final Map<String, List<String>> byHolder = new ConcurrentHashMap<>();
+	private final MembershipIndex memberships = new MembershipIndex();
+	// ids in order, for paging
+	private final NavigableSet<String> sortedIds = new ConcurrentSkipListSet<>();
+
+	/**
+	 * Add an account unless one with the same id is registered.
+	 * @param account an account with a non-null id
+	 * @return true if added
+	 */
+	public boolean register(A account) {
+		final String id = account.getId();
+		if (byId.putIfAbsent(id, account) != null) {
+			return false;
+		}
+		byHolder.computeIfAbsent(account.getHolder().id(), k -> new CopyOnWriteArrayList<>()).add(id);
+		sortedIds.add(id);
+		memberships.track(account);
+		return true;
+	}
+
+	/**
+	 * Remove an account and its memberships.
+	 * @param accountId id of the account
+	 * @return the removed account or null
+	 */
+	public @Nullable A remove(String accountId) {
+		final A account = byId.remove(accountId);
+		if (account == null) {
+			return null;
+		}
+		byHolder.computeIfPresent(account.getHolder().id(), (k, ids) -> {
+			ids.remove(accountId);
+			return ids.isEmpty() ? null : ids;
+		});
+		memberships.untrack(account);
+		sortedIds.remove(accountId);
+		return account;
+	}
+
+	public @Nullable A get(String accountId) {
+		return byId.get(accountId);
+	}
+
+	public boolean contains(String accountId) {
+		return byId.containsKey(accountId);
+	}
+
+	/**
+	 * Check whether an account is the one registered under its id.
+	 * @param account an account
+	 * @return true if registered
+	 */
+	public boolean isRegistered(Account account) {
+		final String id = account.getId();
+		return id != null && byId.get(id) == account;
+	}
+
+	/**
+	 * Get the accounts an entity owns.
+	 * @param holder the owner
+	 * @return a new list, in the order registered
+	 */
+	public List<A> getAccountsOwnedBy(EconomyEntity holder) {
+		return resolve(byHolder.getOrDefault(holder.id(), Collections.emptyList()), null);
+	}
+
+	/**
+	 * Get every account an entity owns or is a member of.
+	 * @param entity the owner or member
+	 * @return owned accounts first, then shared ones
+	 */
+	public List<A> getAccountsOf(EconomyEntity entity) {
+		final List<String> owned = byHolder.getOrDefault(entity.id(), Collections.emptyList());
+		final List<A> list = resolve(owned, null);
+		list.addAll(resolve(memberships.getAccountIds(entity.id()), owned));
+		return list;
+	}
+
+	private List<A> resolve(Collection<String> ids, @Nullable Collection<String> skip) {
+		final List<A> list = new ArrayList<>(ids.size());
+		for (String id : ids) {
+			if (skip != null && skip.contains(id)) continue;
+			final A account = byId.get(id);
+			if (account != null) list.add(account);
+		}
+		return list;
+	}
+
+	/**
+	 * Get one page of accounts in id order, for
+	 * {@link com.github.sanctum.economy.construct.implement.AdvancedEconomy#getAccountPage(String, int, AccountType, String)}.
+	 * <p>Finding the cursor is O(log n); accounts registered or removed
+	 * between pages are seen or skipped depending on their id.</p>
+	 * @param cursor   id of the last account of the previous page, or null
+	 * @param pageSize maximum accounts on the page
+	 * @param filter   accounts to include
+	 * @return the page
+	 */
+	public AccountPage page(@Nullable String cursor, int pageSize, Predicate<? super A> filter) {
+		final int size = Math.max(1, pageSize);
+		final Iterator<String> ids = (cursor == null ? sortedIds : sortedIds.tailSet(cursor, false)).iterator();
+		final List<Account> page = new ArrayList<>(Math.min(size, 256));
+		while (ids.hasNext()) {
+			final A account = byId.get(ids.next());
+			if (account == null || !filter.test(account)) continue;
+			if (page.size() == size) {
+				return new AccountPage(page, page.get(size - 1).getId());
+			}
+			page.add(account);
+		}
+		return new AccountPage(page, null);
+	}
+
+	/**
+	 * Stream the registered accounts in id order.
+	 * @return lazily evaluated stream
+	 */
+	public Stream<A> stream() {
+		return sortedIds.stream().map(byId::get).filter(Objects::nonNull);
+	}
+
+	/**
+	 * Get every registered account.
+	 * @return unmodifiable live view
+	 */
+	public Collection<A> values() {
+		return Collections.unmodifiableCollection(byId.values());
+	}
+
+	/**
+	 * Get the id of every registered account.
+	 * @return unmodifiable live view, in id order
+	 */
+	public Set<String> ids() {
+		return Collections.unmodifiableSet(sortedIds);
+	}
+
+	public int size() {
+		return byId.size();
+	}
+
+	public void clear() {
+		for (A account : byId.values()) {
+			if (account.index == memberships) {
+				account.index = null;
+			}
+		}
+		byId.clear();
+		byHolder.clear();
+		memberships.clear();
+		sortedIds.clear();
+	}
+}
@@ -21,10 +21,14 @@
 package com.github.sanctum.economy.construct.account;
 
 import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.EconomyExecutor;
+import com.github.sanctum.economy.construct.Money;
 import com.github.sanctum.economy.construct.account.helpers.operation.Drawable;
 import com.github.sanctum.economy.construct.account.helpers.operation.Payable;
 import com.github.sanctum.economy.construct.entity.EconomyEntity;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -105,6 +109,220 @@ public abstract class Balance implements Payable, Drawable {
 	 */
 	public abstract boolean has(BigDecimal amount, String world);
 
+	// ===== ASYNC =====
+
+	/**
+	 * Get the Executor running the default {@code *Async} methods of
+	 * this Balance.
+	 * @return {@link EconomyExecutor#get()} unless overridden
+	 */
+	public Executor getAsyncExecutor() {
+		return EconomyExecutor.get();
+	}
+
+	/**
+	 * Deposit an amount without blocking the calling thread.
+	 * <p>The default implementation runs {@link #deposit(BigDecimal)} on
+	 * {@link #getAsyncExecutor()}. Providers with non-blocking storage
+	 * should override the {@code *Async} methods.</p>
+	 * @param amount amount to deposit
+	 * @return the future result
+	 */
+	public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+		return CompletableFuture.supplyAsync(() -> deposit(amount), getAsyncExecutor());
+	}
+
+	/**
+	 * Deposit an amount in the world 'world' without blocking the
+	 * calling thread.
+	 * @param amount amount to deposit
+	 * @param world  Name of world
+	 * @return the future result
+	 */
+	public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+		return CompletableFuture.supplyAsync(() -> deposit(amount, world), getAsyncExecutor());
+	}
+
+	/**
+	 * Withdraw an amount without blocking the calling thread.
+	 * @param amount amount to withdraw
+	 * @return the future result
+	 */
+	public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+		return CompletableFuture.supplyAsync(() -> withdraw(amount), getAsyncExecutor());
+	}
+
+	/**
+	 * Withdraw an amount in the world 'world' without blocking the
+	 * calling thread.
+	 * @param amount amount to withdraw
+	 * @param world  Name of world
+	 * @return the future result
+	 */
+	public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+		return CompletableFuture.supplyAsync(() -> withdraw(amount, world), getAsyncExecutor());
+	}
+
+	/**
+	 * Get the value of this Balance without blocking the calling thread.
+	 * @return the future value, which may be null
+	 */
+	public CompletableFuture<BigDecimal> getBalanceAsync() {
+		return CompletableFuture.supplyAsync(this::getBalance, getAsyncExecutor());
+	}
+
+	/**
+	 * Get the value of this Balance in the world 'world' without
+	 * blocking the calling thread.
+	 * @param world Name of world
+	 * @return the future value, which may be null
+	 */
+	public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+		return CompletableFuture.supplyAsync(() -> getBalance(world), getAsyncExecutor());
+	}
+
+	// ===== MINOR UNITS =====
+
+	/**
+	 * Returned by {@link #getScale()} when the provider has not said
+	 * which scale it uses.
+	 */
+	public static final int UNKNOWN_SCALE = -1;
+
+	/**
+	 * Get the number of decimal places of one minor unit of this Balance.
+	 * <p>The {@code long} methods below are in units of this scale, so it
+	 * must match the provider's currency, normally
+	 * {@link com.github.sanctum.economy.construct.currency.normal.EconomyCurrency#getScale()}.
+	 * Until a provider overrides this the {@code long} methods throw
+	 * instead of guessing.</p>
+	 * @return scale, between 0 and {@link Money#MAX_SCALE}, or
+	 * {@link #UNKNOWN_SCALE}
+	 */
+	public int getScale() {
+		return UNKNOWN_SCALE;
+	}
+
+	private int minorScale() {
+		final int scale = getScale();
+		if (scale == UNKNOWN_SCALE) {
+			throw new UnsupportedOperationException(getClass().getName() + " does not declare its scale; override getScale() to use minor units");
+		}
+		return scale;
+	}
+
+	/**
+	 * Deposit an amount in minor units in a general context.
+	 * <p>The default implementation converts to BigDecimal and calls
+	 * {@link #deposit(BigDecimal)}. Providers storing fixed-point values
+	 * should override all {@code long} methods.</p>
+	 * <p>Like every {@code long} method this throws
+	 * {@link UnsupportedOperationException} while {@link #getScale()}
+	 * returns {@link #UNKNOWN_SCALE}.</p>
+	 * @param minorUnits amount in minor units
+	 * @return An economy action retaining information.
+	 */
+	public EconomyAction deposit(long minorUnits) {
+		return deposit(Money.toBigDecimal(minorUnits, minorScale()));
+	}
+
+	/**
+	 * Deposit an amount in minor units in the context of world 'world'.
+	 * @param minorUnits amount in minor units
+	 * @param world      Name of world
+	 * @return An economy action retaining information.
+	 */
+	public EconomyAction deposit(long minorUnits, String world) {
+		return deposit(Money.toBigDecimal(minorUnits, minorScale()), world);
+	}
+
+	/**
+	 * Withdraw an amount in minor units in a general context.
+	 * @param minorUnits amount in minor units
+	 * @return An economy action retaining information.
+	 */
+	public EconomyAction withdraw(long minorUnits) {
+		return withdraw(Money.toBigDecimal(minorUnits, minorScale()));
+	}
+
+	/**
+	 * Withdraw an amount in minor units in the context of world 'world'.
+	 * @param minorUnits amount in minor units
+	 * @param world      Name of world
+	 * @return An economy action retaining information.
+	 */
+	public EconomyAction withdraw(long minorUnits, String world) {
+		return withdraw(Money.toBigDecimal(minorUnits, minorScale()), world);
+	}
+
+	/**
+	 * Test if this Balance is greater than or equal to an amount in minor
+	 * units in a general context.
+	 * @param minorUnits amount to test
+	 * @return true if balance >= to amount, false otherwise
+	 */
+	public boolean has(long minorUnits) {
+		return has(Money.toBigDecimal(minorUnits, minorScale()));
+	}
+
+	/**
+	 * Test if this Balance is greater than or equal to an amount in minor
+	 * units in the context of world 'world'.
+	 * @param minorUnits amount to test
+	 * @param world      Name of world
+	 * @return true if balance >= to amount, false otherwise
+	 */
+	public boolean has(long minorUnits, String world) {
+		return has(Money.toBigDecimal(minorUnits, minorScale()), world);
+	}
+
+	/**
+	 * Get the value of this Balance in minor units in a general context,
+	 * rounded down if it has more decimal places than {@link #getScale()}.
+	 * @return value in minor units or {@link Money#ABSENT}
+	 */
+	public long getBalanceMinor() {
+		final BigDecimal balance = getBalance();
+		return balance == null ? Money.ABSENT : Money.toMinorUnitsFloor(balance, minorScale());
+	}
+
+	/**
+	 * Get the value of this Balance in minor units in the context of
+	 * world 'world'.
+	 * @param world Name of world
+	 * @return value in minor units or {@link Money#ABSENT}
+	 */
+	public long getBalanceMinor(String world) {
+		final BigDecimal balance = getBalance(world);
+		return balance == null ? Money.ABSENT : Money.toMinorUnitsFloor(balance, minorScale());
+	}
+
+	/**
+	 * Move an amount from this Balance to another in a general context.
+	 * <p>The default implementation withdraws and deposits under
+	 * {@link BalanceLocks}, which excludes other transfers but not plain
+	 * deposits and withdrawals. Providers that can do both in a single
+	 * storage transaction should override it.</p>
+	 * @param to     Balance receiving the amount
+	 * @param amount amount to move
+	 * @return An economy action retaining information.
+	 */
+	public EconomyAction transfer(Balance to, BigDecimal amount) {
+		return BalanceLocks.transfer(this, to, amount, null);
+	}
+
+	/**
+	 * Move an amount from this Balance to another in the context
+	 * of world 'world'.
+	 * @param to     Balance receiving the amount
+	 * @param amount amount to move
+	 * @param world  Name of world
+	 * @return An economy action retaining information.
+	 */
+	public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+		return BalanceLocks.transfer(this, to, amount, world);
+	}
+
 	/**
 	 * Get the EconomyEntity associated with this Balance.
 	 * @return entity
@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Striped locks guarding transfers between Balances.
+ * <p>Each {@link EconomyEntity#id()} maps to one of a fixed set of locks.
+ * A transfer takes the locks of both holders in stripe order, so two
+ * transfers in opposite directions between the same holders can never
+ * deadlock.</p>
+ * <p>A transfer is a withdrawal followed by a deposit, not an atomic
+ * operation. The locks only exclude other transfers: plain deposits and
+ * withdrawals on the same Balances may run in between, and another thread
+ * can see the amount missing from both sides for a moment. If the
+ * deposit fails or throws, the withdrawal is refunded.</p>
+ */
+public final class BalanceLocks {
+
+	private static final int STRIPES = 64;
+	private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+	static {
+		for (int i = 0; i < STRIPES; i++) {
+			LOCKS[i] = new ReentrantLock();
+		}
+	}
+
+	private BalanceLocks() {
+	}
+
+	private static int stripe(EconomyEntity entity) {
+		final int h = entity.id().hashCode();
+		return (h ^ (h >>> 16)) & (STRIPES - 1);
+	}
+
+	/**
+	 * Move an amount from one Balance to another while holding the locks
+	 * of both holders. If the deposit fails or throws the withdrawal is
+	 * refunded; if the refund fails too, a failed action saying so is
+	 * {@link EconomyAction#log() logged} and returned, or attached to the
+	 * rethrown exception.
+	 *
+	 * @param from   balance to withdraw from
+	 * @param to     balance to deposit into
+	 * @param amount amount to move
+	 * @param world  Name of world or null for the general context
+	 * @return one action describing the whole transfer
+	 */
+	public static EconomyAction transfer(Balance from, Balance to, BigDecimal amount, @Nullable String world) {
+		final EconomyEntity holder = from.getHolder();
+		if (amount == null || amount.signum() <= 0) {
+			return new EconomyAction(amount, holder, false, "Transfer amount must be positive");
+		}
+		if (from == to) {
+			return new EconomyAction(amount, holder, false, "Cannot transfer to the same balance");
+		}
+		int first = stripe(holder);
+		int second = stripe(to.getHolder());
+		if (first > second) {
+			final int swap = first;
+			first = second;
+			second = swap;
+		}
+		LOCKS[first].lock();
+		if (second != first) {
+			LOCKS[second].lock();
+		}
+		try {
+			final boolean covered = world == null ? from.has(amount) : from.has(amount, world);
+			if (!covered) {
+				return new EconomyAction(amount, holder, false, "Insufficient funds");
+			}
+			final EconomyAction withdrawn = world == null ? from.withdraw(amount) : from.withdraw(amount, world);
+			if (!withdrawn.isSuccess()) {
+				return new EconomyAction(amount, holder, false, withdrawn.getInfo());
+			}
+			final EconomyAction deposited;
+			try {
+				deposited = world == null ? to.deposit(amount) : to.deposit(amount, world);
+			} catch (RuntimeException e) {
+				final EconomyAction refund = refund(from, amount, world, e.toString());
+				if (refund != null) {
+					e.addSuppressed(new IllegalStateException(refund.getInfo()));
+				}
+				throw e;
+			}
+			if (!deposited.isSuccess()) {
+				final EconomyAction refund = refund(from, amount, world, deposited.getInfo());
+				return refund != null ? refund : new EconomyAction(amount, holder, false, deposited.getInfo());
+			}
+			return new EconomyAction(amount, holder, true, "Transferred " + amount + " to " + to.getHolder().id());
+		} finally {
+			if (second != first) {
+				LOCKS[second].unlock();
+			}
+			LOCKS[first].unlock();
+		}
+	}
+
+	/**
+	 * Give a withdrawn amount back.
+	 * @return null if refunded, otherwise the logged failure
+	 */
+	@Nullable
+	private static EconomyAction refund(Balance from, BigDecimal amount, @Nullable String world, String cause) {
+		String error;
+		try {
+			final EconomyAction refunded = world == null ? from.deposit(amount) : from.deposit(amount, world);
+			if (refunded.isSuccess()) {
+				return null;
+			}
+			error = refunded.getInfo();
+		} catch (RuntimeException e) {
+			error = e.toString();
+		}
+		return new EconomyAction(amount, from.getHolder(), false, "Transfer failed (" + cause + ") and the refund of "
+				+ amount + " failed too (" + error + "); the amount was withdrawn and not returned").log();
+	}
+}
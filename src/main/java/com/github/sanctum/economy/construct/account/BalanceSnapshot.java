@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable copy of a single balance, used to move balances in bulk
+ * between providers, backups and migrations.
+ * <p>A snapshot describes either a Wallet ({@link #getAccountType()} is
+ * null) or an Account, in either the general context ({@link #getWorld()}
+ * is null) or a specific world.</p>
+ */
+public final class BalanceSnapshot {
+
+	private final EconomyEntity holder;
+	private final AccountType accountType;
+	private final String accountId;
+	private final String world;
+	private final BigDecimal balance;
+
+	private BalanceSnapshot(EconomyEntity holder, AccountType accountType, String accountId, String world, BigDecimal balance) {
+		this.holder = Objects.requireNonNull(holder);
+		this.accountType = accountType;
+		this.accountId = accountId;
+		this.world = world;
+		this.balance = Objects.requireNonNull(balance);
+	}
+
+	/**
+	 * Describe a wallet balance.
+	 * @param holder  the wallet's holder
+	 * @param world   Name of world or null for the general context
+	 * @param balance the balance
+	 * @return a new snapshot
+	 */
+	public static BalanceSnapshot ofWallet(@NotNull EconomyEntity holder, @Nullable String world, @NotNull BigDecimal balance) {
+		return new BalanceSnapshot(holder, null, null, world, balance);
+	}
+
+	/**
+	 * Describe an account balance.
+	 * @param holder    the account's holder
+	 * @param type      the account's type
+	 * @param accountId the account's id
+	 * @param world     Name of world or null for the general context
+	 * @param balance   the balance
+	 * @return a new snapshot
+	 */
+	public static BalanceSnapshot ofAccount(@NotNull EconomyEntity holder, @NotNull AccountType type, @NotNull String accountId, @Nullable String world, @NotNull BigDecimal balance) {
+		return new BalanceSnapshot(holder, Objects.requireNonNull(type), Objects.requireNonNull(accountId), world, balance);
+	}
+
+	/**
+	 * Capture the current value of a Balance.
+	 * @param balance the Wallet or Account to read
+	 * @param world   Name of world or null for the general context
+	 * @return a new snapshot or null if the Balance has no value in that context
+	 */
+	@Nullable
+	public static BalanceSnapshot of(@NotNull Balance balance, @Nullable String world) {
+		final BigDecimal value = world == null ? balance.getBalance() : balance.getBalance(world);
+		if (value == null) {
+			return null;
+		}
+		if (balance instanceof Account) {
+			final Account account = (Account) balance;
+			return ofAccount(account.getHolder(), account.getType(), account.getId(), world, value);
+		}
+		return ofWallet(balance.getHolder(), world, value);
+	}
+
+	/**
+	 * Capture the general balance of a Balance along with its balance
+	 * in each of the given worlds.
+	 * @param balance the Wallet or Account to read
+	 * @param worlds  Names of worlds to read, may be empty
+	 * @return snapshots of every context in which the Balance has a value
+	 */
+	public static Stream<BalanceSnapshot> allOf(@NotNull Balance balance, @NotNull Collection<String> worlds) {
+		return Stream.concat(Stream.of((String) null), worlds.stream())
+				.map(world -> of(balance, world))
+				.filter(Objects::nonNull);
+	}
+
+	@NotNull
+	public EconomyEntity getHolder() {
+		return holder;
+	}
+
+	/**
+	 * Get the type of the account this snapshot describes.
+	 * @return account type or null if this is a wallet snapshot
+	 */
+	@Nullable
+	public AccountType getAccountType() {
+		return accountType;
+	}
+
+	/**
+	 * Get the id of the account this snapshot describes.
+	 * @return account id or null if this is a wallet snapshot
+	 */
+	@Nullable
+	public String getAccountId() {
+		return accountId;
+	}
+
+	public boolean isWallet() {
+		return accountType == null;
+	}
+
+	/**
+	 * Get the world context of this snapshot.
+	 * @return Name of world or null for the general context
+	 */
+	@Nullable
+	public String getWorld() {
+		return world;
+	}
+
+	@NotNull
+	public BigDecimal getBalance() {
+		return balance;
+	}
+
+	@Override
+	public String toString() {
+		return "BalanceSnapshot{" +
+				"holder=" + holder.id() +
+				", accountType=" + accountType +
+				", accountId='" + accountId + '\'' +
+				", world='" + world + '\'' +
+				", balance=" + balance +
+				'}';
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof BalanceSnapshot)) return false;
+		BalanceSnapshot that = (BalanceSnapshot) o;
+		return holder.id().equals(that.holder.id()) &&
+				accountType == that.accountType &&
+				Objects.equals(accountId, that.accountId) &&
+				Objects.equals(world, that.world) &&
+				balance.compareTo(that.balance) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(holder.id(), accountType, accountId, world);
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from member to the accounts it belongs to, keyed by
+ * {@link EconomyEntity#id()} and {@link Account#getId()}.
+ * <p>Providers keep one per economy and {@link #track(Account)} each
+ * Account they create; {@link Account#addMemberId(String)} and
+ * {@link Account#removeMemberId(String)} then keep it current. Lookups
+ * and updates are O(1) and never block readers; updates of the same
+ * member are serialized so an add can't land in a set a concurrent
+ * remove is dropping.</p>
+ */
+public final class MembershipIndex {
+
+	private final Map<String, Set<String>> byMember = new ConcurrentHashMap<>();
+
+	/**
+	 * Index the members of an Account and keep the index current as
+	 * members are added or removed through it.
+	 * @param account an account with a stable id
+	 * @return the same account
+	 */
+	public <T extends Account> T track(T account) {
+		account.index = this;
+		final String accountId = account.getId();
+		for (String member : account.getMemberIds()) {
+			add(member, accountId);
+		}
+		return account;
+	}
+
+	/**
+	 * Stop tracking an Account and forget its memberships, e.g. once it
+	 * is deleted. Later member changes no longer reach this index.
+	 * @param account a tracked account
+	 */
+	public void untrack(Account account) {
+		if (account.index == this) {
+			account.index = null;
+		}
+		removeAccount(account.getId(), account.getMemberIds());
+	}
+
+	/**
+	 * Record a membership.
+	 * @param memberId    id of the member
+	 * @param accountId   id of the account
+	 * @return true if it was not recorded yet
+	 */
+	public boolean add(String memberId, String accountId) {
+		final boolean[] added = new boolean[1];
+		byMember.compute(memberId, (k, ids) -> {
+			if (ids == null) {
+				ids = ConcurrentHashMap.newKeySet();
+			}
+			added[0] = ids.add(accountId);
+			return ids;
+		});
+		return added[0];
+	}
+
+	/**
+	 * Forget a membership.
+	 * @param memberId    id of the member
+	 * @param accountId   id of the account
+	 * @return true if it was recorded
+	 */
+	public boolean remove(String memberId, String accountId) {
+		final boolean[] removed = new boolean[1];
+		byMember.computeIfPresent(memberId, (k, ids) -> {
+			removed[0] = ids.remove(accountId);
+			return ids.isEmpty() ? null : ids;
+		});
+		return removed[0];
+	}
+
+	/**
+	 * Forget every membership of an account, e.g. once it is deleted.
+	 * @param accountId id of the account
+	 * @param members   ids of its members
+	 */
+	public void removeAccount(String accountId, Iterable<String> members) {
+		for (String member : members) {
+			remove(member, accountId);
+		}
+	}
+
+	/**
+	 * Check a membership.
+	 * @param memberId  id of the member
+	 * @param accountId id of the account
+	 * @return true if recorded
+	 */
+	public boolean contains(String memberId, String accountId) {
+		final Set<String> ids = byMember.get(memberId);
+		return ids != null && ids.contains(accountId);
+	}
+
+	/**
+	 * Get the ids of the accounts an entity is a member of.
+	 * @param memberId id of the member
+	 * @return unmodifiable live view, empty if none
+	 */
+	public Set<String> getAccountIds(String memberId) {
+		final Set<String> ids = byMember.get(memberId);
+		return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+	}
+
+	public void clear() {
+		byMember.clear();
+	}
+}
@@ -0,0 +1,424 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account.helpers;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorator base -- forwards every call to another Account. Subclass this
+ * and override only what needs to change.
+ */
+public abstract class ForwardingAccount extends Account {
+
+    protected final Account delegate;
+
+    private final boolean forwardBridges;
+
+    protected ForwardingAccount(Account delegate) {
+        this(delegate, true);
+    }
+
+    /**
+     * @param delegate       the Account to forward to
+     * @param forwardBridges false to leave the {@code long} and async
+     *                       methods to {@link com.github.sanctum.economy.construct.account.Balance},
+     *                       which routes them through this account's
+     *                       BigDecimal methods
+     */
+    protected ForwardingAccount(Account delegate, boolean forwardBridges) {
+        super(delegate.getId(), delegate.getType(), delegate.getHolder());
+        this.delegate = delegate;
+        this.forwardBridges = forwardBridges;
+    }
+
+    /**
+     * Get the Account calls are forwarded to.
+     * @return the wrapped account
+     */
+    public Account getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public AccountType getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public List<String> getMembers() {
+        return delegate.getMembers();
+    }
+
+    @Override
+    public Set<String> getMemberIds() {
+        return delegate.getMemberIds();
+    }
+
+    @Override
+    public boolean hasMember(String entityId) {
+        return delegate.hasMember(entityId);
+    }
+
+    @Override
+    public EconomyAction setBalance(BigDecimal amount) {
+        return delegate.setBalance(amount);
+    }
+
+    @Override
+    public EconomyAction setBalance(BigDecimal amount, String world) {
+        return delegate.setBalance(amount, world);
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public boolean exists(String world) {
+        return delegate.exists(world);
+    }
+
+    @Override
+    public @Nullable BigDecimal getBalance() {
+        return delegate.getBalance();
+    }
+
+    @Override
+    public @Nullable BigDecimal getBalance(String world) {
+        return delegate.getBalance(world);
+    }
+
+    @Override
+    public boolean has(BigDecimal amount) {
+        return delegate.has(amount);
+    }
+
+    @Override
+    public boolean has(BigDecimal amount, String world) {
+        return delegate.has(amount, world);
+    }
+
+    @Override
+    public EconomyAction deposit(BigDecimal amount) {
+        return delegate.deposit(amount);
+    }
+
+    @Override
+    public EconomyAction deposit(BigDecimal amount, String world) {
+        return delegate.deposit(amount, world);
+    }
+
+    @Override
+    public EconomyAction withdraw(BigDecimal amount) {
+        return delegate.withdraw(amount);
+    }
+
+    @Override
+    public EconomyAction withdraw(BigDecimal amount, String world) {
+        return delegate.withdraw(amount, world);
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount) {
+        return delegate.transfer(to, amount);
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+        return delegate.transfer(to, amount, world);
+    }
+
+    @Override
+    public int getScale() {
+        return delegate.getScale();
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits) {
+        return forwardBridges ? delegate.deposit(minorUnits) : super.deposit(minorUnits);
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits, String world) {
+        return forwardBridges ? delegate.deposit(minorUnits, world) : super.deposit(minorUnits, world);
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits) {
+        return forwardBridges ? delegate.withdraw(minorUnits) : super.withdraw(minorUnits);
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits, String world) {
+        return forwardBridges ? delegate.withdraw(minorUnits, world) : super.withdraw(minorUnits, world);
+    }
+
+    @Override
+    public boolean has(long minorUnits) {
+        return forwardBridges ? delegate.has(minorUnits) : super.has(minorUnits);
+    }
+
+    @Override
+    public boolean has(long minorUnits, String world) {
+        return forwardBridges ? delegate.has(minorUnits, world) : super.has(minorUnits, world);
+    }
+
+    @Override
+    public long getBalanceMinor() {
+        return forwardBridges ? delegate.getBalanceMinor() : super.getBalanceMinor();
+    }
+
+    @Override
+    public long getBalanceMinor(String world) {
+        return forwardBridges ? delegate.getBalanceMinor(world) : super.getBalanceMinor(world);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return delegate.getAsyncExecutor();
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+        return forwardBridges ? delegate.depositAsync(amount) : super.depositAsync(amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+        return forwardBridges ? delegate.depositAsync(amount, world) : super.depositAsync(amount, world);
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+        return forwardBridges ? delegate.withdrawAsync(amount) : super.withdrawAsync(amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+        return forwardBridges ? delegate.withdrawAsync(amount, world) : super.withdrawAsync(amount, world);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getBalanceAsync() {
+        return forwardBridges ? delegate.getBalanceAsync() : super.getBalanceAsync();
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+        return forwardBridges ? delegate.getBalanceAsync(world) : super.getBalanceAsync(world);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction isOwner(String name) {
+        return delegate.isOwner(name);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction isOwner(String name, String world) {
+        return delegate.isOwner(name, world);
+    }
+
+    @Override
+    public EconomyAction isOwner(OfflinePlayer player) {
+        return delegate.isOwner(player);
+    }
+
+    @Override
+    public EconomyAction isOwner(OfflinePlayer player, String world) {
+        return delegate.isOwner(player, world);
+    }
+
+    @Override
+    public EconomyAction isOwner(UUID uuid) {
+        return delegate.isOwner(uuid);
+    }
+
+    @Override
+    public EconomyAction isOwner(UUID uuid, String world) {
+        return delegate.isOwner(uuid, world);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction isJointOwner(String name) {
+        return delegate.isJointOwner(name);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction isJointOwner(String name, String world) {
+        return delegate.isJointOwner(name, world);
+    }
+
+    @Override
+    public EconomyAction isJointOwner(OfflinePlayer player) {
+        return delegate.isJointOwner(player);
+    }
+
+    @Override
+    public EconomyAction isJointOwner(OfflinePlayer player, String world) {
+        return delegate.isJointOwner(player, world);
+    }
+
+    @Override
+    public EconomyAction isJointOwner(UUID uuid) {
+        return delegate.isJointOwner(uuid);
+    }
+
+    @Override
+    public EconomyAction isJointOwner(UUID uuid, String world) {
+        return delegate.isJointOwner(uuid, world);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction isMember(String name) {
+        return delegate.isMember(name);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction isMember(String name, String world) {
+        return delegate.isMember(name, world);
+    }
+
+    @Override
+    public EconomyAction isMember(OfflinePlayer player) {
+        return delegate.isMember(player);
+    }
+
+    @Override
+    public EconomyAction isMember(OfflinePlayer player, String world) {
+        return delegate.isMember(player, world);
+    }
+
+    @Override
+    public EconomyAction isMember(UUID uuid) {
+        return delegate.isMember(uuid);
+    }
+
+    @Override
+    public EconomyAction isMember(UUID uuid, String world) {
+        return delegate.isMember(uuid, world);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction addMember(String name) {
+        return delegate.addMember(name);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction addMember(String name, String world) {
+        return delegate.addMember(name, world);
+    }
+
+    @Override
+    public EconomyAction addMember(OfflinePlayer player) {
+        return delegate.addMember(player);
+    }
+
+    @Override
+    public EconomyAction addMember(OfflinePlayer player, String world) {
+        return delegate.addMember(player, world);
+    }
+
+    @Override
+    public EconomyAction addMember(UUID uuid) {
+        return delegate.addMember(uuid);
+    }
+
+    @Override
+    public EconomyAction addMember(UUID uuid, String world) {
+        return delegate.addMember(uuid, world);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction removeMember(String name) {
+        return delegate.removeMember(name);
+    }
+
+    @Override
+    @Deprecated
+    public EconomyAction removeMember(String name, String world) {
+        return delegate.removeMember(name, world);
+    }
+
+    @Override
+    public EconomyAction removeMember(OfflinePlayer player) {
+        return delegate.removeMember(player);
+    }
+
+    @Override
+    public EconomyAction removeMember(OfflinePlayer player, String world) {
+        return delegate.removeMember(player, world);
+    }
+
+    @Override
+    public EconomyAction removeMember(UUID uuid) {
+        return delegate.removeMember(uuid);
+    }
+
+    @Override
+    public EconomyAction removeMember(UUID uuid, String world) {
+        return delegate.removeMember(uuid, world);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // compare the wrapped accounts, so that wrappers equal what they wrap
+        while (o instanceof ForwardingAccount) {
+            o = ((ForwardingAccount) o).delegate;
+        }
+        return delegate.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+}
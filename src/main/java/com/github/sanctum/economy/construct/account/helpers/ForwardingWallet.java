@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account.helpers;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.Wallet;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorator base -- forwards every call to another Wallet. Subclass this
+ * and override only what needs to change.
+ */
+public abstract class ForwardingWallet extends Wallet {
+
+    protected final Wallet delegate;
+
+    private final boolean forwardBridges;
+
+    protected ForwardingWallet(Wallet delegate) {
+        this(delegate, true);
+    }
+
+    /**
+     * @param delegate       the Wallet to forward to
+     * @param forwardBridges false to leave the {@code long} and async
+     *                       methods to {@link com.github.sanctum.economy.construct.account.Balance},
+     *                       which routes them through this wallet's
+     *                       BigDecimal methods
+     */
+    protected ForwardingWallet(Wallet delegate, boolean forwardBridges) {
+        super(delegate.getHolder());
+        this.delegate = delegate;
+        this.forwardBridges = forwardBridges;
+    }
+
+    /**
+     * Get the Wallet calls are forwarded to.
+     * @return the wrapped wallet
+     */
+    public Wallet getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public EconomyAction setBalance(BigDecimal amount) {
+        return delegate.setBalance(amount);
+    }
+
+    @Override
+    public EconomyAction setBalance(BigDecimal amount, String world) {
+        return delegate.setBalance(amount, world);
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public boolean exists(String world) {
+        return delegate.exists(world);
+    }
+
+    @Override
+    public @Nullable BigDecimal getBalance() {
+        return delegate.getBalance();
+    }
+
+    @Override
+    public @Nullable BigDecimal getBalance(String world) {
+        return delegate.getBalance(world);
+    }
+
+    @Override
+    public boolean has(BigDecimal amount) {
+        return delegate.has(amount);
+    }
+
+    @Override
+    public boolean has(BigDecimal amount, String world) {
+        return delegate.has(amount, world);
+    }
+
+    @Override
+    public EconomyAction deposit(BigDecimal amount) {
+        return delegate.deposit(amount);
+    }
+
+    @Override
+    public EconomyAction deposit(BigDecimal amount, String world) {
+        return delegate.deposit(amount, world);
+    }
+
+    @Override
+    public EconomyAction withdraw(BigDecimal amount) {
+        return delegate.withdraw(amount);
+    }
+
+    @Override
+    public EconomyAction withdraw(BigDecimal amount, String world) {
+        return delegate.withdraw(amount, world);
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount) {
+        return delegate.transfer(to, amount);
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+        return delegate.transfer(to, amount, world);
+    }
+
+    @Override
+    public int getScale() {
+        return delegate.getScale();
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits) {
+        return forwardBridges ? delegate.deposit(minorUnits) : super.deposit(minorUnits);
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits, String world) {
+        return forwardBridges ? delegate.deposit(minorUnits, world) : super.deposit(minorUnits, world);
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits) {
+        return forwardBridges ? delegate.withdraw(minorUnits) : super.withdraw(minorUnits);
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits, String world) {
+        return forwardBridges ? delegate.withdraw(minorUnits, world) : super.withdraw(minorUnits, world);
+    }
+
+    @Override
+    public boolean has(long minorUnits) {
+        return forwardBridges ? delegate.has(minorUnits) : super.has(minorUnits);
+    }
+
+    @Override
+    public boolean has(long minorUnits, String world) {
+        return forwardBridges ? delegate.has(minorUnits, world) : super.has(minorUnits, world);
+    }
+
+    @Override
+    public long getBalanceMinor() {
+        return forwardBridges ? delegate.getBalanceMinor() : super.getBalanceMinor();
+    }
+
+    @Override
+    public long getBalanceMinor(String world) {
+        return forwardBridges ? delegate.getBalanceMinor(world) : super.getBalanceMinor(world);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return delegate.getAsyncExecutor();
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+        return forwardBridges ? delegate.depositAsync(amount) : super.depositAsync(amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+        return forwardBridges ? delegate.depositAsync(amount, world) : super.depositAsync(amount, world);
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+        return forwardBridges ? delegate.withdrawAsync(amount) : super.withdrawAsync(amount);
+    }
+
+    @Override
+    public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+        return forwardBridges ? delegate.withdrawAsync(amount, world) : super.withdrawAsync(amount, world);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getBalanceAsync() {
+        return forwardBridges ? delegate.getBalanceAsync() : super.getBalanceAsync();
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+        return forwardBridges ? delegate.getBalanceAsync(world) : super.getBalanceAsync(world);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
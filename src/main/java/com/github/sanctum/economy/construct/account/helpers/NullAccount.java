@@ -21,7 +21,9 @@
 package com.github.sanctum.economy.construct.account.helpers;
 
 import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.Money;
 import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.Balance;
 import com.github.sanctum.economy.construct.account.permissive.AccountType;
 import com.github.sanctum.economy.construct.entity.EconomyEntity;
 import java.math.BigDecimal;
@@ -36,18 +38,29 @@ import org.jetbrains.annotations.Nullable;
  */
 public abstract class NullAccount extends Account {
 
+    /**
+     * Returned by every operation; shared so failed calls allocate nothing.
+     */
+    protected final EconomyAction failure;
+
     protected NullAccount(AccountType accountType, EconomyEntity holder, EconomyEntity... members) {
         super(accountType, holder, members);
+        this.failure = EconomyAction.shared(holder, false, "");
+    }
+
+    protected NullAccount(@Nullable String id, AccountType accountType, EconomyEntity holder, EconomyEntity... members) {
+        super(id, accountType, holder, members);
+        this.failure = EconomyAction.shared(holder, false, "");
     }
 
     @Override
     public EconomyAction setBalance(BigDecimal amount) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction setBalance(BigDecimal amount, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
@@ -72,171 +85,221 @@ public abstract class NullAccount extends Account {
 
     @Override
     public EconomyAction deposit(BigDecimal amount) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction deposit(BigDecimal amount, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction withdraw(BigDecimal amount) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction withdraw(BigDecimal amount, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isOwner(String name) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isOwner(String name, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isOwner(OfflinePlayer player) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isOwner(OfflinePlayer player, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isOwner(UUID uuid) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isOwner(UUID uuid, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isJointOwner(String name) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isJointOwner(String name, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isJointOwner(OfflinePlayer player) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isJointOwner(OfflinePlayer player, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isJointOwner(UUID uuid) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isJointOwner(UUID uuid, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isMember(String name) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isMember(String name, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isMember(OfflinePlayer player) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isMember(OfflinePlayer player, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isMember(UUID uuid) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction isMember(UUID uuid, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction addMember(String name) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction addMember(String name, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction addMember(OfflinePlayer player) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction addMember(OfflinePlayer player, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction addMember(UUID uuid) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction addMember(UUID uuid, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction removeMember(String name) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction removeMember(String name, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction removeMember(OfflinePlayer player) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction removeMember(OfflinePlayer player, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction removeMember(UUID uuid) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction removeMember(UUID uuid, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits, String world) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits, String world) {
+        return failure;
+    }
+
+    @Override
+    public boolean has(long minorUnits) {
+        return false;
+    }
+
+    @Override
+    public boolean has(long minorUnits, String world) {
+        return false;
+    }
+
+    @Override
+    public long getBalanceMinor() {
+        return Money.ABSENT;
+    }
+
+    @Override
+    public long getBalanceMinor(String world) {
+        return Money.ABSENT;
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+        return failure;
     }
 }
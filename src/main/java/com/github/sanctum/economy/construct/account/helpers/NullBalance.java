@@ -21,6 +21,7 @@
 package com.github.sanctum.economy.construct.account.helpers;
 
 import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.Money;
 import com.github.sanctum.economy.construct.account.Balance;
 import com.github.sanctum.economy.construct.entity.EconomyEntity;
 import java.math.BigDecimal;
@@ -33,18 +34,24 @@ import org.jetbrains.annotations.Nullable;
  */
 public abstract class NullBalance extends Balance {
 
+    /**
+     * Returned by every operation; shared so failed calls allocate nothing.
+     */
+    protected final EconomyAction failure;
+
     protected NullBalance(EconomyEntity holder) {
         super(holder);
+        this.failure = EconomyAction.shared(holder, false, "");
     }
 
     @Override
     public EconomyAction setBalance(BigDecimal amount) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction setBalance(BigDecimal amount, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
@@ -69,21 +76,71 @@ public abstract class NullBalance extends Balance {
 
     @Override
     public EconomyAction deposit(BigDecimal amount) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction deposit(BigDecimal amount, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction withdraw(BigDecimal amount) {
-        return new EconomyAction(holder, false, "");
+        return failure;
     }
 
     @Override
     public EconomyAction withdraw(BigDecimal amount, String world) {
-        return new EconomyAction(holder, false, "");
+        return failure;
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction deposit(long minorUnits, String world) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction withdraw(long minorUnits, String world) {
+        return failure;
+    }
+
+    @Override
+    public boolean has(long minorUnits) {
+        return false;
+    }
+
+    @Override
+    public boolean has(long minorUnits, String world) {
+        return false;
+    }
+
+    @Override
+    public long getBalanceMinor() {
+        return Money.ABSENT;
+    }
+
+    @Override
+    public long getBalanceMinor(String world) {
+        return Money.ABSENT;
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount) {
+        return failure;
+    }
+
+    @Override
+    public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+        return failure;
     }
 }
@@ -0,0 +1,456 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account.helpers;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceLocks;
+import com.github.sanctum.economy.construct.account.Wallet;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Write-behind layer for Balances.
+ * <p>Wallets and Accounts wrapped by a buffer keep deposits and withdrawals
+ * in memory as one net change per Balance and world. getBalance and has
+ * answer from the balance read when buffering began plus that change;
+ * withdrawals are only accepted if the merged balance covers them. Net
+ * changes are written to the real Balance by {@link #flush()}, which runs
+ * every interval once {@link #start(Plugin, long)} is called and whenever
+ * the number of buffered operations reaches the configured size.</p>
+ * <p>A buffered deposit or withdrawal succeeds provisionally: a net change
+ * whose write fails stays buffered and is retried by the next
+ * {@link #flush()}, up to {@link #MAX_ATTEMPTS} times. After that, or on
+ * {@link #close()}, it is dropped and an unsuccessful EconomyAction
+ * describing it is {@link EconomyAction#log() logged}, which fires the
+ * transaction events and reaches the journal.</p>
+ * <p>The {@code long} and {@code *Async} methods are bridged to the BigDecimal ones so they
+ * are buffered too. setBalance writes through after flushing what is pending. Transfers
+ * from a buffered Balance are buffered like a withdrawal. Changes
+ * made to the underlying Balance while something is buffered are not
+ * seen until the next flush.</p>
+ */
+public class WriteBehindBuffer {
+
+    /**
+     * Flushes attempted per net change before it is dropped.
+     */
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger operations = new AtomicInteger();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final int maxOperations;
+    private BukkitTask task;
+
+    /**
+     * @param maxOperations buffered operations that trigger a flush
+     */
+    public WriteBehindBuffer(int maxOperations) {
+        if (maxOperations < 1) throw new IllegalArgumentException("maxOperations must be at least 1");
+        this.maxOperations = maxOperations;
+    }
+
+    private static final class Pending {
+        final Balance target;
+        final String world;
+        final BigDecimal base;
+        BigDecimal delta = BigDecimal.ZERO;
+        int attempts;
+        boolean retired;
+
+        Pending(Balance target, String world, BigDecimal base) {
+            this.target = target;
+            this.world = world;
+            this.base = base;
+        }
+
+        BigDecimal merged() {
+            return base.add(delta);
+        }
+    }
+
+    /**
+     * Buffer writes to a Wallet.
+     * @param wallet the wallet to buffer
+     * @return a wallet whose deposits and withdrawals are buffered
+     */
+    public Wallet wrap(Wallet wallet) {
+        if (wallet instanceof BufferedWallet && ((BufferedWallet) wallet).buffer() == this) return wallet;
+        return new BufferedWallet(wallet);
+    }
+
+    /**
+     * Buffer writes to an Account.
+     * @param account the account to buffer
+     * @return an account whose deposits and withdrawals are buffered
+     */
+    public Account wrap(Account account) {
+        if (account instanceof BufferedAccount && ((BufferedAccount) account).buffer() == this) return account;
+        return new BufferedAccount(account);
+    }
+
+    /**
+     * Flush on the main thread every {@code intervalTicks}. Failed writes
+     * are reported to the plugin's logger.
+     * @param plugin        the plugin owning the task
+     * @param intervalTicks ticks between flushes
+     */
+    public synchronized void start(Plugin plugin, long intervalTicks) {
+        if (task != null) task.cancel();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            for (EconomyAction failed : flush()) {
+                plugin.getLogger().warning("Buffered write failed: " + failed.getInfo());
+            }
+        }, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Stop the interval task and flush everything pending. Changes whose
+     * write fails now are dropped and logged.
+     * @return failed writes, see {@link #flush()}
+     */
+    public List<EconomyAction> close() {
+        synchronized (this) {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+        return flush(true);
+    }
+
+    /**
+     * Write every net change to its Balance. Balances with no net change
+     * are not touched.
+     * @return the results of writes that did not succeed; their change
+     * stays buffered for a retry unless it has been attempted
+     * {@link #MAX_ATTEMPTS} times
+     */
+    public List<EconomyAction> flush() {
+        return flush(false);
+    }
+
+    private List<EconomyAction> flush(boolean last) {
+        if (!flushing.compareAndSet(false, true)) return Collections.emptyList();
+        try {
+            operations.set(0);
+            List<EconomyAction> failed = null;
+            for (Map.Entry<String, Pending> e : pending.entrySet()) {
+                final EconomyAction result = flush(e.getKey(), e.getValue(), last);
+                if (result != null && !result.isSuccess()) {
+                    if (failed == null) failed = new ArrayList<>();
+                    failed.add(result);
+                }
+            }
+            return failed == null ? Collections.emptyList() : failed;
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Get the number of buffered operations not yet flushed.
+     * @return pending operations
+     */
+    public int getPendingOperations() {
+        return operations.get();
+    }
+
+    /**
+     * Get the number of Balances with a buffered change.
+     * @return pending balances
+     */
+    public int getPendingBalances() {
+        return pending.size();
+    }
+
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    private static String key(Balance balance, @Nullable String world) {
+        final StringBuilder key = new StringBuilder(balance.getHolder().id());
+        if (balance instanceof Account) {
+            final Account account = (Account) balance;
+            key.append("|a:").append(account.getType()).append('/').append(account.getId());
+        } else {
+            key.append("|w");
+        }
+        if (world != null) key.append('|').append(world);
+        return key.toString();
+    }
+
+    // p stays mapped and locked until its delta is written, so callers wait
+    // for the write instead of reading a base from before it
+    private EconomyAction flush(String key, Pending p, boolean last) {
+        synchronized (p) {
+            if (p.retired) return null;
+            final BigDecimal delta = p.delta;
+            EconomyAction result = null;
+            if (delta.signum() != 0) {
+                if (p.world == null) {
+                    result = delta.signum() > 0 ? p.target.deposit(delta) : p.target.withdraw(delta.negate());
+                } else {
+                    result = delta.signum() > 0 ? p.target.deposit(delta, p.world) : p.target.withdraw(delta.negate(), p.world);
+                }
+                if (result == null || !result.isSuccess()) {
+                    final String info = result == null ? "no result" : result.getInfo();
+                    if (!last && ++p.attempts < MAX_ATTEMPTS) {
+                        return new EconomyAction(delta, p.target.getHolder(), false,
+                                "Buffered change of " + delta + " not written (" + info + "), will retry");
+                    }
+                    result = new EconomyAction(delta, p.target.getHolder(), false,
+                            "Buffered change of " + delta + " dropped after " + (p.attempts + (last ? 1 : 0)) + " failed writes (" + info + ")").log();
+                }
+            }
+            p.retired = true;
+            pending.remove(key, p);
+            return result;
+        }
+    }
+
+    private void flush(Balance balance, @Nullable String world) {
+        final String key = key(balance, world);
+        final Pending p = pending.get(key);
+        if (p != null) flush(key, p, true);
+    }
+
+    @Nullable
+    private BigDecimal merged(Balance balance, @Nullable String world) {
+        final Pending p = pending.get(key(balance, world));
+        if (p == null) return null;
+        synchronized (p) {
+            return p.retired ? null : p.merged();
+        }
+    }
+
+    private EconomyAction apply(Balance target, @Nullable String world, BigDecimal amount, boolean deposit) {
+        if (amount == null || amount.signum() <= 0) {
+            // let the provider report invalid amounts its own way
+            return write(target, world, amount, deposit);
+        }
+        final String key = key(target, world);
+        EconomyAction result;
+        while (true) {
+            Pending p = pending.get(key);
+            if (p == null) {
+                final BigDecimal base = world == null ? target.getBalance() : target.getBalance(world);
+                if (base == null) return write(target, world, amount, deposit);
+                final Pending created = new Pending(target, world, base);
+                p = pending.putIfAbsent(key, created);
+                if (p == null) p = created;
+            }
+            synchronized (p) {
+                if (p.retired) continue;
+                if (deposit) {
+                    p.delta = p.delta.add(amount);
+                    result = new EconomyAction(amount, target.getHolder(), true, "Deposit buffered");
+                } else if (p.merged().compareTo(amount) >= 0) {
+                    p.delta = p.delta.subtract(amount);
+                    result = new EconomyAction(amount, target.getHolder(), true, "Withdrawal buffered");
+                } else {
+                    return new EconomyAction(amount, target.getHolder(), false, "Insufficient funds");
+                }
+            }
+            break;
+        }
+        if (operations.incrementAndGet() >= maxOperations) {
+            flush();
+        }
+        return result;
+    }
+
+    private static EconomyAction write(Balance target, @Nullable String world, BigDecimal amount, boolean deposit) {
+        if (world == null) return deposit ? target.deposit(amount) : target.withdraw(amount);
+        return deposit ? target.deposit(amount, world) : target.withdraw(amount, world);
+    }
+
+    private BigDecimal getBalance(Balance target, @Nullable String world) {
+        final BigDecimal merged = merged(target, world);
+        if (merged != null) return merged;
+        return world == null ? target.getBalance() : target.getBalance(world);
+    }
+
+    private boolean has(Balance target, @Nullable String world, BigDecimal amount) {
+        final BigDecimal merged = merged(target, world);
+        if (merged != null) return merged.compareTo(amount) >= 0;
+        return world == null ? target.has(amount) : target.has(amount, world);
+    }
+
+    private EconomyAction setBalance(Balance target, @Nullable String world, BigDecimal amount) {
+        flush(target, world);
+        return world == null ? target.setBalance(amount) : target.setBalance(amount, world);
+    }
+
+    private final class BufferedWallet extends ForwardingWallet {
+
+        BufferedWallet(Wallet delegate) {
+            super(delegate, false);
+        }
+
+        WriteBehindBuffer buffer() {
+            return WriteBehindBuffer.this;
+        }
+
+        @Override
+        public EconomyAction setBalance(BigDecimal amount) {
+            return WriteBehindBuffer.this.setBalance(delegate, null, amount);
+        }
+
+        @Override
+        public EconomyAction setBalance(BigDecimal amount, String world) {
+            return WriteBehindBuffer.this.setBalance(delegate, world, amount);
+        }
+
+        @Override
+        public @Nullable BigDecimal getBalance() {
+            return WriteBehindBuffer.this.getBalance(delegate, null);
+        }
+
+        @Override
+        public @Nullable BigDecimal getBalance(String world) {
+            return WriteBehindBuffer.this.getBalance(delegate, world);
+        }
+
+        @Override
+        public boolean has(BigDecimal amount) {
+            return WriteBehindBuffer.this.has(delegate, null, amount);
+        }
+
+        @Override
+        public boolean has(BigDecimal amount, String world) {
+            return WriteBehindBuffer.this.has(delegate, world, amount);
+        }
+
+        @Override
+        public EconomyAction deposit(BigDecimal amount) {
+            return apply(delegate, null, amount, true);
+        }
+
+        @Override
+        public EconomyAction deposit(BigDecimal amount, String world) {
+            return apply(delegate, world, amount, true);
+        }
+
+        @Override
+        public EconomyAction withdraw(BigDecimal amount) {
+            return apply(delegate, null, amount, false);
+        }
+
+        @Override
+        public EconomyAction withdraw(BigDecimal amount, String world) {
+            return apply(delegate, world, amount, false);
+        }
+
+        @Override
+        public EconomyAction transfer(Balance to, BigDecimal amount) {
+            return BalanceLocks.transfer(this, to, amount, null);
+        }
+
+        @Override
+        public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+            return BalanceLocks.transfer(this, to, amount, world);
+        }
+    }
+
+    private final class BufferedAccount extends ForwardingAccount {
+
+        BufferedAccount(Account delegate) {
+            super(delegate, false);
+        }
+
+        WriteBehindBuffer buffer() {
+            return WriteBehindBuffer.this;
+        }
+
+        @Override
+        public EconomyAction setBalance(BigDecimal amount) {
+            return WriteBehindBuffer.this.setBalance(delegate, null, amount);
+        }
+
+        @Override
+        public EconomyAction setBalance(BigDecimal amount, String world) {
+            return WriteBehindBuffer.this.setBalance(delegate, world, amount);
+        }
+
+        @Override
+        public @Nullable BigDecimal getBalance() {
+            return WriteBehindBuffer.this.getBalance(delegate, null);
+        }
+
+        @Override
+        public @Nullable BigDecimal getBalance(String world) {
+            return WriteBehindBuffer.this.getBalance(delegate, world);
+        }
+
+        @Override
+        public boolean has(BigDecimal amount) {
+            return WriteBehindBuffer.this.has(delegate, null, amount);
+        }
+
+        @Override
+        public boolean has(BigDecimal amount, String world) {
+            return WriteBehindBuffer.this.has(delegate, world, amount);
+        }
+
+        @Override
+        public EconomyAction deposit(BigDecimal amount) {
+            return apply(delegate, null, amount, true);
+        }
+
+        @Override
+        public EconomyAction deposit(BigDecimal amount, String world) {
+            return apply(delegate, world, amount, true);
+        }
+
+        @Override
+        public EconomyAction withdraw(BigDecimal amount) {
+            return apply(delegate, null, amount, false);
+        }
+
+        @Override
+        public EconomyAction withdraw(BigDecimal amount, String world) {
+            return apply(delegate, world, amount, false);
+        }
+
+        @Override
+        public EconomyAction transfer(Balance to, BigDecimal amount) {
+            return BalanceLocks.transfer(this, to, amount, null);
+        }
+
+        @Override
+        public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+            return BalanceLocks.transfer(this, to, amount, world);
+        }
+    }
+}
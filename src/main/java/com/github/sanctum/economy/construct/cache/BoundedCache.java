@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A thread-safe cache holding at most a fixed number of entries, evicting
+ * with a W-TinyLFU style policy.
+ * <p>New entries go to a small LRU window (1% of the size). When the window
+ * overflows, its oldest entry only replaces the oldest entry of the main
+ * LRU region if a {@link FrequencySketch} says it has been used more often.
+ * This keeps frequently used entries, such as online players, from being
+ * flushed out by one-off lookups of offline ones.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class BoundedCache<K, V> {
+
+	private final int maximumSize;
+	private final int windowSize;
+	private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<K, V> main = new LinkedHashMap<>(16, 0.75f, true);
+	private final FrequencySketch sketch;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param maximumSize maximum number of entries, at least 1
+	 */
+	public BoundedCache(int maximumSize) {
+		this.maximumSize = Math.max(1, maximumSize);
+		this.windowSize = Math.max(1, this.maximumSize / 100);
+		this.sketch = new FrequencySketch(this.maximumSize);
+	}
+
+	/**
+	 * Get a cached value.
+	 * @param key the key
+	 * @return value or null if not cached
+	 */
+	@Nullable
+	public synchronized V get(K key) {
+		sketch.increment(key);
+		V value = window.get(key);
+		if (value == null) {
+			value = main.get(key);
+		}
+		if (value == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return value;
+	}
+
+	/**
+	 * Get a cached value, computing and caching it if absent. The function
+	 * runs while the cache is locked, so it should be quick.
+	 * @param key      the key
+	 * @param function computes the value; may return null to cache nothing
+	 * @return cached or computed value
+	 */
+	@Nullable
+	public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		V value = get(key);
+		if (value == null) {
+			value = function.apply(key);
+			if (value != null) {
+				put(key, value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Cache a value, possibly evicting another.
+	 * @param key   the key
+	 * @param value the value
+	 */
+	public synchronized void put(K key, V value) {
+		if (main.containsKey(key)) {
+			main.put(key, value);
+			return;
+		}
+		window.put(key, value);
+		if (window.size() <= windowSize) {
+			return;
+		}
+		final Iterator<Map.Entry<K, V>> eldest = window.entrySet().iterator();
+		final Map.Entry<K, V> candidate = eldest.next();
+		eldest.remove();
+		if (main.size() < maximumSize - windowSize) {
+			main.put(candidate.getKey(), candidate.getValue());
+			return;
+		}
+		final Iterator<Map.Entry<K, V>> victims = main.entrySet().iterator();
+		if (!victims.hasNext()) {
+			return;
+		}
+		final Map.Entry<K, V> victim = victims.next();
+		if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+			victims.remove();
+			main.put(candidate.getKey(), candidate.getValue());
+		}
+	}
+
+	/**
+	 * Remove a cached value.
+	 * @param key the key
+	 * @return the removed value or null
+	 */
+	@Nullable
+	public synchronized V invalidate(K key) {
+		final V value = window.remove(key);
+		return value != null ? value : main.remove(key);
+	}
+
+	/**
+	 * Remove every cached value.
+	 */
+	public synchronized void invalidateAll() {
+		window.clear();
+		main.clear();
+	}
+
+	public synchronized int size() {
+		return window.size() + main.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Get the share of lookups answered from the cache.
+	 * @return hit rate between 0 and 1
+	 */
+	public synchronized double getHitRate() {
+		final long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.cache;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys were
+ * seen recently, used by {@link BoundedCache} to decide admission.
+ * <p>Counters are halved once the number of increments reaches ten times
+ * the cache size, so the sketch forgets old popularity.</p>
+ */
+final class FrequencySketch {
+
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final int[] SEEDS = {0x97CB3127, 0xB7E15163, 0x9E3779B9, 0x6A09E667};
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	FrequencySketch(int maximumSize) {
+		// one long of 16 counters per entry, so a full sample averages a few counts per counter
+		this.table = new long[Math.max(4, Integer.highestOneBit(Math.max(1, maximumSize) - 1) << 1)];
+		this.tableMask = table.length - 1;
+		this.sampleSize = Math.max(10, 10 * maximumSize);
+	}
+
+	int frequency(Object key) {
+		final int hash = spread(key.hashCode());
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			frequency = Math.min(frequency, (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xF));
+		}
+		return frequency;
+	}
+
+	void increment(Object key) {
+		final int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			final int index = indexOf(hash, i);
+			final int offset = offsetOf(hash, i);
+			if (((table[index] >>> offset) & 0xF) != 0xF) {
+				table[index] += 1L << offset;
+				added = true;
+			}
+		}
+		if (added && ++size >= sampleSize) {
+			reset();
+		}
+	}
+
+	private void reset() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size /= 2;
+	}
+
+	private int indexOf(int hash, int i) {
+		final int h = (hash ^ SEEDS[i]) * SEEDS[i];
+		return (h ^ (h >>> 16)) & tableMask;
+	}
+
+	private int offsetOf(int hash, int i) {
+		final int h = (hash + SEEDS[i]) * 0x85EBCA6B;
+		// one of the 16 nibbles of the long
+		return ((h >>> 28) & 0xF) << 2;
+	}
+
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45D9F3B;
+		x = ((x >>> 16) ^ x) * 0x45D9F3B;
+		return (x >>> 16) ^ x;
+	}
+}
@@ -20,6 +20,7 @@
  */
 package com.github.sanctum.economy.construct.currency.normal;
 
+import com.github.sanctum.economy.construct.Money;
 import java.util.Locale;
 
 /**
@@ -33,6 +34,7 @@ public class CurrencyLayout { // builder won't implement the interface to enforc
 	protected String minorSingular;
 	protected Locale locale;
 	protected String world;
+	protected int scale = 2;
 
 	protected CurrencyLayout() {} // Force use of CurrencyType static factory
 
@@ -61,6 +63,23 @@ public class CurrencyLayout { // builder won't implement the interface to enforc
 		return this;
 	}
 
+	/**
+	 * Set the number of decimal places of one minor unit.
+	 * <p>Out-of-range scales throw here; earlier versions accepted any
+	 * value and only failed once the currency was used with
+	 * {@link Money}.</p>
+	 * @param scale between 0 and {@link Money#MAX_SCALE}
+	 * @return this layout
+	 * @throws IllegalArgumentException if the scale is out of range
+	 */
+	public CurrencyLayout setScale(int scale) {
+		if (scale < 0 || scale > Money.MAX_SCALE) {
+			throw new IllegalArgumentException("scale must be between 0 and " + Money.MAX_SCALE);
+		}
+		this.scale = scale;
+		return this;
+	}
+
 	public CurrencyLayout setLocale(Locale locale) {
 		this.locale = locale;
 		return this;
@@ -39,6 +39,15 @@ public interface EconomyCurrency { // TODO: describe methods
 
 	String getWorld();
 
+	/**
+	 * Get the number of decimal places of one minor unit, e.g. 2 when
+	 * the minor unit is a hundredth of the major unit.
+	 * @return scale of this currency
+	 */
+	default int getScale() {
+		return 2;
+	}
+
 	/**
 	 * Static factory method to access SpecialCurrencyLayout builder util
 	 */
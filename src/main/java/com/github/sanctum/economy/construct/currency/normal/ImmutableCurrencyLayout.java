@@ -61,4 +61,9 @@ public class ImmutableCurrencyLayout implements EconomyCurrency {
     public String getWorld() {
         return currencyLayout.world;
     }
+
+    @Override
+    public int getScale() {
+        return currencyLayout.scale;
+    }
 }
@@ -54,6 +54,16 @@ public interface EconomyEntity {
      * @return array of length 2 where element one is type and two is identity
      */
     default String[] splitId() {
-        return id().split("=", 2);
+        final String id = id();
+        final int separator = id.indexOf('=');
+        return separator < 0 ? new String[]{id} : new String[]{id.substring(0, separator), id.substring(separator + 1)};
+    }
+
+    /**
+     * Get the compact form of {@link #id()}.
+     * @return key of this entity
+     */
+    default EntityKey key() {
+        return EntityKey.of(id());
     }
 }
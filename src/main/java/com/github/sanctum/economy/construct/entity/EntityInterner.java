@@ -0,0 +1,233 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.entity;
+
+import com.github.sanctum.economy.construct.entity.types.PlayerEntity;
+import com.github.sanctum.economy.construct.entity.types.TemporaryPlayerEntity;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hands out one canonical instance per EconomyEntity.
+ * <p>Entities built by this class compute their id and hash code once, so
+ * using the returned instances as map keys allocates nothing per lookup.
+ * Entities are held weakly: one stays canonical while something else,
+ * such as a provider's account, still refers to it. TemporaryPlayerEntities
+ * hold a Player and should also be released with
+ * {@link #forgetSession(Player)} when the player quits; Enterprise does
+ * this for {@link #global()}.</p>
+ */
+public final class EntityInterner {
+
+    private static final EntityInterner GLOBAL = new EntityInterner();
+
+    private final WeakValues<UUID, PlayerEntity> players = new WeakValues<>();
+    private final WeakValues<String, EconomyEntity> byId = new WeakValues<>();
+
+    /**
+     * Get the interner shared by Enterprise and providers.
+     * @return the shared interner
+     */
+    public static EntityInterner global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Get the canonical PlayerEntity of a player.
+     * @param player the player
+     * @return canonical entity
+     */
+    public PlayerEntity player(@NotNull OfflinePlayer player) {
+        final PlayerEntity entity = players.get(player.getUniqueId());
+        return entity != null ? entity : players.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerEntity(player));
+    }
+
+    /**
+     * Get the canonical PlayerEntity of a UniqueId, looking the
+     * OfflinePlayer up only if none is interned yet.
+     * @param uuid the player's UniqueId
+     * @return canonical entity
+     */
+    public PlayerEntity player(@NotNull UUID uuid) {
+        final PlayerEntity entity = players.get(uuid);
+        return entity != null ? entity : players.computeIfAbsent(uuid, key -> new PlayerEntity(Bukkit.getOfflinePlayer(key)));
+    }
+
+    /**
+     * Get the canonical TemporaryPlayerEntity of an online player. A new
+     * one replaces the old if the player has logged in again since.
+     * @param player the online player
+     * @return canonical entity
+     */
+    public TemporaryPlayerEntity session(@NotNull Player player) {
+        final EconomyEntity entity = byId.compute("p_name=".concat(player.getName()), (id, existing) ->
+                existing instanceof TemporaryPlayerEntity && ((TemporaryPlayerEntity) existing).getPlayer() == player ?
+                        existing : new TemporaryPlayerEntity(player));
+        return (TemporaryPlayerEntity) entity;
+    }
+
+    /**
+     * Get the canonical instance equal to an entity, interning it if
+     * there is none.
+     * @param entity an entity
+     * @param <E>    entity type
+     * @return the canonical instance, or 'entity' if the canonical
+     * instance for its id is of another class
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends EconomyEntity> E intern(@NotNull E entity) {
+        final EconomyEntity canonical;
+        if (entity instanceof PlayerEntity) {
+            final PlayerEntity player = (PlayerEntity) entity;
+            canonical = players.putIfAbsent(player.getUniqueId(), player);
+        } else {
+            canonical = byId.putIfAbsent(entity.id(), entity);
+        }
+        return canonical.getClass() == entity.getClass() ? (E) canonical : entity;
+    }
+
+    /**
+     * Find an interned entity by {@link EconomyEntity#id()}.
+     * @param id an entity id
+     * @return the canonical entity or null if none is interned
+     */
+    @Nullable
+    public EconomyEntity get(@NotNull String id) {
+        if (EntityKey.parseType(id) == EntityKey.PLAYER) {
+            return players.get(new UUID(EntityKey.parseHigh(id, EntityKey.PLAYER), EntityKey.parseLow(id, EntityKey.PLAYER)));
+        }
+        return byId.get(id);
+    }
+
+    /**
+     * Drop the session entity of a player, if it belongs to this Player.
+     * @param player a player who is leaving
+     */
+    public void forgetSession(@NotNull Player player) {
+        final String id = "p_name=".concat(player.getName());
+        final EconomyEntity entity = byId.get(id);
+        if (entity instanceof TemporaryPlayerEntity && ((TemporaryPlayerEntity) entity).getPlayer() == player) {
+            byId.remove(id, entity);
+        }
+    }
+
+    /**
+     * Drop an interned entity.
+     * @param entity the entity
+     */
+    public void forget(@NotNull EconomyEntity entity) {
+        if (entity instanceof PlayerEntity) {
+            players.remove(((PlayerEntity) entity).getUniqueId(), (PlayerEntity) entity);
+        } else {
+            byId.remove(entity.id(), entity);
+        }
+    }
+
+    public int size() {
+        return players.size() + byId.size();
+    }
+
+    public void clear() {
+        players.clear();
+        byId.clear();
+    }
+
+    /**
+     * Map whose values are weakly referenced; entries are dropped once
+     * their value has been collected.
+     */
+    private static final class WeakValues<K, V> {
+        private final Map<K, Ref<K, V>> map = new ConcurrentHashMap<>();
+        private final ReferenceQueue<V> cleared = new ReferenceQueue<>();
+
+        private static final class Ref<K, V> extends WeakReference<V> {
+            final K key;
+
+            Ref(K key, V value, ReferenceQueue<V> queue) {
+                super(value, queue);
+                this.key = key;
+            }
+        }
+
+        @Nullable
+        V get(K key) {
+            final Ref<K, V> ref = map.get(key);
+            return ref == null ? null : ref.get();
+        }
+
+        // 'function' receives the live value or null and returns the new one
+        @SuppressWarnings("unchecked")
+        V compute(K key, BiFunction<K, V, V> function) {
+            expunge();
+            final Object[] result = new Object[1];
+            map.compute(key, (k, ref) -> {
+                final V existing = ref == null ? null : ref.get();
+                final V value = function.apply(k, existing);
+                result[0] = value;
+                return ref != null && value == existing ? ref : new Ref<>(k, value, cleared);
+            });
+            return (V) result[0];
+        }
+
+        V computeIfAbsent(K key, Function<K, V> function) {
+            final V value = get(key);
+            return value != null ? value : compute(key, (k, existing) -> existing != null ? existing : function.apply(k));
+        }
+
+        V putIfAbsent(K key, V value) {
+            return compute(key, (k, existing) -> existing != null ? existing : value);
+        }
+
+        void remove(K key, V value) {
+            final Ref<K, V> ref = map.get(key);
+            if (ref != null && ref.get() == value) {
+                map.remove(key, ref);
+            }
+        }
+
+        int size() {
+            expunge();
+            return map.size();
+        }
+
+        void clear() {
+            map.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void expunge() {
+            for (Reference<? extends V> ref; (ref = cleared.poll()) != null; ) {
+                map.remove(((Ref<K, V>) ref).key, ref);
+            }
+        }
+    }
+}
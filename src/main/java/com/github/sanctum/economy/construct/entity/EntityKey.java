@@ -0,0 +1,369 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.entity;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fixed-size form of an {@link EconomyEntity#id()}: a type tag and two longs.
+ * <ul>
+ *     <li>{@link #PLAYER} ('p_uid='): the two halves of the UniqueId</li>
+ *     <li>{@link #NAME} ('p_name='): the name packed at six bits a
+ *     character; names longer than 16 characters or using characters
+ *     outside [A-Za-z0-9_] are stored as {@link #OTHER}</li>
+ *     <li>{@link #NPC} ('npc=') and {@link #OTHER}: an index into a table
+ *     of interned ids, in 'high'</li>
+ * </ul>
+ * <p>Keys of the first two types can be stored anywhere. Interned indexes
+ * are only meaningful within the running server; store {@link #id()}
+ * for those. An interned id is held weakly, by the keys built from it,
+ * and forgotten once none is left; indexes are never reused. Parsing a
+ * player or name id allocates nothing.</p>
+ */
+public final class EntityKey {
+
+    public static final byte OTHER = 0;
+    public static final byte PLAYER = 1;
+    public static final byte NAME = 2;
+    public static final byte NPC = 3;
+
+    /**
+     * Size of a key written by {@link #writeTo(ByteBuffer)}.
+     */
+    public static final int BYTES = 17;
+
+    private static final String PLAYER_PREFIX = "p_uid=";
+    private static final String NAME_PREFIX = "p_name=";
+    private static final String NPC_PREFIX = "npc=";
+    private static final int MAX_PACKED_NAME = 16;
+
+    // by id, guarded by itself; the weak keys are the canonical id strings
+    private static final Map<String, Interned> INTERNED = new WeakHashMap<>();
+    private static final Map<Long, Interned> INTERNED_IDS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<String> CLEARED = new ReferenceQueue<>();
+    private static long nextIndex;
+
+    private final byte type;
+    private final long high;
+    private final long low;
+    private String id;
+
+    private EntityKey(byte type, long high, long low) {
+        this.type = type;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Get the key of a player by UniqueId.
+     * @param uuid the player's UniqueId
+     * @return key of type {@link #PLAYER}
+     */
+    public static EntityKey player(@NotNull UUID uuid) {
+        return new EntityKey(PLAYER, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Rebuild a key from its parts.
+     * @param type type tag
+     * @param high first long
+     * @param low  second long
+     * @return the key
+     */
+    public static EntityKey of(byte type, long high, long low) {
+        if (type < OTHER || type > NPC) throw new IllegalArgumentException("Unknown entity key type " + type);
+        return new EntityKey(type, high, low);
+    }
+
+    /**
+     * Get the key of an entity id.
+     * @param id an {@link EconomyEntity#id()}
+     * @return the key
+     */
+    public static EntityKey of(@NotNull String id) {
+        final byte type = parseType(id);
+        if (type == PLAYER || type == NAME) {
+            final EntityKey key = new EntityKey(type, parseHigh(id, type), parseLow(id, type));
+            key.id = id;
+            return key;
+        }
+        Interned interned;
+        String canonical;
+        do {
+            interned = intern(id);
+            canonical = interned.get();
+        } while (canonical == null);
+        final EntityKey key = new EntityKey(type, interned.index, 0);
+        // holding the canonical string keeps the index interned
+        key.id = canonical;
+        return key;
+    }
+
+    /**
+     * Find the type of an entity id without allocating.
+     * @param id an entity id
+     * @return one of the type tags
+     */
+    public static byte parseType(@NotNull String id) {
+        if (id.startsWith(PLAYER_PREFIX) && id.length() == PLAYER_PREFIX.length() + 36 && isUuid(id, PLAYER_PREFIX.length())) {
+            return PLAYER;
+        }
+        if (id.startsWith(NAME_PREFIX) && isPackable(id, NAME_PREFIX.length())) {
+            return NAME;
+        }
+        if (id.startsWith(NPC_PREFIX)) {
+            return NPC;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Get the first long of the key of an id; allocates only when an
+     * NPC or other id is seen for the first time. For those the index
+     * only stays valid while a key built by {@link #of(String)} holds it.
+     * @param id   an entity id
+     * @param type its type from {@link #parseType(String)}
+     * @return first long
+     */
+    public static long parseHigh(@NotNull String id, byte type) {
+        switch (type) {
+            case PLAYER:
+                return parseHex(id, PLAYER_PREFIX.length(), 8) << 32
+                        | parseHex(id, PLAYER_PREFIX.length() + 9, 4) << 16
+                        | parseHex(id, PLAYER_PREFIX.length() + 14, 4);
+            case NAME:
+                return pack(id, NAME_PREFIX.length(), Math.min(id.length(), NAME_PREFIX.length() + 10));
+            default:
+                return intern(id).index;
+        }
+    }
+
+    /**
+     * Get the second long of the key of an id without allocating.
+     * @param id   an entity id
+     * @param type its type from {@link #parseType(String)}
+     * @return second long
+     */
+    public static long parseLow(@NotNull String id, byte type) {
+        switch (type) {
+            case PLAYER:
+                return parseHex(id, PLAYER_PREFIX.length() + 19, 4) << 48
+                        | parseHex(id, PLAYER_PREFIX.length() + 24, 12);
+            case NAME:
+                final int split = NAME_PREFIX.length() + 10;
+                return id.length() > split ? pack(id, split, id.length()) : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean isUuid(String s, int from) {
+        for (int i = 0; i < 36; i++) {
+            final char c = s.charAt(from + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String s, int from, int digits) {
+        long value = 0;
+        for (int i = from; i < from + digits; i++) {
+            value = value << 4 | Character.digit(s.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static int encode(char c) {
+        if (c >= '0' && c <= '9') return c - '0' + 1;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 11;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 37;
+        if (c == '_') return 63;
+        return -1;
+    }
+
+    private static char decode(int code) {
+        if (code <= 10) return (char) ('0' + code - 1);
+        if (code <= 36) return (char) ('A' + code - 11);
+        if (code <= 62) return (char) ('a' + code - 37);
+        return '_';
+    }
+
+    private static boolean isPackable(String s, int from) {
+        final int length = s.length() - from;
+        if (length < 1 || length > MAX_PACKED_NAME) return false;
+        for (int i = from; i < s.length(); i++) {
+            if (encode(s.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+
+    // first character in the highest bits; unused characters are 0
+    private static long pack(String s, int from, int to) {
+        long value = 0;
+        for (int i = 0; i < 10; i++) {
+            value = value << 6 | (from + i < to ? encode(s.charAt(from + i)) : 0);
+        }
+        return value;
+    }
+
+    private static void unpack(long value, StringBuilder out) {
+        for (int shift = 54; shift >= 0; shift -= 6) {
+            final int code = (int) (value >>> shift) & 0x3F;
+            if (code == 0) return;
+            out.append(decode(code));
+        }
+    }
+
+    private static final class Interned extends WeakReference<String> {
+        final long index;
+
+        Interned(String id, long index) {
+            super(id, CLEARED);
+            this.index = index;
+        }
+    }
+
+    private static Interned intern(String id) {
+        synchronized (INTERNED) {
+            for (Reference<? extends String> ref; (ref = CLEARED.poll()) != null; ) {
+                INTERNED_IDS.remove(((Interned) ref).index, ref);
+            }
+            Interned interned = INTERNED.get(id);
+            if (interned == null || interned.get() == null) {
+                interned = new Interned(id, nextIndex++);
+                INTERNED.put(id, interned);
+                INTERNED_IDS.put(interned.index, interned);
+            }
+            return interned;
+        }
+    }
+
+    private static String interned(long index) {
+        final Interned interned = INTERNED_IDS.get(index);
+        return interned == null ? null : interned.get();
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Get the UniqueId of a {@link #PLAYER} key.
+     * @return the UniqueId
+     * @throws IllegalStateException if this is not a player key
+     */
+    public UUID getUniqueId() {
+        if (type != PLAYER) throw new IllegalStateException("Not a player key");
+        return new UUID(high, low);
+    }
+
+    /**
+     * Rebuild the entity id this key stands for.
+     * @return the {@link EconomyEntity#id()}
+     */
+    public String id() {
+        String result = id;
+        if (result == null) {
+            switch (type) {
+                case PLAYER:
+                    result = PLAYER_PREFIX + new UUID(high, low);
+                    break;
+                case NAME:
+                    final StringBuilder name = new StringBuilder(NAME_PREFIX.length() + MAX_PACKED_NAME).append(NAME_PREFIX);
+                    unpack(high, name);
+                    unpack(low, name);
+                    result = name.toString();
+                    break;
+                default:
+                    result = interned(high);
+                    if (result == null) {
+                        throw new IllegalStateException("Entity key index " + high + " is not interned by this server");
+                    }
+            }
+            id = result;
+        }
+        return result;
+    }
+
+    /**
+     * Write this key as {@link #BYTES} bytes.
+     * @param buffer the target buffer
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(type).putLong(high).putLong(low);
+    }
+
+    /**
+     * Read a key written by {@link #writeTo(ByteBuffer)}.
+     * @param buffer the source buffer
+     * @return the key
+     */
+    public static EntityKey readFrom(ByteBuffer buffer) {
+        final byte type = buffer.get();
+        final long high = buffer.getLong();
+        final EntityKey key = of(type, high, buffer.getLong());
+        if (type == NPC || type == OTHER) {
+            // hold on to the id while it is still interned
+            key.id = interned(high);
+        }
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EntityKey)) return false;
+        final EntityKey other = (EntityKey) o;
+        return type == other.type && high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = high * 31 + low;
+        h = h * 31 + type;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return id();
+    }
+}
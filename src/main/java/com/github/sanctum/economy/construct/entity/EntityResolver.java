@@ -0,0 +1,181 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.entity;
+
+import com.github.sanctum.economy.construct.cache.BoundedCache;
+import com.github.sanctum.economy.construct.entity.types.NpcEntity;
+import com.github.sanctum.economy.construct.entity.types.PlayerEntity;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Turns stored {@link EconomyEntity#id()} strings back into entities.
+ * <p>Each id type ('p_uid', 'p_name', 'npc', ...) has a parser which
+ * receives the part after '='. Results are kept in a {@link BoundedCache};
+ * ids no parser could resolve are remembered as unknown for a while so
+ * bulk operations over stored data do not retry them on every row.</p>
+ * <p>An entity already interned in {@link EntityInterner#global()} is
+ * returned as is. Otherwise the parser builds one which only this
+ * resolver's cache holds, so resolving stored ids does not grow the
+ * interner. Default parsers: 'p_uid' resolves any UniqueId, 'p_name' only
+ * online players (offline name lookups can block), and 'npc' keys whose
+ * namespace is an installed plugin.</p>
+ */
+public final class EntityResolver {
+
+    private static final EntityResolver GLOBAL = new EntityResolver(10000, 60000);
+
+    private final BoundedCache<String, Object> cache;
+    private final Map<String, Function<String, EconomyEntity>> parsers = new ConcurrentHashMap<>();
+    private final long negativeTtlMillis;
+
+    private static final class Unknown {
+        final long expiresAt;
+
+        Unknown(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @param maximumSize       maximum number of ids cached
+     * @param negativeTtlMillis how long an unknown id is remembered
+     */
+    public EntityResolver(int maximumSize, long negativeTtlMillis) {
+        this.cache = new BoundedCache<>(maximumSize);
+        this.negativeTtlMillis = negativeTtlMillis;
+        parsers.put("p_uid", EntityResolver::parsePlayer);
+        parsers.put("p_name", EntityResolver::parseSession);
+        parsers.put("npc", EntityResolver::parseNpc);
+    }
+
+    /**
+     * Get the resolver shared by Enterprise and providers.
+     * @return the shared resolver
+     */
+    public static EntityResolver global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Set the parser for one id type, replacing any existing one.
+     * @param type   the part of the id before '='
+     * @param parser receives the part after '='; returns null if unknown
+     */
+    public void registerParser(@NotNull String type, @NotNull Function<String, EconomyEntity> parser) {
+        parsers.put(type, parser);
+        cache.invalidateAll();
+    }
+
+    /**
+     * Resolve an id.
+     * @param id an entity id
+     * @return the entity or null if it cannot be resolved
+     */
+    @Nullable
+    public EconomyEntity resolve(@NotNull String id) {
+        final Object cached = cache.get(id);
+        if (cached instanceof EconomyEntity) {
+            return (EconomyEntity) cached;
+        }
+        if (cached instanceof Unknown && ((Unknown) cached).expiresAt - System.currentTimeMillis() > 0) {
+            return null;
+        }
+        final EconomyEntity entity = parse(id);
+        // parsed outside the cache's lock since parsers may be slow
+        cache.put(id, entity != null ? entity : new Unknown(System.currentTimeMillis() + negativeTtlMillis));
+        return entity;
+    }
+
+    @Nullable
+    private EconomyEntity parse(String id) {
+        final EconomyEntity interned = EntityInterner.global().get(id);
+        if (interned != null) {
+            return interned;
+        }
+        final int separator = id.indexOf('=');
+        if (separator < 0) {
+            return null;
+        }
+        final Function<String, EconomyEntity> parser = parsers.get(id.substring(0, separator));
+        if (parser == null) {
+            return null;
+        }
+        try {
+            return parser.apply(id.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Forget what is cached for an id, e.g. once an unknown player logs in.
+     * @param id an entity id
+     */
+    public void invalidate(@NotNull String id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public double getHitRate() {
+        return cache.getHitRate();
+    }
+
+    private static EconomyEntity parsePlayer(String identity) {
+        return new PlayerEntity(Bukkit.getOfflinePlayer(UUID.fromString(identity)));
+    }
+
+    @Nullable
+    private static EconomyEntity parseSession(String name) {
+        final Player player = Bukkit.getPlayerExact(name);
+        return player != null ? EntityInterner.global().session(player) : null;
+    }
+
+    @Nullable
+    private static EconomyEntity parseNpc(String identity) {
+        final int separator = identity.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        final String namespace = identity.substring(0, separator);
+        for (Plugin plugin : Bukkit.getPluginManager().getPlugins()) {
+            if (plugin.getName().toLowerCase(Locale.ROOT).equals(namespace)) {
+                return new NpcEntity(plugin, identity.substring(separator + 1));
+            }
+        }
+        return null;
+    }
+}
@@ -72,6 +72,7 @@ public abstract class PlayerEconomyEntityBase implements EconomyEntity {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id());
+        // String caches its hash, so this allocates nothing once id() is cached
+        return id().hashCode();
     }
 }
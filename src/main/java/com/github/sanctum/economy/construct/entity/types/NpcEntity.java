@@ -21,6 +21,7 @@
 package com.github.sanctum.economy.construct.entity.types;
 
 import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.EntityKey;
 import org.bukkit.NamespacedKey;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
@@ -37,6 +38,9 @@ public class NpcEntity implements EconomyEntity {
     protected final String internalName;
     protected String friendlyName;
     protected final String pluginName;
+    private final String id;
+    private volatile EntityKey key;
+    private final int hash;
 
     /**
      * The recommended constructor for NPC entities.
@@ -51,6 +55,8 @@ public class NpcEntity implements EconomyEntity {
         this.friendlyName = name;
         this.namespacedKey = new NamespacedKey(plugin, name);
         this.pluginName = plugin.getName();
+        this.id = "npc=" + namespacedKey;
+        this.hash = Objects.hash(namespacedKey, internalName);
     }
 
     /**
@@ -82,7 +88,17 @@ public class NpcEntity implements EconomyEntity {
 
     @Override
     public @NotNull String id() {
-        return "npc=" + namespacedKey;
+        return id;
+    }
+
+    @Override
+    public EntityKey key() {
+        EntityKey result = key;
+        if (result == null) {
+            // interned on first use, not for every NPC built
+            key = result = EntityKey.of(id);
+        }
+        return result;
     }
 
     @Override
@@ -95,6 +111,6 @@ public class NpcEntity implements EconomyEntity {
 
     @Override
     public int hashCode() {
-        return Objects.hash(namespacedKey, internalName);
+        return hash;
     }
 }
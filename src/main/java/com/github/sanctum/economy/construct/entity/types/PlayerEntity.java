@@ -20,6 +20,7 @@
  */
 package com.github.sanctum.economy.construct.entity.types;
 
+import com.github.sanctum.economy.construct.entity.EntityKey;
 import com.github.sanctum.economy.construct.entity.PlayerEconomyEntityBase;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
@@ -28,8 +29,13 @@ import org.jetbrains.annotations.NotNull;
  * Designed to represent players, even persistently. Uses UniqueId internally.
  */
 public final class PlayerEntity extends PlayerEconomyEntityBase {
+    private final String id;
+    private final EntityKey key;
+
     public PlayerEntity(@NotNull OfflinePlayer offlinePlayer) {
         super(offlinePlayer);
+        this.id = "p_uid=" + uid;
+        this.key = EntityKey.player(uid);
     }
 
     /**
@@ -38,6 +44,11 @@ public final class PlayerEntity extends PlayerEconomyEntityBase {
      */
     @Override
     public @NotNull String id() {
-        return "p_uid=" + uid;
+        return id;
+    }
+
+    @Override
+    public EntityKey key() {
+        return key;
     }
 }
@@ -20,6 +20,7 @@
  */
 package com.github.sanctum.economy.construct.entity.types;
 
+import com.github.sanctum.economy.construct.entity.EntityKey;
 import com.github.sanctum.economy.construct.entity.PlayerEconomyEntityBase;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -30,10 +31,14 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class TemporaryPlayerEntity extends PlayerEconomyEntityBase {
     private final Player player;
+    private final String id;
+    private final EntityKey key;
 
     public TemporaryPlayerEntity(@NotNull Player player) {
         super(player);
         this.player = player;
+        this.id = "p_name=".concat(player.getName());
+        this.key = EntityKey.of(id);
     }
 
     /**
@@ -45,7 +50,12 @@ public final class TemporaryPlayerEntity extends PlayerEconomyEntityBase {
      */
     @Override
     public @NotNull String id() {
-        return "p_name=".concat(offlinePlayer.getName());
+        return id;
+    }
+
+    @Override
+    public EntityKey key() {
+        return key;
     }
 
     /**
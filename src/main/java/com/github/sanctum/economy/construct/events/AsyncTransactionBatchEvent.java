@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.events;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import java.util.List;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Carries every transaction logged over a short window, for listeners
+ * which would rather handle transactions in bulk than receive an
+ * {@link AsyncTransactionEvent} for each one. The single-action events
+ * are still fired.
+ */
+public final class AsyncTransactionBatchEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+    private final List<EconomyAction> economyActions;
+
+    public AsyncTransactionBatchEvent(List<EconomyAction> economyActions) {
+        super(true);
+        this.economyActions = economyActions;
+    }
+
+    /**
+     * Get the transactions of this batch in the order they were logged.
+     * @return unmodifiable list of actions
+     */
+    public List<EconomyAction> getEconomyActions() {
+        return economyActions;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
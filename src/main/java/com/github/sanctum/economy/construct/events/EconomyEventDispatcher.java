@@ -0,0 +1,360 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.events;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.plugin.PluginManager;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fires the events of logged {@link EconomyAction}s from a single
+ * background thread.
+ * <p>Actions are put on a bounded, lock-free queue and drained in batches
+ * by one worker, instead of scheduling an async task per action. What
+ * happens when the queue is full is decided by the {@link Overflow}
+ * policy.</p>
+ * <p>While {@link AsyncTransactionBatchEvent} has listeners, transactions
+ * are also collected and fired together once the batch event size is
+ * reached or the batch window has passed since the first of them.</p>
+ */
+public final class EconomyEventDispatcher {
+
+	/**
+	 * What to do with an action when the queue is full.
+	 */
+	public enum Overflow {
+		/**
+		 * Wait for the worker to make room. Never loses events but may
+		 * stall the thread logging the action. Listeners logging actions
+		 * from the worker itself are never made to wait.
+		 */
+		BLOCK,
+		/**
+		 * Discard the action being logged.
+		 */
+		DROP_NEWEST,
+		/**
+		 * Discard the oldest queued action to make room.
+		 */
+		DROP_OLDEST
+	}
+
+	public static final int DEFAULT_CAPACITY = 65536;
+	public static final int DEFAULT_BATCH_SIZE = 512;
+	public static final int DEFAULT_BATCH_EVENT_SIZE = 1000;
+	public static final long DEFAULT_BATCH_WINDOW_MILLIS = 50;
+
+	private static volatile EconomyEventDispatcher instance;
+
+	private final PluginManager pluginManager;
+	private final Logger logger;
+	private final int capacity;
+	private final int batchSize;
+	private final Overflow overflow;
+	private final int batchEventSize;
+	private final long batchWindowNanos;
+	private final Queue<EconomyAction> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger depth = new AtomicInteger();
+	private final AtomicLong dispatched = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final Thread worker;
+	private final AtomicReference<Runnable> afterDrain = new AtomicReference<>();
+	private volatile boolean running = true;
+	private volatile boolean sleeping;
+	// transactions waiting for the next batch event; only touched by the worker
+	private List<EconomyAction> pending = new ArrayList<>();
+	private long pendingSince;
+
+	private EconomyEventDispatcher(PluginManager pluginManager, Logger logger, int capacity, int batchSize, Overflow overflow, int batchEventSize, long batchWindowMillis) {
+		this.pluginManager = pluginManager;
+		this.logger = logger;
+		this.capacity = Math.max(1, capacity);
+		this.batchSize = Math.max(1, batchSize);
+		this.overflow = overflow;
+		this.batchEventSize = Math.max(1, batchEventSize);
+		this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, batchWindowMillis));
+		this.worker = new Thread(this::drain, "Enterprise-Events");
+		this.worker.setDaemon(true);
+	}
+
+	/**
+	 * Start the dispatcher used by {@link EconomyAction#log()}, stopping
+	 * any previous one.
+	 *
+	 * @param pluginManager manager used to fire the events
+	 * @param logger        receives listener exceptions
+	 * @param capacity      maximum number of queued actions
+	 * @param batchSize     maximum number of actions drained at a time
+	 * @param overflow      what to do when the queue is full
+	 * @param batchEventSize    maximum transactions per {@link AsyncTransactionBatchEvent}
+	 * @param batchWindowMillis maximum time a transaction waits for its batch event
+	 * @return the running dispatcher
+	 */
+	public static synchronized EconomyEventDispatcher start(PluginManager pluginManager, Logger logger, int capacity, int batchSize, Overflow overflow, int batchEventSize, long batchWindowMillis) {
+		stop();
+		final EconomyEventDispatcher dispatcher = new EconomyEventDispatcher(pluginManager, logger, capacity, batchSize, overflow, batchEventSize, batchWindowMillis);
+		dispatcher.worker.start();
+		instance = dispatcher;
+		return dispatcher;
+	}
+
+	/**
+	 * Stop the running dispatcher, firing anything still queued.
+	 * <p>The dispatcher stays installed until its worker has drained the
+	 * queue, so actions logged meanwhile are still fired by it rather
+	 * than scheduled on a plugin that may be disabling.</p>
+	 * @return false if the worker was still firing events after waiting
+	 * five seconds
+	 */
+	public static boolean stop() {
+		return stop(null);
+	}
+
+	/**
+	 * Stop the running dispatcher, firing anything still queued, then run
+	 * a task once nothing more will be fired, e.g. to close a file the
+	 * listeners write to.
+	 * <p>If the worker is still firing events after five seconds the task
+	 * is left to run on the worker once it is done, so those events are
+	 * not lost to it.</p>
+	 * @param afterDrain task to run, or null
+	 * @return false if the worker was still firing events after waiting
+	 * five seconds
+	 */
+	public static synchronized boolean stop(@Nullable Runnable afterDrain) {
+		final EconomyEventDispatcher dispatcher = instance;
+		if (dispatcher == null) {
+			if (afterDrain != null) {
+				afterDrain.run();
+			}
+			return true;
+		}
+		dispatcher.afterDrain.set(afterDrain);
+		dispatcher.running = false;
+		LockSupport.unpark(dispatcher.worker);
+		try {
+			dispatcher.worker.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		instance = null;
+		if (dispatcher.worker.isAlive()) {
+			dispatcher.logger.warning("Economy event worker did not finish within 5 seconds; " + dispatcher.getQueueDepth() + " events still queued");
+			return false;
+		}
+		// logged between the worker's last poll and the instance being cleared
+		final int late = dispatcher.queue.size();
+		if (late > 0) {
+			dispatcher.queue.clear();
+			dispatcher.dropped.addAndGet(late);
+			dispatcher.logger.warning("Dropped " + late + " economy events logged while the dispatcher was stopping");
+		}
+		// normally already run by the worker
+		dispatcher.runAfterDrain();
+		return true;
+	}
+
+	/**
+	 * Get the running dispatcher.
+	 * @return dispatcher or null if none is running
+	 */
+	@Nullable
+	public static EconomyEventDispatcher getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Queue an action for its event to be fired.
+	 * @param action the action
+	 * @return false if the action was dropped
+	 */
+	public boolean submit(EconomyAction action) {
+		while (depth.incrementAndGet() > capacity) {
+			depth.decrementAndGet();
+			switch (overflow) {
+				case DROP_NEWEST:
+					dropped.incrementAndGet();
+					return false;
+				case DROP_OLDEST:
+					if (queue.poll() != null) {
+						depth.decrementAndGet();
+						dropped.incrementAndGet();
+					}
+					break;
+				case BLOCK:
+				default:
+					if (Thread.currentThread() == worker) {
+						// a listener logging on the worker would wait for itself;
+						// let the queue run over capacity instead
+						depth.incrementAndGet();
+						queue.offer(action);
+						return true;
+					}
+					if (!running) {
+						dropped.incrementAndGet();
+						return false;
+					}
+					wake();
+					LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+					break;
+			}
+		}
+		queue.offer(action);
+		wake();
+		return true;
+	}
+
+	private void wake() {
+		if (sleeping) {
+			LockSupport.unpark(worker);
+		}
+	}
+
+	private void drain() {
+		while (running || !queue.isEmpty()) {
+			int drained = 0;
+			EconomyAction action;
+			while (drained < batchSize && (action = queue.poll()) != null) {
+				drained++;
+				fire(action);
+			}
+			if (drained > 0) {
+				depth.addAndGet(-drained);
+				dispatched.addAndGet(drained);
+			}
+			long wait = TimeUnit.MILLISECONDS.toNanos(50);
+			if (!pending.isEmpty()) {
+				final long age = System.nanoTime() - pendingSince;
+				if (age >= batchWindowNanos) {
+					fireBatch();
+				} else {
+					wait = batchWindowNanos - age;
+				}
+			}
+			if (drained > 0) {
+				continue;
+			}
+			sleeping = true;
+			// re-check after announcing so a producer that missed the flag is still seen
+			if (queue.isEmpty() && running) {
+				LockSupport.parkNanos(this, wait);
+			}
+			sleeping = false;
+		}
+		if (!pending.isEmpty()) {
+			fireBatch();
+		}
+		runAfterDrain();
+	}
+
+	private void runAfterDrain() {
+		final Runnable task = afterDrain.getAndSet(null);
+		if (task == null) {
+			return;
+		}
+		try {
+			task.run();
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Unable to finish stopping the economy event dispatcher", e);
+		}
+	}
+
+	private void fire(EconomyAction action) {
+		final boolean transaction = action.hasAmount();
+		try {
+			pluginManager.callEvent(transaction ? new AsyncTransactionEvent(action) :
+					new AsyncEconomyInfoEvent(action));
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Unable to dispatch economy event", e);
+		}
+		if (transaction && AsyncTransactionBatchEvent.getHandlerList().getRegisteredListeners().length > 0) {
+			if (pending.isEmpty()) {
+				pendingSince = System.nanoTime();
+			}
+			pending.add(action);
+			if (pending.size() >= batchEventSize) {
+				fireBatch();
+			}
+		}
+	}
+
+	private void fireBatch() {
+		final List<EconomyAction> batch = Collections.unmodifiableList(pending);
+		pending = new ArrayList<>();
+		try {
+			pluginManager.callEvent(new AsyncTransactionBatchEvent(batch));
+		} catch (RuntimeException e) {
+			logger.log(Level.WARNING, "Unable to dispatch economy batch event", e);
+		}
+	}
+
+	/**
+	 * Get the number of actions waiting to be fired.
+	 * @return queue depth
+	 */
+	public int getQueueDepth() {
+		return Math.max(0, depth.get());
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	public int getBatchEventSize() {
+		return batchEventSize;
+	}
+
+	/**
+	 * Get the number of actions whose events have been fired.
+	 * @return dispatched count
+	 */
+	public long getDispatched() {
+		return dispatched.get();
+	}
+
+	/**
+	 * Get the number of actions dropped because the queue was full.
+	 * @return dropped count
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+}
@@ -22,18 +22,38 @@ package com.github.sanctum.economy.construct.implement;
 
 import com.github.sanctum.economy.construct.EconomyPriority;
 import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.EconomyExecutor;
 import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.AccountPage;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.MembershipIndex;
 import com.github.sanctum.economy.construct.account.Wallet;
 import com.github.sanctum.economy.construct.account.permissive.AccountType;
 import com.github.sanctum.economy.construct.currency.normal.EconomyCurrency;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.PlayerEconomyEntityBase;
+import com.github.sanctum.economy.construct.entity.types.TemporaryPlayerEntity;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 
 public interface AdvancedEconomy {
 
@@ -231,4 +251,310 @@ public interface AdvancedEconomy {
 
 	List<String> getAccountList();
 
+	/**
+	 * Get every account an entity owns or is a member of.
+	 * <p>The default implementation scans {@link #streamAccounts()}. Providers
+	 * should override this with a lookup in a {@link MembershipIndex}.</p>
+	 * @param entity the owner or member
+	 * @return owned accounts first, then shared ones
+	 */
+	default List<Account> getAccountsOf(EconomyEntity entity) {
+		final String id = entity.id();
+		final List<Account> owned = new ArrayList<>();
+		final List<Account> shared = new ArrayList<>();
+		streamAccounts().forEach(account -> {
+			if (account.getHolder().id().equals(id)) {
+				owned.add(account);
+			} else if (account.hasMember(id)) {
+				shared.add(account);
+			}
+		});
+		owned.addAll(shared);
+		return owned;
+	}
+
+	// ===== PAGING =====
+
+	/**
+	 * Stream every account without building a list first.
+	 * <p>The default implementation streams {@link #getAccounts()}.
+	 * Providers should override this with a lazy scan of their storage.</p>
+	 * @return lazily evaluated stream of accounts
+	 */
+	default Stream<Account> streamAccounts() {
+		return getAccounts().stream();
+	}
+
+	/**
+	 * Stream the accounts of one type and/or world.
+	 * @param type  required type, or null for any
+	 * @param world world the account must exist in, or null for any
+	 * @return lazily evaluated stream of accounts
+	 */
+	default Stream<Account> streamAccounts(@Nullable AccountType type, @Nullable String world) {
+		return streamAccounts().filter(AccountPage.filter(type, world));
+	}
+
+	/**
+	 * Stream the id of every account.
+	 * @return lazily evaluated stream of account ids
+	 */
+	default Stream<String> streamAccountList() {
+		return getAccountList().stream();
+	}
+
+	/**
+	 * Get one page of accounts.
+	 * @param cursor   {@link AccountPage#getNextCursor()} of the previous
+	 *                 page, or null for the first page
+	 * @param pageSize maximum accounts on the page; providers may return fewer
+	 * @return the page
+	 */
+	default AccountPage getAccountPage(@Nullable String cursor, int pageSize) {
+		return getAccountPage(cursor, pageSize, null, null);
+	}
+
+	/**
+	 * Get one page of the accounts of one type and/or world.
+	 * <p>The default implementation pages through
+	 * {@link #streamAccounts(AccountType, String)} in id order with
+	 * {@link AccountPage#after(Stream, String, int)}, reading every account
+	 * per page. Providers with sorted storage should override this.</p>
+	 * @param cursor   {@link AccountPage#getNextCursor()} of the previous
+	 *                 page, or null for the first page
+	 * @param pageSize maximum accounts on the page; providers may return fewer
+	 * @param type     required type, or null for any
+	 * @param world    world the account must exist in, or null for any
+	 * @return the page
+	 */
+	default AccountPage getAccountPage(@Nullable String cursor, int pageSize, @Nullable AccountType type, @Nullable String world) {
+		return AccountPage.after(streamAccounts(type, world), cursor, pageSize);
+	}
+
+	// ===== BULK OPERATIONS =====
+
+	/**
+	 * Get the names of the worlds with their own balances.
+	 * @return every loaded world if {@link #isMultiWorld()}, otherwise empty
+	 */
+	default List<String> getBalanceWorlds() {
+		if (!isMultiWorld()) {
+			return Collections.emptyList();
+		}
+		return getPlugin().getServer().getWorlds().stream().map(World::getName).collect(Collectors.toList());
+	}
+
+	/**
+	 * Stream every wallet balance known to this economy, including
+	 * per-world balances for each of {@link #getBalanceWorlds()}.
+	 * <p>The default implementation looks up the wallet of each of the
+	 * server's offline players one by one. Providers with their own storage
+	 * should override this with a single sequential scan.</p>
+	 * @return lazily evaluated stream of wallet snapshots
+	 */
+	default Stream<BalanceSnapshot> exportWallets() {
+		final List<String> worlds = getBalanceWorlds();
+		return Arrays.stream(getPlugin().getServer().getOfflinePlayers())
+				.filter(this::hasWalletAccount)
+				.map(this::getWallet)
+				.flatMap(wallet -> BalanceSnapshot.allOf(wallet, worlds));
+	}
+
+	/**
+	 * Stream every account balance known to this economy, including
+	 * per-world balances for each of {@link #getBalanceWorlds()}.
+	 * <p>The default implementation reads {@link #streamAccounts()}. Providers
+	 * with their own storage should override this with a single sequential
+	 * scan.</p>
+	 * @return lazily evaluated stream of account snapshots
+	 */
+	default Stream<BalanceSnapshot> exportAccounts() {
+		final List<String> worlds = getBalanceWorlds();
+		return streamAccounts()
+				.flatMap(account -> BalanceSnapshot.allOf(account, worlds));
+	}
+
+	/**
+	 * Stream every wallet and account balance known to this economy.
+	 * @return lazily evaluated stream of snapshots
+	 */
+	default Stream<BalanceSnapshot> exportBalances() {
+		return Stream.concat(exportWallets(), exportAccounts());
+	}
+
+	/**
+	 * Find the Wallet or Account a snapshot describes.
+	 * @param snapshot a wallet or account snapshot
+	 * @return the matching Balance in this economy
+	 */
+	default Balance resolveBalance(BalanceSnapshot snapshot) {
+		final EconomyEntity holder = snapshot.getHolder();
+		if (holder instanceof PlayerEconomyEntityBase) {
+			final UUID uid = ((PlayerEconomyEntityBase) holder).getUniqueId();
+			return snapshot.isWallet() ? getWallet(uid) : getAccount(snapshot.getAccountId(), uid);
+		}
+		return snapshot.isWallet() ? getWallet(holder.friendlyName()) : getAccount(snapshot.getAccountId(), holder.friendlyName());
+	}
+
+	/**
+	 * Write a batch of balances.
+	 * <p>The default implementation calls {@link Balance#setBalance} once per
+	 * snapshot. Providers should override this with a single batched write.</p>
+	 * @param batch snapshots to write
+	 * @return one economy action per snapshot, in order
+	 */
+	default List<EconomyAction> importBatch(List<BalanceSnapshot> batch) {
+		final List<EconomyAction> results = new ArrayList<>(batch.size());
+		for (BalanceSnapshot snapshot : batch) {
+			final Balance balance = resolveBalance(snapshot);
+			results.add(snapshot.getWorld() == null ? balance.setBalance(snapshot.getBalance()) :
+					balance.setBalance(snapshot.getBalance(), snapshot.getWorld()));
+		}
+		return results;
+	}
+
+	/**
+	 * Write a stream of balances, handing them to {@link #importBatch(List)}
+	 * in batches of up to 'batchSize'.
+	 * @param snapshots snapshots to write
+	 * @param batchSize maximum snapshots per batch
+	 * @return number of snapshots written successfully
+	 */
+	default long importBalances(Stream<BalanceSnapshot> snapshots, int batchSize) {
+		final int size = Math.max(1, batchSize);
+		final Iterator<BalanceSnapshot> iterator = snapshots.iterator();
+		long written = 0;
+		while (iterator.hasNext()) {
+			final List<BalanceSnapshot> batch = new ArrayList<>(size);
+			while (batch.size() < size && iterator.hasNext()) {
+				batch.add(iterator.next());
+			}
+			for (EconomyAction result : importBatch(batch)) {
+				if (result.isSuccess()) {
+					written++;
+				}
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Get the Wallet of any EconomyEntity.
+	 * <p>Players are looked up by OfflinePlayer, other entities by
+	 * {@link EconomyEntity#friendlyName()}.</p>
+	 * @param entity the holder
+	 * @return the entity's wallet
+	 */
+	default Wallet getWallet(EconomyEntity entity) {
+		if (entity instanceof PlayerEconomyEntityBase) {
+			return getWallet(((PlayerEconomyEntityBase) entity).getPlayer());
+		}
+		return getWallet(entity.friendlyName());
+	}
+
+	/**
+	 * Deposit into the wallets of many entities at once, e.g. payroll or
+	 * event rewards.
+	 * <p>The default implementation calls {@link Balance#deposit(BigDecimal)}
+	 * once per entity. Providers should override this with one batched
+	 * write. Every result is {@link EconomyAction#log() logged}, so bulk
+	 * payouts reach the transaction journal and event listeners like any
+	 * other write; overrides must log them too.</p>
+	 * @param amounts amount to deposit per entity
+	 * @return one economy action per entity, in the iteration order of 'amounts'
+	 */
+	default Map<EconomyEntity, EconomyAction> depositAll(Map<EconomyEntity, BigDecimal> amounts) {
+		final Map<EconomyEntity, EconomyAction> results = new LinkedHashMap<>(amounts.size() * 4 / 3 + 1);
+		for (Map.Entry<EconomyEntity, BigDecimal> e : amounts.entrySet()) {
+			results.put(e.getKey(), getWallet(e.getKey()).deposit(e.getValue()).log());
+		}
+		return results;
+	}
+
+	/**
+	 * Withdraw from the wallets of many entities at once.
+	 * <p>Each withdrawal succeeds or fails on its own. The default
+	 * implementation calls {@link Balance#withdraw(BigDecimal)} once per
+	 * entity. As with {@link #depositAll(Map)}, every result is logged.</p>
+	 * @param amounts amount to withdraw per entity
+	 * @return one economy action per entity, in the iteration order of 'amounts'
+	 */
+	default Map<EconomyEntity, EconomyAction> withdrawAll(Map<EconomyEntity, BigDecimal> amounts) {
+		final Map<EconomyEntity, EconomyAction> results = new LinkedHashMap<>(amounts.size() * 4 / 3 + 1);
+		for (Map.Entry<EconomyEntity, BigDecimal> e : amounts.entrySet()) {
+			results.put(e.getKey(), getWallet(e.getKey()).withdraw(e.getValue()).log());
+		}
+		return results;
+	}
+
+	/**
+	 * Get the Executor running the default {@code *Async} methods of
+	 * this economy.
+	 * @return {@link EconomyExecutor#get()} unless overridden
+	 */
+	default Executor getAsyncExecutor() {
+		return EconomyExecutor.get();
+	}
+
+	/**
+	 * Look up a Wallet without blocking the calling thread.
+	 * <p>The default implementation runs {@link #getWallet(UUID)} on
+	 * {@link #getAsyncExecutor()}.</p>
+	 * @param uuid UniqueId of the player
+	 * @return the future wallet
+	 */
+	default CompletableFuture<Wallet> getWalletAsync(UUID uuid) {
+		return CompletableFuture.supplyAsync(() -> getWallet(uuid), getAsyncExecutor());
+	}
+
+	/**
+	 * Look up a Wallet without blocking the calling thread.
+	 * @param player the player
+	 * @return the future wallet
+	 */
+	default CompletableFuture<Wallet> getWalletAsync(OfflinePlayer player) {
+		return CompletableFuture.supplyAsync(() -> getWallet(player), getAsyncExecutor());
+	}
+
+	/**
+	 * Get the session wallet a player used while known only by name, for
+	 * {@link com.github.sanctum.economy.conversion.SessionPromotion}.
+	 * <p>Providers keeping balances of {@link TemporaryPlayerEntity} holders
+	 * apart from UniqueId wallets override this. Wallets created through
+	 * the deprecated String methods belong to systems and NPCs and must
+	 * never be returned.</p>
+	 * @param uuid UniqueId of the player
+	 * @param name the player's name
+	 * @return the session wallet, or null if this economy keeps none
+	 */
+	default @Nullable Wallet getSessionWallet(UUID uuid, String name) {
+		return null;
+	}
+
+	/**
+	 * Move an amount between two Balances of this economy as one action.
+	 * <p>The default implementation calls {@link Balance#transfer(Balance, BigDecimal)}.
+	 * Providers should override this with a single storage transaction.</p>
+	 * @param from   Balance to withdraw from
+	 * @param to     Balance to deposit into
+	 * @param amount amount to move
+	 * @return An economy action retaining information.
+	 */
+	default EconomyAction transfer(Balance from, Balance to, BigDecimal amount) {
+		return from.transfer(to, amount);
+	}
+
+	/**
+	 * Move an amount between two Balances of this economy as one action
+	 * in the context of world 'world'.
+	 * @param from   Balance to withdraw from
+	 * @param to     Balance to deposit into
+	 * @param amount amount to move
+	 * @param world  Name of world
+	 * @return An economy action retaining information.
+	 */
+	default EconomyAction transfer(Balance from, Balance to, BigDecimal amount, String world) {
+		return from.transfer(to, amount, world);
+	}
+
 }
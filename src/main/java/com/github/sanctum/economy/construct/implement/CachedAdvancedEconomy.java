@@ -0,0 +1,577 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.implement;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.account.helpers.ForwardingAccount;
+import com.github.sanctum.economy.construct.account.helpers.ForwardingWallet;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.cache.BoundedCache;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.PlayerEconomyEntityBase;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Caches the Wallet and default Account of players, and whether they
+ * exist, in front of another AdvancedEconomy.
+ * <p>Entries are keyed by UniqueId in a {@link BoundedCache}. A successful
+ * write through a cached Wallet or Account marks it as existing, and the
+ * whole entry is dropped when an account is created or deleted for the
+ * player, or by a bulk operation that may create one. Calls with a world, account type or account id go straight to
+ * the delegate. Changes made to the delegate directly are not seen until
+ * {@link #invalidate(UUID)} is called.</p>
+ */
+public class CachedAdvancedEconomy extends ForwardingAdvancedEconomy {
+
+	private final BoundedCache<UUID, Entry> cache;
+
+	/**
+	 * @param delegate    the economy to cache
+	 * @param maximumSize maximum number of players cached
+	 */
+	public CachedAdvancedEconomy(AdvancedEconomy delegate, int maximumSize) {
+		super(delegate);
+		this.cache = new BoundedCache<>(maximumSize);
+	}
+
+	private static final class Entry {
+		volatile Wallet wallet;
+		volatile Boolean walletExists;
+		volatile Account account;
+		volatile Boolean accountExists;
+	}
+
+	private Entry entry(UUID uuid) {
+		return cache.computeIfAbsent(uuid, key -> new Entry());
+	}
+
+	/**
+	 * Forget everything cached for a player.
+	 * @param uuid the player's UniqueId
+	 */
+	public void invalidate(UUID uuid) {
+		cache.invalidate(uuid);
+	}
+
+	/**
+	 * Forget everything cached.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	private void invalidate(EconomyEntity holder) {
+		if (holder instanceof PlayerEconomyEntityBase) {
+			invalidate(((PlayerEconomyEntityBase) holder).getUniqueId());
+		}
+	}
+
+	public BoundedCache<UUID, ?> getCache() {
+		return cache;
+	}
+
+	// ===== LOOKUPS =====
+
+	@Override
+	public boolean hasWalletAccount(OfflinePlayer player) {
+		final Entry entry = entry(player.getUniqueId());
+		Boolean exists = entry.walletExists;
+		if (exists == null) {
+			exists = delegate.hasWalletAccount(player);
+			entry.walletExists = exists;
+		}
+		return exists;
+	}
+
+	@Override
+	public boolean hasWalletAccount(UUID uuid) {
+		final Entry entry = entry(uuid);
+		Boolean exists = entry.walletExists;
+		if (exists == null) {
+			exists = delegate.hasWalletAccount(uuid);
+			entry.walletExists = exists;
+		}
+		return exists;
+	}
+
+	@Override
+	public boolean hasAccount(OfflinePlayer player) {
+		final Entry entry = entry(player.getUniqueId());
+		Boolean exists = entry.accountExists;
+		if (exists == null) {
+			exists = delegate.hasAccount(player);
+			entry.accountExists = exists;
+		}
+		return exists;
+	}
+
+	@Override
+	public boolean hasAccount(UUID uuid) {
+		final Entry entry = entry(uuid);
+		Boolean exists = entry.accountExists;
+		if (exists == null) {
+			exists = delegate.hasAccount(uuid);
+			entry.accountExists = exists;
+		}
+		return exists;
+	}
+
+	@Override
+	public Wallet getWallet(OfflinePlayer player) {
+		final Entry entry = entry(player.getUniqueId());
+		Wallet wallet = entry.wallet;
+		if (wallet == null) {
+			wallet = new CachedWallet(delegate.getWallet(player), entry);
+			entry.wallet = wallet;
+		}
+		return wallet;
+	}
+
+	@Override
+	public Wallet getWallet(UUID uuid) {
+		final Entry entry = entry(uuid);
+		Wallet wallet = entry.wallet;
+		if (wallet == null) {
+			wallet = new CachedWallet(delegate.getWallet(uuid), entry);
+			entry.wallet = wallet;
+		}
+		return wallet;
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player) {
+		final Entry entry = entry(player.getUniqueId());
+		Account account = entry.account;
+		if (account == null) {
+			account = new CachedAccount(delegate.getAccount(player), entry);
+			entry.account = account;
+		}
+		return account;
+	}
+
+	@Override
+	public Account getAccount(UUID uuid) {
+		final Entry entry = entry(uuid);
+		Account account = entry.account;
+		if (account == null) {
+			account = new CachedAccount(delegate.getAccount(uuid), entry);
+			entry.account = account;
+		}
+		return account;
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(UUID uuid) {
+		final Entry entry = entry(uuid);
+		final Wallet wallet = entry.wallet;
+		if (wallet != null) {
+			return CompletableFuture.completedFuture(wallet);
+		}
+		return delegate.getWalletAsync(uuid).thenApply(loaded -> {
+			final Wallet cached = new CachedWallet(loaded, entry);
+			entry.wallet = cached;
+			return cached;
+		});
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(OfflinePlayer player) {
+		final Entry entry = entry(player.getUniqueId());
+		final Wallet wallet = entry.wallet;
+		if (wallet != null) {
+			return CompletableFuture.completedFuture(wallet);
+		}
+		return delegate.getWalletAsync(player).thenApply(loaded -> {
+			final Wallet cached = new CachedWallet(loaded, entry);
+			entry.wallet = cached;
+			return cached;
+		});
+	}
+
+	@Override
+	public Wallet getWallet(EconomyEntity entity) {
+		if (entity instanceof PlayerEconomyEntityBase) {
+			return getWallet(((PlayerEconomyEntityBase) entity).getPlayer());
+		}
+		return delegate.getWallet(entity);
+	}
+
+	// ===== INVALIDATION =====
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player) {
+		final EconomyAction action = delegate.createAccount(type, player);
+		invalidate(player.getUniqueId());
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId) {
+		final EconomyAction action = delegate.createAccount(type, player, accountId);
+		invalidate(player.getUniqueId());
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, BigDecimal startingAmount) {
+		final EconomyAction action = delegate.createAccount(type, player, startingAmount);
+		invalidate(player.getUniqueId());
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId, String world) {
+		final EconomyAction action = delegate.createAccount(type, player, accountId, world);
+		invalidate(player.getUniqueId());
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId, String world, BigDecimal startingAmount) {
+		final EconomyAction action = delegate.createAccount(type, player, accountId, world, startingAmount);
+		invalidate(player.getUniqueId());
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid) {
+		final EconomyAction action = delegate.createAccount(type, uuid);
+		invalidate(uuid);
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId) {
+		final EconomyAction action = delegate.createAccount(type, uuid, accountId);
+		invalidate(uuid);
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, BigDecimal startingAmount) {
+		final EconomyAction action = delegate.createAccount(type, uuid, startingAmount);
+		invalidate(uuid);
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId, String world) {
+		final EconomyAction action = delegate.createAccount(type, uuid, accountId, world);
+		invalidate(uuid);
+		return action;
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId, String world, BigDecimal startingAmount) {
+		final EconomyAction action = delegate.createAccount(type, uuid, accountId, world, startingAmount);
+		invalidate(uuid);
+		return action;
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet) {
+		final EconomyAction action = delegate.deleteWalletAccount(unwrap(wallet));
+		invalidate(wallet.getHolder());
+		return action;
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet, String world) {
+		final EconomyAction action = delegate.deleteWalletAccount(unwrap(wallet), world);
+		invalidate(wallet.getHolder());
+		return action;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID) {
+		final EconomyAction action = delegate.deleteAccount(accountID);
+		// the owner of an id is unknown here
+		invalidateAll();
+		return action;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID, String world) {
+		final EconomyAction action = delegate.deleteAccount(accountID, world);
+		invalidateAll();
+		return action;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account) {
+		final EconomyAction action = delegate.deleteAccount(unwrap(account));
+		invalidate(account.getHolder());
+		return action;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account, String world) {
+		final EconomyAction action = delegate.deleteAccount(unwrap(account), world);
+		invalidate(account.getHolder());
+		return action;
+	}
+
+	@Override
+	public Map<EconomyEntity, EconomyAction> depositAll(Map<EconomyEntity, BigDecimal> amounts) {
+		final Map<EconomyEntity, EconomyAction> results = delegate.depositAll(amounts);
+		for (EconomyEntity holder : amounts.keySet()) {
+			invalidate(holder);
+		}
+		return results;
+	}
+
+	@Override
+	public Map<EconomyEntity, EconomyAction> withdrawAll(Map<EconomyEntity, BigDecimal> amounts) {
+		final Map<EconomyEntity, EconomyAction> results = delegate.withdrawAll(amounts);
+		for (EconomyEntity holder : amounts.keySet()) {
+			invalidate(holder);
+		}
+		return results;
+	}
+
+	@Override
+	public List<EconomyAction> importBatch(List<BalanceSnapshot> batch) {
+		final List<EconomyAction> results = delegate.importBatch(batch);
+		for (BalanceSnapshot snapshot : batch) {
+			invalidate(snapshot.getHolder());
+		}
+		return results;
+	}
+
+	@Override
+	protected Wallet unwrap(Wallet wallet) {
+		return wallet instanceof CachedWallet && ((CachedWallet) wallet).owner() == this ? ((CachedWallet) wallet).getDelegate() : wallet;
+	}
+
+	@Override
+	protected Account unwrap(Account account) {
+		return account instanceof CachedAccount && ((CachedAccount) account).owner() == this ? ((CachedAccount) account).getDelegate() : account;
+	}
+
+	private final class CachedWallet extends ForwardingWallet {
+		private final Entry entry;
+
+		CachedWallet(Wallet delegate, Entry entry) {
+			super(delegate);
+			this.entry = entry;
+		}
+
+		CachedAdvancedEconomy owner() {
+			return CachedAdvancedEconomy.this;
+		}
+
+		private EconomyAction written(EconomyAction action) {
+			if (action.isSuccess()) {
+				entry.walletExists = Boolean.TRUE;
+			}
+			return action;
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return written(delegate.setBalance(amount));
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return written(delegate.setBalance(amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return written(delegate.deposit(amount));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return written(delegate.deposit(amount, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			return written(delegate.withdraw(amount));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return written(delegate.withdraw(amount, world));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			return written(delegate.transfer(to, amount));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return written(delegate.transfer(to, amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return written(delegate.deposit(minorUnits));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return written(delegate.deposit(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return written(delegate.withdraw(minorUnits));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return written(delegate.withdraw(minorUnits, world));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return delegate.depositAsync(amount).thenApply(this::written);
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return delegate.depositAsync(amount, world).thenApply(this::written);
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return delegate.withdrawAsync(amount).thenApply(this::written);
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return delegate.withdrawAsync(amount, world).thenApply(this::written);
+		}
+	}
+
+	private final class CachedAccount extends ForwardingAccount {
+		private final Entry entry;
+
+		CachedAccount(Account delegate, Entry entry) {
+			super(delegate);
+			this.entry = entry;
+		}
+
+		CachedAdvancedEconomy owner() {
+			return CachedAdvancedEconomy.this;
+		}
+
+		private EconomyAction written(EconomyAction action) {
+			if (action.isSuccess()) {
+				entry.accountExists = Boolean.TRUE;
+			}
+			return action;
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return written(delegate.setBalance(amount));
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return written(delegate.setBalance(amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return written(delegate.deposit(amount));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return written(delegate.deposit(amount, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			return written(delegate.withdraw(amount));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return written(delegate.withdraw(amount, world));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			return written(delegate.transfer(to, amount));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return written(delegate.transfer(to, amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return written(delegate.deposit(minorUnits));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return written(delegate.deposit(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return written(delegate.withdraw(minorUnits));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return written(delegate.withdraw(minorUnits, world));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return delegate.depositAsync(amount).thenApply(this::written);
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return delegate.depositAsync(amount, world).thenApply(this::written);
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return delegate.withdrawAsync(amount).thenApply(this::written);
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return delegate.withdrawAsync(amount, world).thenApply(this::written);
+		}
+	}
+}
@@ -0,0 +1,513 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.implement;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.EconomyPriority;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.AccountPage;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.currency.normal.EconomyCurrency;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decorator base -- forwards every call, including those with default
+ * implementations, to another AdvancedEconomy. Subclass this and override
+ * only what needs to change.
+ * <p>Subclasses returning their own Wallet or Account wrappers override
+ * {@link #unwrap(Wallet)} and {@link #unwrap(Account)} to strip that one
+ * layer from Balances passed in, so the delegate receives the objects it
+ * returned. Layers added by anything else, e.g. a
+ * {@link com.github.sanctum.economy.construct.account.helpers.WriteBehindBuffer},
+ * are passed on untouched.</p>
+ */
+public abstract class ForwardingAdvancedEconomy implements AdvancedEconomy {
+
+	protected final AdvancedEconomy delegate;
+
+	protected ForwardingAdvancedEconomy(AdvancedEconomy delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Get the AdvancedEconomy calls are forwarded to.
+	 * @return the wrapped economy
+	 */
+	public AdvancedEconomy getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public Plugin getPlugin() {
+		return delegate.getPlugin();
+	}
+
+	@Override
+	public String getVersion() {
+		return delegate.getVersion();
+	}
+
+	@Override
+	public EconomyCurrency getCurrency() {
+		return delegate.getCurrency();
+	}
+
+	@Override
+	public EconomyCurrency getCurrency(String world) {
+		return delegate.getCurrency(world);
+	}
+
+	@Override
+	public EconomyPriority getPriority() {
+		return delegate.getPriority();
+	}
+
+	@Override
+	public String format(BigDecimal amount) {
+		return delegate.format(amount);
+	}
+
+	@Override
+	public String format(BigDecimal amount, Locale locale) {
+		return delegate.format(amount, locale);
+	}
+
+	@Override
+	public BigDecimal getMaxWalletSize() {
+		return delegate.getMaxWalletSize();
+	}
+
+	@Override
+	public boolean isMultiWorld() {
+		return delegate.isMultiWorld();
+	}
+
+	@Override
+	public boolean isMultiCurrency() {
+		return delegate.isMultiCurrency();
+	}
+
+	@Override
+	public boolean hasMultiAccountSupport() {
+		return delegate.hasMultiAccountSupport();
+	}
+
+	@Override
+	public boolean hasWalletSizeLimit() {
+		return delegate.hasWalletSizeLimit();
+	}
+
+	@Override
+	@Deprecated
+	public boolean hasWalletAccount(String name) {
+		return delegate.hasWalletAccount(name);
+	}
+
+	@Override
+	@Deprecated
+	public boolean hasWalletAccount(String name, String world) {
+		return delegate.hasWalletAccount(name, world);
+	}
+
+	@Override
+	public boolean hasWalletAccount(OfflinePlayer player) {
+		return delegate.hasWalletAccount(player);
+	}
+
+	@Override
+	public boolean hasWalletAccount(OfflinePlayer player, String world) {
+		return delegate.hasWalletAccount(player, world);
+	}
+
+	@Override
+	public boolean hasWalletAccount(UUID uuid) {
+		return delegate.hasWalletAccount(uuid);
+	}
+
+	@Override
+	public boolean hasWalletAccount(UUID uuid, String world) {
+		return delegate.hasWalletAccount(uuid, world);
+	}
+
+	@Override
+	@Deprecated
+	public boolean hasAccount(String name) {
+		return delegate.hasAccount(name);
+	}
+
+	@Override
+	public boolean hasAccount(OfflinePlayer player) {
+		return delegate.hasAccount(player);
+	}
+
+	@Override
+	public boolean hasAccount(OfflinePlayer player, String world) {
+		return delegate.hasAccount(player, world);
+	}
+
+	@Override
+	@Deprecated
+	public boolean hasAccount(String accountId, String name) {
+		return delegate.hasAccount(accountId, name);
+	}
+
+	@Override
+	public boolean hasAccount(UUID uuid) {
+		return delegate.hasAccount(uuid);
+	}
+
+	@Override
+	public boolean hasAccount(UUID uuid, String world) {
+		return delegate.hasAccount(uuid, world);
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String name) {
+		return delegate.getAccount(name);
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String name, AccountType type) {
+		return delegate.getAccount(name, type);
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String accountId, String name) {
+		return delegate.getAccount(accountId, name);
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player, AccountType type) {
+		return delegate.getAccount(player, type);
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player) {
+		return delegate.getAccount(player);
+	}
+
+	@Override
+	public Account getAccount(String accountId, OfflinePlayer player) {
+		return delegate.getAccount(accountId, player);
+	}
+
+	@Override
+	public Account getAccount(UUID uuid) {
+		return delegate.getAccount(uuid);
+	}
+
+	@Override
+	public Account getAccount(UUID uuid, AccountType type) {
+		return delegate.getAccount(uuid, type);
+	}
+
+	@Override
+	public Account getAccount(String accountId, UUID uuid) {
+		return delegate.getAccount(accountId, uuid);
+	}
+
+	@Override
+	@Deprecated
+	public Wallet getWallet(String name) {
+		return delegate.getWallet(name);
+	}
+
+	@Override
+	public Wallet getWallet(OfflinePlayer player) {
+		return delegate.getWallet(player);
+	}
+
+	@Override
+	public Wallet getWallet(UUID uuid) {
+		return delegate.getWallet(uuid);
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction createAccount(AccountType type, String name) {
+		return delegate.createAccount(type, name);
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction createAccount(AccountType type, String name, String accountId) {
+		return delegate.createAccount(type, name, accountId);
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction createAccount(AccountType type, String name, BigDecimal startingAmount) {
+		return delegate.createAccount(type, name, startingAmount);
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction createAccount(AccountType type, String name, String accountId, String world) {
+		return delegate.createAccount(type, name, accountId, world);
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction createAccount(AccountType type, String name, String accountId, String world, BigDecimal startingAmount) {
+		return delegate.createAccount(type, name, accountId, world, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player) {
+		return delegate.createAccount(type, player);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId) {
+		return delegate.createAccount(type, player, accountId);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, BigDecimal startingAmount) {
+		return delegate.createAccount(type, player, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId, String world) {
+		return delegate.createAccount(type, player, accountId, world);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId, String world, BigDecimal startingAmount) {
+		return delegate.createAccount(type, player, accountId, world, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid) {
+		return delegate.createAccount(type, uuid);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId) {
+		return delegate.createAccount(type, uuid, accountId);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, BigDecimal startingAmount) {
+		return delegate.createAccount(type, uuid, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId, String world) {
+		return delegate.createAccount(type, uuid, accountId, world);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId, String world, BigDecimal startingAmount) {
+		return delegate.createAccount(type, uuid, accountId, world, startingAmount);
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet) {
+		return delegate.deleteWalletAccount(unwrap(wallet));
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet, String world) {
+		return delegate.deleteWalletAccount(unwrap(wallet), world);
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID) {
+		return delegate.deleteAccount(accountID);
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID, String world) {
+		return delegate.deleteAccount(accountID, world);
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account) {
+		return delegate.deleteAccount(unwrap(account));
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account, String world) {
+		return delegate.deleteAccount(unwrap(account), world);
+	}
+
+	@Override
+	public List<Account> getAccounts() {
+		return delegate.getAccounts();
+	}
+
+	@Override
+	public List<String> getAccountList() {
+		return delegate.getAccountList();
+	}
+
+	@Override
+	public List<Account> getAccountsOf(EconomyEntity entity) {
+		return delegate.getAccountsOf(entity);
+	}
+
+	@Override
+	public Stream<Account> streamAccounts() {
+		return delegate.streamAccounts();
+	}
+
+	@Override
+	public Stream<Account> streamAccounts(@Nullable AccountType type, @Nullable String world) {
+		return delegate.streamAccounts(type, world);
+	}
+
+	@Override
+	public Stream<String> streamAccountList() {
+		return delegate.streamAccountList();
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize) {
+		return delegate.getAccountPage(cursor, pageSize);
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize, @Nullable AccountType type, @Nullable String world) {
+		return delegate.getAccountPage(cursor, pageSize, type, world);
+	}
+
+	@Override
+	public List<String> getBalanceWorlds() {
+		return delegate.getBalanceWorlds();
+	}
+
+	@Override
+	public Stream<BalanceSnapshot> exportWallets() {
+		return delegate.exportWallets();
+	}
+
+	@Override
+	public Stream<BalanceSnapshot> exportAccounts() {
+		return delegate.exportAccounts();
+	}
+
+	@Override
+	public Stream<BalanceSnapshot> exportBalances() {
+		return delegate.exportBalances();
+	}
+
+	@Override
+	public Balance resolveBalance(BalanceSnapshot snapshot) {
+		return delegate.resolveBalance(snapshot);
+	}
+
+	@Override
+	public List<EconomyAction> importBatch(List<BalanceSnapshot> batch) {
+		return delegate.importBatch(batch);
+	}
+
+	@Override
+	public long importBalances(Stream<BalanceSnapshot> snapshots, int batchSize) {
+		return delegate.importBalances(snapshots, batchSize);
+	}
+
+	@Override
+	public @Nullable Wallet getSessionWallet(UUID uuid, String name) {
+		return delegate.getSessionWallet(uuid, name);
+	}
+
+	@Override
+	public EconomyAction transfer(Balance from, Balance to, BigDecimal amount) {
+		return delegate.transfer(unwrapBalance(from), unwrapBalance(to), amount);
+	}
+
+	@Override
+	public EconomyAction transfer(Balance from, Balance to, BigDecimal amount, String world) {
+		return delegate.transfer(unwrapBalance(from), unwrapBalance(to), amount, world);
+	}
+
+	@Override
+	public Wallet getWallet(EconomyEntity entity) {
+		return delegate.getWallet(entity);
+	}
+
+	@Override
+	public Map<EconomyEntity, EconomyAction> depositAll(Map<EconomyEntity, BigDecimal> amounts) {
+		return delegate.depositAll(amounts);
+	}
+
+	@Override
+	public Map<EconomyEntity, EconomyAction> withdrawAll(Map<EconomyEntity, BigDecimal> amounts) {
+		return delegate.withdrawAll(amounts);
+	}
+
+	@Override
+	public Executor getAsyncExecutor() {
+		return delegate.getAsyncExecutor();
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(UUID uuid) {
+		return delegate.getWalletAsync(uuid);
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(OfflinePlayer player) {
+		return delegate.getWalletAsync(player);
+	}
+
+	/**
+	 * Strip the layer this economy added to a Wallet it returned.
+	 * @param wallet a Wallet, possibly wrapped by this economy
+	 * @return the Wallet the delegate returned, or 'wallet' unchanged
+	 */
+	protected Wallet unwrap(Wallet wallet) {
+		return wallet;
+	}
+
+	/**
+	 * Strip the layer this economy added to an Account it returned.
+	 * @param account an Account, possibly wrapped by this economy
+	 * @return the Account the delegate returned, or 'account' unchanged
+	 */
+	protected Account unwrap(Account account) {
+		return account;
+	}
+
+	private Balance unwrapBalance(Balance balance) {
+		if (balance instanceof Wallet) return unwrap((Wallet) balance);
+		if (balance instanceof Account) return unwrap((Account) balance);
+		return balance;
+	}
+}
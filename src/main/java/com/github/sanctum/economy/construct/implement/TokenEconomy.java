@@ -23,6 +23,7 @@ package com.github.sanctum.economy.construct.implement;
 import com.github.sanctum.economy.construct.EconomyPriority;
 import com.github.sanctum.economy.construct.EconomyAction;
 import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.AccountPage;
 import com.github.sanctum.economy.construct.account.Wallet;
 import com.github.sanctum.economy.construct.account.permissive.AccountType;
 import com.github.sanctum.economy.construct.currency.special.TokenCurrency;
@@ -30,8 +31,10 @@ import com.github.sanctum.economy.construct.currency.special.TokenCurrency;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 
 public interface TokenEconomy {
 
@@ -193,5 +196,62 @@ public interface TokenEconomy {
 
 	List<String> getAccountList();
 
+	// ===== PAGING =====
+
+	/**
+	 * Stream every account without building a list first.
+	 * <p>The default implementation streams {@link #getAccounts()}.
+	 * Providers should override this with a lazy scan of their storage.</p>
+	 * @return lazily evaluated stream of accounts
+	 */
+	default Stream<Account> streamAccounts() {
+		return getAccounts().stream();
+	}
+
+	/**
+	 * Stream the accounts of one type and/or world.
+	 * @param type  required type, or null for any
+	 * @param world world the account must exist in, or null for any
+	 * @return lazily evaluated stream of accounts
+	 */
+	default Stream<Account> streamAccounts(@Nullable AccountType type, @Nullable String world) {
+		return streamAccounts().filter(AccountPage.filter(type, world));
+	}
+
+	/**
+	 * Stream the id of every account.
+	 * @return lazily evaluated stream of account ids
+	 */
+	default Stream<String> streamAccountList() {
+		return getAccountList().stream();
+	}
+
+	/**
+	 * Get one page of accounts.
+	 * @param cursor   {@link AccountPage#getNextCursor()} of the previous
+	 *                 page, or null for the first page
+	 * @param pageSize maximum accounts on the page; providers may return fewer
+	 * @return the page
+	 */
+	default AccountPage getAccountPage(@Nullable String cursor, int pageSize) {
+		return getAccountPage(cursor, pageSize, null, null);
+	}
+
+	/**
+	 * Get one page of the accounts of one type and/or world.
+	 * <p>The default implementation pages through
+	 * {@link #streamAccounts(AccountType, String)} in id order with
+	 * {@link AccountPage#after(Stream, String, int)}, reading every account
+	 * per page. Providers with sorted storage should override this.</p>
+	 * @param cursor   {@link AccountPage#getNextCursor()} of the previous
+	 *                 page, or null for the first page
+	 * @param pageSize maximum accounts on the page; providers may return fewer
+	 * @param type     required type, or null for any
+	 * @param world    world the account must exist in, or null for any
+	 * @return the page
+	 */
+	default AccountPage getAccountPage(@Nullable String cursor, int pageSize, @Nullable AccountType type, @Nullable String world) {
+		return AccountPage.after(streamAccounts(type, world), cursor, pageSize);
+	}
 
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An append-only, memory-mapped record of the work a {@link ConversionTask}
+ * has finished, so a conversion interrupted by a restart can pick up where
+ * it left off.
+ * <p>Each completed partition appends the keys of its entities followed by
+ * a partition record. Every record is written body first and its type byte
+ * last, so a record cut short by a crash is never read back; the unwritten
+ * tail of the file is zero-filled and ends the journal.</p>
+ */
+public final class CheckpointJournal implements Closeable {
+
+	private static final int MAGIC = 0x454E544A; // "ENTJ"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int INITIAL_SIZE = 1 << 20;
+
+	private static final byte PARTITION = 1;
+	private static final byte PLAYER = 2;
+	private static final byte ACCOUNT = 3;
+
+	private final File file;
+	private final FileChannel channel;
+	private final Map<Integer, Long> partitions = new ConcurrentHashMap<>();
+	private final Set<UUID> players = ConcurrentHashMap.newKeySet();
+	private final Set<String> accounts = ConcurrentHashMap.newKeySet();
+	private MappedByteBuffer buffer;
+	private int position;
+
+	private CheckpointJournal(File file, FileChannel channel) {
+		this.file = file;
+		this.channel = channel;
+	}
+
+	/**
+	 * Open a journal, creating it if it does not exist and reading back
+	 * everything recorded so far.
+	 *
+	 * @param file the journal file
+	 * @return an open journal
+	 * @throws IOException if the file cannot be mapped or is not a journal
+	 */
+	public static CheckpointJournal open(File file) throws IOException {
+		final File parent = file.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Unable to create " + parent);
+		}
+		final FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+		final CheckpointJournal journal = new CheckpointJournal(file, channel);
+		try {
+			journal.load();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return journal;
+	}
+
+	private void load() throws IOException {
+		final long size = channel.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException(file + " is too large to be a checkpoint journal");
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_SIZE));
+		final int magic = buffer.getInt(0);
+		if (magic == 0) {
+			buffer.putInt(4, VERSION);
+			buffer.putInt(0, MAGIC);
+			position = HEADER_SIZE;
+			return;
+		}
+		if (magic != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException(file + " is not a checkpoint journal");
+		}
+		position = HEADER_SIZE;
+		final int limit = buffer.capacity();
+		while (position < limit) {
+			final byte type = buffer.get(position);
+			if (type == PARTITION && position + 13 <= limit) {
+				partitions.put(buffer.getInt(position + 1), buffer.getLong(position + 5));
+				position += 13;
+			} else if (type == PLAYER && position + 17 <= limit) {
+				players.add(new UUID(buffer.getLong(position + 1), buffer.getLong(position + 9)));
+				position += 17;
+			} else if (type == ACCOUNT && position + 3 <= limit) {
+				final int length = buffer.getShort(position + 1) & 0xFFFF;
+				if (position + 3 + length > limit) {
+					break;
+				}
+				final byte[] bytes = new byte[length];
+				for (int i = 0; i < length; i++) {
+					bytes[i] = buffer.get(position + 3 + i);
+				}
+				accounts.add(new String(bytes, StandardCharsets.UTF_8));
+				position += 3 + length;
+			} else {
+				// zero-filled tail or a record that was never committed
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Check if a partition was completed with the same entities.
+	 * @param partition   the partition's number
+	 * @param fingerprint hash of the partition's entity keys
+	 * @return true if the partition can be skipped
+	 */
+	public boolean isComplete(int partition, long fingerprint) {
+		final Long recorded = partitions.get(partition);
+		return recorded != null && recorded == fingerprint;
+	}
+
+	public boolean isComplete(UUID player) {
+		return players.contains(player);
+	}
+
+	public boolean isComplete(String accountKey) {
+		return accounts.contains(accountKey);
+	}
+
+	/**
+	 * Get the number of entities recorded as converted.
+	 * @return player and account count
+	 */
+	public int getCompletedEntities() {
+		return players.size() + accounts.size();
+	}
+
+	/**
+	 * Record a finished partition and flush it to disk.
+	 * @param partition   the partition's number
+	 * @param fingerprint hash of the partition's entity keys
+	 * @param players     players converted by the partition
+	 * @param accounts    keys of accounts converted by the partition
+	 * @throws IOException if the journal could not grow
+	 */
+	public synchronized void complete(int partition, long fingerprint, Collection<UUID> players, Collection<String> accounts) throws IOException {
+		for (UUID player : players) {
+			ensureCapacity(17);
+			buffer.putLong(position + 1, player.getMostSignificantBits());
+			buffer.putLong(position + 9, player.getLeastSignificantBits());
+			commit(PLAYER, 17);
+			this.players.add(player);
+		}
+		for (String account : accounts) {
+			final byte[] bytes = account.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > 0xFFFF) {
+				continue;
+			}
+			ensureCapacity(3 + bytes.length);
+			buffer.putShort(position + 1, (short) bytes.length);
+			for (int i = 0; i < bytes.length; i++) {
+				buffer.put(position + 3 + i, bytes[i]);
+			}
+			commit(ACCOUNT, 3 + bytes.length);
+			this.accounts.add(account);
+		}
+		ensureCapacity(13);
+		buffer.putInt(position + 1, partition);
+		buffer.putLong(position + 5, fingerprint);
+		commit(PARTITION, 13);
+		partitions.put(partition, fingerprint);
+		buffer.force();
+	}
+
+	private void commit(byte type, int length) {
+		buffer.put(position, type);
+		position += length;
+	}
+
+	private void ensureCapacity(int length) throws IOException {
+		if (position + length <= buffer.capacity()) {
+			return;
+		}
+		final long size = Math.max((long) buffer.capacity() * 2, (long) position + length);
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException(file + " is full");
+		}
+		buffer.force();
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	/**
+	 * Flush and close the journal, keeping it for a later resume.
+	 * @throws IOException if the file could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel.isOpen()) {
+			buffer.force();
+			channel.close();
+		}
+	}
+
+	/**
+	 * Close and remove the journal once its conversion has finished.
+	 * <p>The file is zero-filled first. The mapping outlives the channel
+	 * until the buffer is garbage collected, so on platforms which lock
+	 * mapped files the delete can fail; the file left behind then reads
+	 * as an empty journal and is deleted when the JVM exits.</p>
+	 * @return true if the file was deleted
+	 * @throws IOException if the file could not be closed
+	 */
+	public synchronized boolean delete() throws IOException {
+		if (channel.isOpen()) {
+			for (int i = 0; i < position; i++) {
+				buffer.put(i, (byte) 0);
+			}
+			position = HEADER_SIZE;
+		}
+		close();
+		if (file.delete()) {
+			return true;
+		}
+		file.deleteOnExit();
+		return false;
+	}
+
+	public File getFile() {
+		return file;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Tuning knobs for a {@link ConversionTask}, read from the 'convert'
+ * section of Enterprise's config.yml.
+ */
+public final class ConversionSettings {
+
+	public static final int DEFAULT_CHUNK_SIZE = 500;
+	public static final int DEFAULT_WORKERS = 2;
+	public static final long DEFAULT_TICK_BUDGET_MILLIS = 10;
+	public static final int DEFAULT_PROGRESS_INTERVAL_SECONDS = 5;
+
+	private final int chunkSize;
+	private final int workers;
+	private final long tickBudgetMillis;
+	private final int progressIntervalSeconds;
+
+	public ConversionSettings(int chunkSize, int workers, long tickBudgetMillis, int progressIntervalSeconds) {
+		this.chunkSize = Math.max(1, chunkSize);
+		this.workers = Math.max(0, workers);
+		this.tickBudgetMillis = Math.max(1, tickBudgetMillis);
+		this.progressIntervalSeconds = Math.max(1, progressIntervalSeconds);
+	}
+
+	/**
+	 * Read settings from a configuration section, falling back to
+	 * defaults for anything missing.
+	 * @param section the 'convert' section or null
+	 * @return settings
+	 */
+	public static ConversionSettings fromConfig(ConfigurationSection section) {
+		if (section == null) {
+			return new ConversionSettings(DEFAULT_CHUNK_SIZE, DEFAULT_WORKERS, DEFAULT_TICK_BUDGET_MILLIS, DEFAULT_PROGRESS_INTERVAL_SECONDS);
+		}
+		return new ConversionSettings(section.getInt("chunk-size", DEFAULT_CHUNK_SIZE),
+				section.getInt("workers", DEFAULT_WORKERS),
+				section.getLong("tick-budget-ms", DEFAULT_TICK_BUDGET_MILLIS),
+				section.getInt("progress-interval-seconds", DEFAULT_PROGRESS_INTERVAL_SECONDS));
+	}
+
+	/**
+	 * Get the number of entities each unit of work covers.
+	 * @return chunk size, at least 1
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Get the number of background worker threads.
+	 * <p>0 means every provider call runs on the main thread, limited
+	 * to {@link #getTickBudgetMillis()} per tick. Use this for providers
+	 * which are not thread-safe.</p>
+	 * @return worker count, at least 0
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * Get the maximum time spent per server tick on main-thread work.
+	 * @return budget in milliseconds
+	 */
+	public long getTickBudgetMillis() {
+		return tickBudgetMillis;
+	}
+
+	/**
+	 * Get how often progress is reported to the command sender.
+	 * @return interval in seconds
+	 */
+	public int getProgressIntervalSeconds() {
+		return progressIntervalSeconds;
+	}
+
+	@Override
+	public String toString() {
+		return "ConversionSettings{" +
+				"chunkSize=" + chunkSize +
+				", workers=" + workers +
+				", tickBudgetMillis=" + tickBudgetMillis +
+				", progressIntervalSeconds=" + progressIntervalSeconds +
+				'}';
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.EntityKey;
+import com.github.sanctum.economy.construct.entity.PlayerEconomyEntityBase;
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Copies wallets and accounts from one AdvancedEconomy to another in the
+ * background.
+ * <p>Each partition reads every balance of its entities (general and
+ * per-world) and writes them to the target with one
+ * {@link AdvancedEconomy#importBatch(List)} call per world.</p>
+ */
+public final class ConversionTask extends PartitionedTask {
+
+	private final AdvancedEconomy source;
+	private final AdvancedEconomy target;
+	private final OfflinePlayer[] players;
+	private final List<Account> accounts;
+	private final List<String> worlds;
+	private final int total;
+	private final CheckpointJournal journal;
+	private final AtomicLong converted = new AtomicLong();
+	private final AtomicLong resumed = new AtomicLong();
+
+	/**
+	 * Prepare a conversion. Must be called on the main thread as it
+	 * snapshots the server's offline players.
+	 *
+	 * @param plugin   plugin owning the scheduled tasks
+	 * @param source   economy to read from
+	 * @param target   economy to write to
+	 * @param settings tuning knobs
+	 * @param journal  checkpoint journal to resume from and record to, or null
+	 * @param feedback receives progress messages on the main thread
+	 */
+	public ConversionTask(Plugin plugin, AdvancedEconomy source, AdvancedEconomy target, ConversionSettings settings, CheckpointJournal journal, Consumer<String> feedback) {
+		super(plugin, settings, "Conversion", feedback);
+		this.source = source;
+		this.target = target;
+		this.journal = journal;
+		this.players = plugin.getServer().getOfflinePlayers();
+		this.accounts = source.getAccounts();
+		this.worlds = source.getBalanceWorlds();
+		this.total = players.length + accounts.size();
+	}
+
+	/**
+	 * Get the number of players and accounts this conversion covers.
+	 * @return entity count
+	 */
+	@Override
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Get the number of balances written to the target economy.
+	 * @return successful writes, counting each world separately
+	 */
+	public long getConverted() {
+		return converted.get();
+	}
+
+	/**
+	 * Get the number of entities skipped because the checkpoint journal
+	 * already recorded them.
+	 * @return resumed entity count
+	 */
+	public long getResumed() {
+		return resumed.get();
+	}
+
+	@Override
+	protected String getDetails() {
+		return converted.get() + " balances converted, " + resumed.get() + " resumed, ";
+	}
+
+	@Override
+	protected Partition createPartition(int partition, int from, int to) {
+		if (journal == null) {
+			return new Batch(partition, 0);
+		}
+		long fingerprint = 1;
+		for (int i = from; i < to; i++) {
+			final int hash = i < players.length ? players[i].getUniqueId().hashCode() : accountKey(accounts.get(i - players.length)).hashCode();
+			fingerprint = fingerprint * 1_000_003 + hash;
+		}
+		if (journal.isComplete(partition, fingerprint)) {
+			return new Skip();
+		}
+		return new Batch(partition, fingerprint);
+	}
+
+	@Override
+	protected void onCompleted() {
+		if (journal == null) {
+			return;
+		}
+		try {
+			if (getFailed() > 0) {
+				journal.close();
+				report("&e&oCheckpoint kept; run the conversion again to retry failed entities.");
+			} else if (!journal.delete()) {
+				plugin.getLogger().warning("Unable to delete " + journal.getFile());
+			}
+		} catch (IOException e) {
+			plugin.getLogger().log(Level.WARNING, "Unable to close " + journal.getFile(), e);
+		}
+	}
+
+	@Override
+	protected void onCancelled() {
+		if (journal == null) {
+			return;
+		}
+		try {
+			journal.close();
+		} catch (IOException e) {
+			plugin.getLogger().log(Level.WARNING, "Unable to close " + journal.getFile(), e);
+		}
+	}
+
+	private static String accountKey(Account account) {
+		return account.getHolder().id() + '/' + account.getType() + '/' + account.getId();
+	}
+
+	/**
+	 * A partition the journal recorded as complete.
+	 */
+	private final class Skip implements Partition {
+		@Override
+		public void process(int index) {
+			resumed.incrementAndGet();
+		}
+
+		@Override
+		public void complete() {
+		}
+	}
+
+	/**
+	 * Collects the balances of one partition, grouped by world, so each
+	 * world is written to the target with a single batch.
+	 */
+	private final class Batch implements Partition {
+		private final int partition;
+		private final long fingerprint;
+		// null key holds the general context
+		private final Map<String, List<BalanceSnapshot>> byWorld = new HashMap<>();
+		private final List<UUID> donePlayers = new ArrayList<>();
+		private final List<String> doneAccounts = new ArrayList<>();
+		private boolean failed;
+
+		Batch(int partition, long fingerprint) {
+			this.partition = partition;
+			this.fingerprint = fingerprint;
+		}
+
+		@Override
+		public void process(int index) {
+			if (index < players.length) {
+				final UUID uid = players[index].getUniqueId();
+				if (journal != null && journal.isComplete(uid)) {
+					resumed.incrementAndGet();
+					return;
+				}
+				addWallet(players[index]);
+				donePlayers.add(uid);
+			} else {
+				final Account account = accounts.get(index - players.length);
+				final String key = accountKey(account);
+				if (journal != null && journal.isComplete(key)) {
+					resumed.incrementAndGet();
+					return;
+				}
+				addAccount(account);
+				doneAccounts.add(key);
+			}
+		}
+
+		private void addWallet(OfflinePlayer op) {
+			try {
+				if (source.hasWalletAccount(op)) {
+					final Wallet wallet = source.getWallet(op);
+					BalanceSnapshot.allOf(wallet, worlds)
+							.filter(snapshot -> snapshot.getBalance().compareTo(BigDecimal.ZERO) > 0)
+							.forEach(this::queue);
+				}
+			} catch (RuntimeException e) {
+				failed = true;
+				fail("wallet of " + op.getUniqueId(), e);
+			}
+		}
+
+		private void addAccount(Account account) {
+			try {
+				copyAccount(account);
+				BalanceSnapshot.allOf(account, worlds).forEach(this::queue);
+			} catch (RuntimeException e) {
+				failed = true;
+				fail("account " + account.getId(), e);
+			}
+		}
+
+		private void queue(BalanceSnapshot snapshot) {
+			byWorld.computeIfAbsent(snapshot.getWorld(), world -> new ArrayList<>()).add(snapshot);
+		}
+
+		@Override
+		public void complete() {
+			for (List<BalanceSnapshot> snapshots : byWorld.values()) {
+				try {
+					for (EconomyAction result : target.importBatch(snapshots)) {
+						if (result.isSuccess()) {
+							converted.incrementAndGet();
+						} else {
+							failed = true;
+							fail();
+						}
+					}
+				} catch (RuntimeException e) {
+					failed = true;
+					fail(snapshots.size() + " balances in world " + snapshots.get(0).getWorld(), e);
+				}
+			}
+			byWorld.clear();
+			// a partition with failures is redone as a whole on the next run
+			if (journal != null && !failed) {
+				try {
+					journal.complete(partition, fingerprint, donePlayers, doneAccounts);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Make sure an account exists in the target in every context it exists
+	 * in the source, with the same members.
+	 */
+	private void copyAccount(Account account) {
+		final EconomyEntity holder = account.getHolder();
+		final String accountId = account.getId();
+		final UUID uid = holder instanceof PlayerEconomyEntityBase ? ((PlayerEconomyEntityBase) holder).getUniqueId() : null;
+		Account copy = uid != null ? target.getAccount(accountId, uid) : target.getAccount(accountId, holder.friendlyName());
+		boolean created = false;
+		if (account.exists() && !copy.exists()) {
+			if (uid != null) {
+				target.createAccount(account.getType(), uid, accountId);
+			} else {
+				target.createAccount(account.getType(), holder.friendlyName(), accountId);
+			}
+			created = true;
+		}
+		for (String world : worlds) {
+			if (account.exists(world) && !copy.exists(world)) {
+				if (uid != null) {
+					target.createAccount(account.getType(), uid, accountId, world);
+				} else {
+					target.createAccount(account.getType(), holder.friendlyName(), accountId, world);
+				}
+				created = true;
+			}
+		}
+		if (created) {
+			copy = uid != null ? target.getAccount(accountId, uid) : target.getAccount(accountId, holder.friendlyName());
+		}
+		for (String member : account.getMembers()) {
+			final EntityKey key = EntityKey.of(member);
+			if (key.getType() == EntityKey.PLAYER) {
+				final UUID memberId = key.getUniqueId();
+				if (!copy.isMember(memberId).isSuccess()) {
+					copy.addMember(memberId);
+				}
+			} else {
+				final String name = member.substring(member.indexOf('=') + 1);
+				if (!copy.isMember(name).isSuccess()) {
+					copy.addMember(name);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,336 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Base class for long-running jobs over a fixed list of entities.
+ * <p>Entities are addressed by index and split into partitions of
+ * {@link ConversionSettings#getChunkSize()} which are claimed by a pool of
+ * worker threads. Anything which has to happen on the main thread (progress
+ * reports, completion, and all of the work when no workers are configured)
+ * runs in a repeating task limited to the configured tick budget.</p>
+ */
+public abstract class PartitionedTask {
+
+	public enum State {
+		RUNNING, CANCELLED, COMPLETED
+	}
+
+	/**
+	 * The work done for one partition. A partition is only ever used by one
+	 * thread at a time.
+	 */
+	protected interface Partition {
+		/**
+		 * Handle one entity of this partition.
+		 * @param index the entity's index
+		 */
+		void process(int index);
+
+		/**
+		 * Called once every entity of this partition has been processed.
+		 */
+		void complete();
+	}
+
+	protected final Plugin plugin;
+	protected final ConversionSettings settings;
+	private final String name;
+	private final Consumer<String> feedback;
+	private final AtomicInteger cursor = new AtomicInteger();
+	private final AtomicInteger activeWorkers = new AtomicInteger();
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private volatile State state = State.RUNNING;
+	private long startNanos;
+	private volatile long endNanos;
+	private long nextReportNanos;
+	private ExecutorService executor;
+	private BukkitTask ticker;
+	// main-thread partition currently being worked on when running without workers
+	private int syncIndex;
+	private int syncEnd;
+	private Partition syncPartition;
+
+	/**
+	 * @param plugin   plugin owning the scheduled tasks
+	 * @param settings tuning knobs
+	 * @param name     capitalized name used in messages, e.g. "Conversion"
+	 * @param feedback receives progress messages on the main thread
+	 */
+	protected PartitionedTask(Plugin plugin, ConversionSettings settings, String name, Consumer<String> feedback) {
+		this.plugin = plugin;
+		this.settings = settings;
+		this.name = name;
+		this.feedback = feedback;
+	}
+
+	/**
+	 * Get the number of entities this task covers.
+	 * @return entity count
+	 */
+	public abstract int getTotal();
+
+	/**
+	 * Create the work for a partition.
+	 * @param partition the partition's number
+	 * @param from      first entity index, inclusive
+	 * @param to        last entity index, exclusive
+	 * @return the partition's work
+	 */
+	protected abstract Partition createPartition(int partition, int from, int to);
+
+	/**
+	 * Extra task-specific progress, appended to {@link #getProgress()}.
+	 * @return details or an empty string
+	 */
+	protected abstract String getDetails();
+
+	/**
+	 * Called on the main thread after every partition has completed.
+	 */
+	protected void onCompleted() {
+	}
+
+	/**
+	 * Called on the main thread after the task was cancelled.
+	 */
+	protected void onCancelled() {
+	}
+
+	/**
+	 * Start the workers and the main-thread ticker. Must be called on the
+	 * main thread.
+	 */
+	public void start() {
+		startNanos = System.nanoTime();
+		nextReportNanos = startNanos + TimeUnit.SECONDS.toNanos(settings.getProgressIntervalSeconds());
+		final int workers = settings.getWorkers();
+		if (workers > 0) {
+			executor = Executors.newFixedThreadPool(workers, new WorkerThreadFactory(name));
+			activeWorkers.set(workers);
+			for (int i = 0; i < workers; i++) {
+				executor.execute(this::work);
+			}
+		}
+		ticker = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+	}
+
+	/**
+	 * Stop the task as soon as possible. Must be called on the main thread.
+	 *
+	 * @return false if the task was not running
+	 */
+	public boolean cancel() {
+		if (state != State.RUNNING) {
+			return false;
+		}
+		finish(State.CANCELLED);
+		report("&c&o" + name + " cancelled. " + getProgress());
+		onCancelled();
+		return true;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public boolean isRunning() {
+		return state == State.RUNNING;
+	}
+
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Get the average throughput since the task started.
+	 * @return processed entities per second
+	 */
+	public double getRowsPerSecond() {
+		final long end = state == State.RUNNING ? System.nanoTime() : endNanos;
+		final double seconds = (end - startNanos) / 1_000_000_000D;
+		return seconds <= 0 ? 0 : processed.get() / seconds;
+	}
+
+	/**
+	 * Get a human-readable summary of the current progress.
+	 * @return progress line
+	 */
+	public String getProgress() {
+		final long done = processed.get();
+		final int total = getTotal();
+		final long percent = total == 0 ? 100 : done * 100 / total;
+		return String.format("%d/%d (%d%%) at %.0f rows/s, %s%d failed",
+				done, total, percent, getRowsPerSecond(), getDetails(), failed.get());
+	}
+
+	/**
+	 * Send a message to whoever started this task. Must be called on the
+	 * main thread.
+	 * @param message message with '&amp;' color codes
+	 */
+	protected void report(String message) {
+		feedback.accept(message);
+	}
+
+	/**
+	 * Record a failure, logging the first one.
+	 * @param what description of the entity which failed
+	 * @param e    the cause
+	 */
+	protected void fail(String what, Exception e) {
+		// only the first stack trace is useful; the rest would flood the console
+		if (failed.getAndIncrement() == 0) {
+			plugin.getLogger().log(Level.WARNING, name + " failed for " + what, e);
+		}
+	}
+
+	/**
+	 * Record a failure which has no exception to log.
+	 */
+	protected void fail() {
+		failed.incrementAndGet();
+	}
+
+	private void work() {
+		final int chunkSize = settings.getChunkSize();
+		final int total = getTotal();
+		try {
+			int from;
+			while (state == State.RUNNING && (from = cursor.getAndAdd(chunkSize)) < total) {
+				final int to = Math.min(from + chunkSize, total);
+				try {
+					final Partition partition = createPartition(from / chunkSize, from, to);
+					int i = from;
+					for (; i < to && state == State.RUNNING; i++) {
+						partition.process(i);
+						processed.incrementAndGet();
+					}
+					if (i == to) {
+						partition.complete();
+					}
+				} catch (RuntimeException e) {
+					fail("partition " + from / chunkSize, e);
+				}
+			}
+		} finally {
+			activeWorkers.decrementAndGet();
+		}
+	}
+
+	private void tick() {
+		if (state != State.RUNNING) {
+			return;
+		}
+		final int total = getTotal();
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getTickBudgetMillis());
+		if (executor == null) {
+			final int chunkSize = settings.getChunkSize();
+			while (System.nanoTime() < deadline) {
+				if (syncIndex >= syncEnd) {
+					final int from = cursor.getAndAdd(chunkSize);
+					if (from >= total) {
+						break;
+					}
+					syncIndex = from;
+					syncEnd = Math.min(from + chunkSize, total);
+				}
+				// like a worker, give up the rest of a partition that throws
+				try {
+					if (syncPartition == null) {
+						syncPartition = createPartition(syncIndex / chunkSize, syncIndex, syncEnd);
+					}
+					syncPartition.process(syncIndex++);
+					processed.incrementAndGet();
+					if (syncIndex >= syncEnd) {
+						syncPartition.complete();
+						syncPartition = null;
+					}
+				} catch (RuntimeException e) {
+					fail("partition " + (syncEnd - 1) / chunkSize, e);
+					syncIndex = syncEnd;
+					syncPartition = null;
+				}
+			}
+		}
+		if (cursor.get() >= total && syncIndex >= syncEnd && activeWorkers.get() == 0) {
+			finish(State.COMPLETED);
+			final long seconds = TimeUnit.NANOSECONDS.toSeconds(endNanos - startNanos);
+			report("&a" + name + " completed in " + seconds + " seconds. " + getProgress());
+			onCompleted();
+			return;
+		}
+		final long now = System.nanoTime();
+		if (now >= nextReportNanos) {
+			nextReportNanos = now + TimeUnit.SECONDS.toNanos(settings.getProgressIntervalSeconds());
+			report("&e&o" + name + ": " + getProgress());
+		}
+	}
+
+	private void finish(State result) {
+		state = result;
+		endNanos = System.nanoTime();
+		if (executor != null) {
+			// workers notice the state change between entities; interrupting
+			// them could abort a provider mid-write
+			executor.shutdown();
+		}
+		if (ticker != null) {
+			ticker.cancel();
+		}
+	}
+
+	private static final class WorkerThreadFactory implements ThreadFactory {
+		private final String prefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		WorkerThreadFactory(String name) {
+			this.prefix = "Enterprise-" + name + "-";
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			final Thread thread = new Thread(r, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
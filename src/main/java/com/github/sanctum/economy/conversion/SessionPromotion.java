@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.types.TemporaryPlayerEntity;
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Moves session balances, kept under 'p_name=' ids, into the UniqueId
+ * wallet of the same player once they log in.
+ * <p>Only wallets returned by {@link AdvancedEconomy#getSessionWallet}
+ * whose holder is a {@link TemporaryPlayerEntity} of the same player are
+ * promoted; economies without session wallets are left alone, as are
+ * system and NPC wallets of the same name.</p>
+ * <p>Logins are queued and handled in batches on the main thread, so a
+ * login storm is spread over several ticks. Each balance is moved with
+ * {@link AdvancedEconomy#transfer}, which leaves the session wallet at
+ * zero; a player whose session wallet is already empty is skipped, so
+ * running again after a crash or restart never pays twice. Every
+ * transfer is logged.</p>
+ */
+public final class SessionPromotion {
+
+	public static final int DEFAULT_BATCH_SIZE = 20;
+	public static final long DEFAULT_INTERVAL_TICKS = 5;
+
+	private final Plugin plugin;
+	private final int batchSize;
+	private final boolean deleteSessionWallets;
+	private final ConcurrentLinkedQueue<UUID> queue = new ConcurrentLinkedQueue<>();
+	// queued players and the name they logged in with
+	private final Map<UUID, String> names = new ConcurrentHashMap<>();
+	private final AtomicLong promoted = new AtomicLong();
+	private BukkitTask task;
+
+	/**
+	 * @param plugin               the plugin running the batches
+	 * @param batchSize            players handled per batch
+	 * @param deleteSessionWallets delete session wallets once emptied
+	 */
+	public SessionPromotion(Plugin plugin, int batchSize, boolean deleteSessionWallets) {
+		this.plugin = plugin;
+		this.batchSize = Math.max(1, batchSize);
+		this.deleteSessionWallets = deleteSessionWallets;
+	}
+
+	/**
+	 * Run a batch every 'intervalTicks'.
+	 * @param intervalTicks ticks between batches
+	 */
+	public synchronized void start(long intervalTicks) {
+		if (task != null) task.cancel();
+		final long interval = Math.max(1, intervalTicks);
+		task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::runBatch, interval, interval);
+	}
+
+	public synchronized void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	/**
+	 * Queue a player for promotion; queuing twice before the batch runs
+	 * has no further effect.
+	 * @param player a player who just logged in
+	 */
+	public void enqueue(Player player) {
+		enqueue(player.getUniqueId(), player.getName());
+	}
+
+	public void enqueue(UUID uuid, String name) {
+		if (names.put(uuid, name) == null) {
+			queue.offer(uuid);
+		}
+	}
+
+	/**
+	 * Promote up to one batch of queued players in every registered
+	 * AdvancedEconomy.
+	 * @return number of balances moved
+	 */
+	public int runBatch() {
+		if (queue.isEmpty()) return 0;
+		final List<AdvancedEconomy> economies = new ArrayList<>();
+		for (RegisteredServiceProvider<AdvancedEconomy> registration : plugin.getServer().getServicesManager().getRegistrations(AdvancedEconomy.class)) {
+			economies.add(registration.getProvider());
+		}
+		int moved = 0;
+		for (int i = 0; i < batchSize; i++) {
+			final UUID uuid = queue.poll();
+			if (uuid == null) break;
+			final String name = names.remove(uuid);
+			if (name == null) continue;
+			for (AdvancedEconomy economy : economies) {
+				try {
+					moved += promote(economy, uuid, name).size();
+				} catch (RuntimeException e) {
+					plugin.getLogger().log(Level.WARNING, "Unable to promote the session balance of " + name
+							+ " in " + economy.getPlugin().getName(), e);
+				}
+			}
+		}
+		promoted.addAndGet(moved);
+		return moved;
+	}
+
+	/**
+	 * Move the session balance of one player in one economy.
+	 * @param economy the economy
+	 * @param uuid    the player's UniqueId
+	 * @param name    the player's name
+	 * @return the successful transfers, empty if there was nothing to move
+	 */
+	public List<EconomyAction> promote(AdvancedEconomy economy, UUID uuid, String name) {
+		final Wallet session = economy.getSessionWallet(uuid, name);
+		if (session == null || !isSessionOf(session.getHolder(), uuid, name)) return Collections.emptyList();
+		final Wallet persistent = economy.getWallet(uuid);
+		if (session.getHolder().id().equals(persistent.getHolder().id())) return Collections.emptyList();
+		final List<EconomyAction> results = new ArrayList<>(1);
+		// the general context, then every world with its own balance
+		boolean emptied = move(economy, session, persistent, session.getBalance(), null, results);
+		if (economy.isMultiWorld()) {
+			for (String world : economy.getBalanceWorlds()) {
+				emptied &= move(economy, session, persistent, session.getBalance(world), world, results);
+			}
+		}
+		if (emptied && deleteSessionWallets) {
+			economy.deleteWalletAccount(session);
+		}
+		return results;
+	}
+
+	private static boolean isSessionOf(EconomyEntity holder, UUID uuid, String name) {
+		return holder instanceof TemporaryPlayerEntity
+				&& ((TemporaryPlayerEntity) holder).getUniqueId().equals(uuid)
+				&& holder.id().equals("p_name=".concat(name));
+	}
+
+	private boolean move(AdvancedEconomy economy, Wallet session, Wallet persistent, BigDecimal amount, String world, List<EconomyAction> results) {
+		if (amount == null || amount.signum() <= 0) return true;
+		final EconomyAction action = world == null ? economy.transfer(session, persistent, amount) :
+				economy.transfer(session, persistent, amount, world);
+		action.log();
+		if (action.isSuccess()) {
+			results.add(action);
+			return true;
+		}
+		plugin.getLogger().warning("Unable to promote " + amount + " from " + session.getHolder().id() + " to "
+				+ persistent.getHolder().id() + (world != null ? " in " + world : "") + ": " + action.getInfo());
+		return false;
+	}
+
+	/**
+	 * Get the number of players waiting.
+	 * @return queue length
+	 */
+	public int getQueued() {
+		return names.size();
+	}
+
+	/**
+	 * Get the number of balances moved since startup.
+	 * @return balances moved
+	 */
+	public long getPromoted() {
+		return promoted.get();
+	}
+}
@@ -0,0 +1,313 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.PlayerEconomyEntityBase;
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Compares the balances of two AdvancedEconomies without writing anything.
+ * <p>Both economies are read partition by partition in parallel. Every
+ * partition records the money supply and a checksum of each side, and
+ * every balance which differs is counted as a mismatch. Missing balances
+ * count as zero. Accounts are taken from the source economy only.</p>
+ */
+public final class VerificationTask extends PartitionedTask {
+
+	/**
+	 * The number of mismatches kept for the final report; the rest are
+	 * only counted.
+	 */
+	public static final int MAX_LISTED_MISMATCHES = 100;
+
+	private static final int MISMATCHES_SENT = 10;
+
+	private final AdvancedEconomy source;
+	private final AdvancedEconomy target;
+	private final OfflinePlayer[] players;
+	private final List<Account> accounts;
+	private final List<String> worlds;
+	private final int total;
+	private final PartitionResult[] results;
+	private final AtomicLong mismatchCount = new AtomicLong();
+	private final Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Prepare a verification. Must be called on the main thread as it
+	 * snapshots the server's offline players.
+	 *
+	 * @param plugin   plugin owning the scheduled tasks
+	 * @param source   economy converted from
+	 * @param target   economy converted to
+	 * @param settings tuning knobs
+	 * @param feedback receives progress messages on the main thread
+	 */
+	public VerificationTask(Plugin plugin, AdvancedEconomy source, AdvancedEconomy target, ConversionSettings settings, Consumer<String> feedback) {
+		super(plugin, settings, "Verification", feedback);
+		this.source = source;
+		this.target = target;
+		this.players = plugin.getServer().getOfflinePlayers();
+		this.accounts = source.getAccounts();
+		this.worlds = source.getBalanceWorlds();
+		this.total = players.length + accounts.size();
+		final int chunkSize = settings.getChunkSize();
+		this.results = new PartitionResult[(total + chunkSize - 1) / chunkSize];
+	}
+
+	@Override
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Get the number of balances which differ between the two economies.
+	 * @return mismatch count
+	 */
+	public long getMismatchCount() {
+		return mismatchCount.get();
+	}
+
+	/**
+	 * Get descriptions of the first {@link #MAX_LISTED_MISMATCHES}
+	 * mismatching balances.
+	 * @return mismatches in no particular order
+	 */
+	public List<String> getMismatches() {
+		return new ArrayList<>(mismatches);
+	}
+
+	/**
+	 * Get the results of every completed partition.
+	 * @return results ordered by partition
+	 */
+	public List<PartitionResult> getPartitions() {
+		final List<PartitionResult> list = new ArrayList<>(results.length);
+		for (PartitionResult result : results) {
+			if (result != null) {
+				list.add(result);
+			}
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	@Override
+	protected String getDetails() {
+		return mismatchCount.get() + " mismatches, ";
+	}
+
+	@Override
+	protected Partition createPartition(int partition, int from, int to) {
+		return new Scan(partition);
+	}
+
+	@Override
+	protected void onCompleted() {
+		BigDecimal sourceSupply = BigDecimal.ZERO;
+		BigDecimal targetSupply = BigDecimal.ZERO;
+		int matching = 0;
+		for (PartitionResult result : results) {
+			if (result == null) {
+				// partition failed; already counted in getFailed()
+				continue;
+			}
+			sourceSupply = sourceSupply.add(result.getSourceTotal());
+			targetSupply = targetSupply.add(result.getTargetTotal());
+			if (result.matches()) {
+				matching++;
+			}
+		}
+		report("Money supply: " + source.getPlugin().getName() + " " + source.format(sourceSupply)
+				+ ", " + target.getPlugin().getName() + " " + target.format(targetSupply));
+		if (mismatchCount.get() == 0 && matching == results.length) {
+			report("&aAll " + results.length + " partitions match.");
+			return;
+		}
+		report("&c" + matching + "/" + results.length + " partitions match, " + mismatchCount.get() + " balances differ:");
+		int sent = 0;
+		for (String mismatch : mismatches) {
+			plugin.getLogger().warning("Mismatch: " + mismatch);
+			if (sent++ < MISMATCHES_SENT) {
+				report("&c- " + mismatch);
+			}
+		}
+		if (mismatchCount.get() > MISMATCHES_SENT) {
+			report("&cSee the console for up to " + MAX_LISTED_MISMATCHES + " mismatches.");
+		}
+	}
+
+	/**
+	 * Totals and checksums of one partition on both sides.
+	 */
+	public static final class PartitionResult {
+		private final int partition;
+		private final BigDecimal sourceTotal;
+		private final BigDecimal targetTotal;
+		private final long sourceChecksum;
+		private final long targetChecksum;
+
+		PartitionResult(int partition, BigDecimal sourceTotal, BigDecimal targetTotal, long sourceChecksum, long targetChecksum) {
+			this.partition = partition;
+			this.sourceTotal = sourceTotal;
+			this.targetTotal = targetTotal;
+			this.sourceChecksum = sourceChecksum;
+			this.targetChecksum = targetChecksum;
+		}
+
+		public int getPartition() {
+			return partition;
+		}
+
+		public BigDecimal getSourceTotal() {
+			return sourceTotal;
+		}
+
+		public BigDecimal getTargetTotal() {
+			return targetTotal;
+		}
+
+		public long getSourceChecksum() {
+			return sourceChecksum;
+		}
+
+		public long getTargetChecksum() {
+			return targetChecksum;
+		}
+
+		/**
+		 * Check if both sides of this partition hold the same balances.
+		 * @return true if totals and checksums are equal
+		 */
+		public boolean matches() {
+			return sourceChecksum == targetChecksum && sourceTotal.compareTo(targetTotal) == 0;
+		}
+
+		@Override
+		public String toString() {
+			return "PartitionResult{" +
+					"partition=" + partition +
+					", sourceTotal=" + sourceTotal +
+					", targetTotal=" + targetTotal +
+					", sourceChecksum=" + Long.toHexString(sourceChecksum) +
+					", targetChecksum=" + Long.toHexString(targetChecksum) +
+					'}';
+		}
+	}
+
+	private final class Scan implements Partition {
+		private final int partition;
+		private final CRC32 sourceChecksum = new CRC32();
+		private final CRC32 targetChecksum = new CRC32();
+		private BigDecimal sourceTotal = BigDecimal.ZERO;
+		private BigDecimal targetTotal = BigDecimal.ZERO;
+
+		Scan(int partition) {
+			this.partition = partition;
+		}
+
+		@Override
+		public void process(int index) {
+			if (index < players.length) {
+				final OfflinePlayer op = players[index];
+				try {
+					compare(op.getUniqueId().toString(),
+							source.hasWalletAccount(op) ? source.getWallet(op) : null,
+							target.hasWalletAccount(op) ? target.getWallet(op) : null);
+				} catch (RuntimeException e) {
+					fail("wallet of " + op.getUniqueId(), e);
+				}
+			} else {
+				final Account account = accounts.get(index - players.length);
+				try {
+					compare("account " + account.getId(), account, findAccount(account));
+				} catch (RuntimeException e) {
+					fail("account " + account.getId(), e);
+				}
+			}
+		}
+
+		private Account findAccount(Account account) {
+			final EconomyEntity holder = account.getHolder();
+			if (holder instanceof PlayerEconomyEntityBase) {
+				return target.getAccount(account.getId(), ((PlayerEconomyEntityBase) holder).getUniqueId());
+			}
+			return target.getAccount(account.getId(), holder.friendlyName());
+		}
+
+		private void compare(String name, Balance from, Balance to) {
+			compare(name, null, from, to);
+			for (String world : worlds) {
+				compare(name, world, from, to);
+			}
+		}
+
+		private void compare(String name, String world, Balance from, Balance to) {
+			final BigDecimal a = read(from, world);
+			final BigDecimal b = read(to, world);
+			sourceTotal = sourceTotal.add(a);
+			targetTotal = targetTotal.add(b);
+			update(sourceChecksum, name, world, a);
+			update(targetChecksum, name, world, b);
+			if (a.compareTo(b) != 0) {
+				if (mismatchCount.incrementAndGet() <= MAX_LISTED_MISMATCHES) {
+					mismatches.add(name + (world != null ? " [" + world + "]" : "") + ": " + a.toPlainString() + " != " + b.toPlainString());
+				}
+			}
+		}
+
+		private BigDecimal read(Balance balance, String world) {
+			if (balance == null) {
+				return BigDecimal.ZERO;
+			}
+			final BigDecimal value = world == null ? balance.getBalance() : balance.getBalance(world);
+			return value == null ? BigDecimal.ZERO : value;
+		}
+
+		private void update(CRC32 checksum, String name, String world, BigDecimal value) {
+			// zero balances are left out so a missing balance and an empty one agree
+			if (value.signum() == 0) {
+				return;
+			}
+			final String line = name + '|' + Objects.toString(world, "") + '|' + value.stripTrailingZeros().toPlainString() + '\n';
+			checksum.update(line.getBytes(StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public void complete() {
+			results[partition] = new PartitionResult(partition, sourceTotal, targetTotal, sourceChecksum.getValue(), targetChecksum.getValue());
+		}
+	}
+}
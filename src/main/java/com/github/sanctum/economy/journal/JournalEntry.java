@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.journal;
+
+import java.math.BigDecimal;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One decoded record of a {@link TransactionJournal}.
+ */
+public final class JournalEntry {
+
+	private final long timestamp;
+	private final String entityId;
+	private final boolean success;
+	private final BigDecimal amount;
+	private final String info;
+
+	JournalEntry(long timestamp, String entityId, boolean success, BigDecimal amount, String info) {
+		this.timestamp = timestamp;
+		this.entityId = entityId;
+		this.success = success;
+		this.amount = amount;
+		this.info = info;
+	}
+
+	/**
+	 * Get the time the action was journaled.
+	 * @return milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Get the {@link com.github.sanctum.economy.construct.entity.EconomyEntity#id()}
+	 * of the action's holder.
+	 * @return entity id, empty if the action had no holder
+	 */
+	public String getEntityId() {
+		return entityId;
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	/**
+	 * Get the amount of the transaction.
+	 * @return amount or null for info actions
+	 */
+	@Nullable
+	public BigDecimal getAmount() {
+		return amount;
+	}
+
+	public String getInfo() {
+		return info;
+	}
+
+	@Override
+	public String toString() {
+		return "JournalEntry{" +
+				"timestamp=" + timestamp +
+				", entityId='" + entityId + '\'' +
+				", success=" + success +
+				", amount=" + amount +
+				", info='" + info + '\'' +
+				'}';
+	}
+}
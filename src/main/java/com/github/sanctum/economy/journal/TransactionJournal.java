@@ -0,0 +1,274 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.journal;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * An append-only binary log of {@link EconomyAction}s.
+ * <p>The active file is 'transactions.journal' in the journal's directory.
+ * Records are collected in a direct buffer and written to the file's
+ * channel when the buffer fills or {@link #flush()} is called. Once the
+ * file would grow past the maximum size it is renamed to
+ * 'transactions-&lt;millis&gt;.journal' and a new file is started; only the
+ * newest rotated files are kept. If the rename fails, the active file is
+ * kept growing and rotation is retried a minute later.</p>
+ * <p>File layout: int magic, int version, then records of
+ * int length, long timestamp, byte flags (1 = success, 2 = has amount),
+ * short id length + UTF-8 entity id, [int scale, short length + unscaled
+ * value bytes], short info length + UTF-8 info. Use
+ * {@link TransactionJournalReader} to decode it.</p>
+ */
+public final class TransactionJournal implements Closeable {
+
+	static final int MAGIC = 0x454E5458; // "ENTX"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final byte SUCCESS = 1;
+	static final byte HAS_AMOUNT = 2;
+
+	private static final String ACTIVE_NAME = "transactions.journal";
+	private static final String ROTATED_PREFIX = "transactions-";
+	private static final String SUFFIX = ".journal";
+	private static final String CORRUPT_SUFFIX = ".corrupt";
+	private static final int MAX_STRING_BYTES = 0xFFFF;
+	private static final long ROTATE_RETRY_MILLIS = 60000;
+
+	private final File directory;
+	private final long maxFileSize;
+	private final int keepFiles;
+	private final Logger logger;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+	private FileChannel channel;
+	private long size;
+	private long nextRotation;
+
+	private TransactionJournal(File directory, long maxFileSize, int keepFiles, Logger logger) {
+		this.directory = directory;
+		this.maxFileSize = Math.max(HEADER_SIZE + 1024, maxFileSize);
+		this.keepFiles = Math.max(0, keepFiles);
+		this.logger = logger;
+	}
+
+	/**
+	 * Open the journal in a directory, appending to the active file if it
+	 * exists. A record torn by a crash at the end of the file is cut off.
+	 * An active file with an unknown header, e.g. from another version, is
+	 * renamed to 'transactions-&lt;millis&gt;.corrupt' and never deleted.
+	 *
+	 * @param directory   directory holding the journal files
+	 * @param maxFileSize size in bytes at which the active file is rotated
+	 * @param keepFiles   number of rotated files to keep
+	 * @param logger      receives warnings about failed rotations
+	 * @return an open journal
+	 * @throws IOException if the active file cannot be opened or an
+	 * unreadable one cannot be moved aside
+	 */
+	public static TransactionJournal open(File directory, long maxFileSize, int keepFiles, Logger logger) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create " + directory);
+		}
+		final TransactionJournal journal = new TransactionJournal(directory, maxFileSize, keepFiles, logger);
+		journal.openActive();
+		return journal;
+	}
+
+	private void openActive() throws IOException {
+		final File file = new File(directory, ACTIVE_NAME);
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final long end = TransactionJournalReader.validLength(channel);
+		if (end < HEADER_SIZE && channel.size() > 0) {
+			// another version or a damaged header: keep the file for inspection
+			channel.close();
+			setAside(file);
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		if (end < HEADER_SIZE) {
+			channel.truncate(0);
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).flip();
+			channel.write(header, 0);
+			size = HEADER_SIZE;
+		} else {
+			channel.truncate(end);
+			size = end;
+		}
+		channel.position(size);
+	}
+
+	private void setAside(File file) throws IOException {
+		long stamp = System.currentTimeMillis();
+		File aside;
+		while ((aside = new File(directory, ROTATED_PREFIX + stamp + CORRUPT_SUFFIX)).exists()) {
+			stamp++;
+		}
+		if (!file.renameTo(aside)) {
+			throw new IOException("Unable to move unreadable " + file + " to " + aside.getName());
+		}
+		logger.warning(file + " has an unknown header; moved it to " + aside.getName() + " and started a new journal.");
+	}
+
+	/**
+	 * Append an action, stamped with the current time.
+	 * @param action the action
+	 * @throws IOException if buffered records could not be written
+	 * @throws IllegalArgumentException if the amount's unscaled value does
+	 * not fit in 65535 bytes
+	 */
+	public synchronized void append(EconomyAction action) throws IOException {
+		final EconomyEntity holder = action.getActiveHolder();
+		final byte[] id = truncate(holder != null ? holder.id().getBytes(StandardCharsets.UTF_8) : new byte[0]);
+		final byte[] info = truncate(action.getInfo().getBytes(StandardCharsets.UTF_8));
+		final BigDecimal amount = action.getAmount();
+		final byte[] unscaled = amount != null ? amount.unscaledValue().toByteArray() : null;
+		if (unscaled != null && unscaled.length > MAX_STRING_BYTES) {
+			throw new IllegalArgumentException("Amount too large to journal: " + unscaled.length + " bytes");
+		}
+		final int length = 8 + 1 + 2 + id.length + (unscaled != null ? 4 + 2 + unscaled.length : 0) + 2 + info.length;
+		if (size + buffer.position() + 4 + length > maxFileSize && System.currentTimeMillis() >= nextRotation) {
+			rotate();
+		}
+		final ByteBuffer target;
+		if (4 + length > buffer.capacity()) {
+			writeBuffer();
+			target = ByteBuffer.allocate(4 + length);
+		} else {
+			if (4 + length > buffer.remaining()) {
+				writeBuffer();
+			}
+			target = buffer;
+		}
+		target.putInt(length);
+		target.putLong(System.currentTimeMillis());
+		target.put((byte) ((action.isSuccess() ? SUCCESS : 0) | (unscaled != null ? HAS_AMOUNT : 0)));
+		target.putShort((short) id.length).put(id);
+		if (unscaled != null) {
+			target.putInt(amount.scale());
+			target.putShort((short) unscaled.length).put(unscaled);
+		}
+		target.putShort((short) info.length).put(info);
+		if (target != buffer) {
+			target.flip();
+			while (target.hasRemaining()) {
+				size += channel.write(target);
+			}
+		}
+	}
+
+	// cut UTF-8 text to the length field's limit, on a character boundary
+	private static byte[] truncate(byte[] bytes) {
+		if (bytes.length <= MAX_STRING_BYTES) {
+			return bytes;
+		}
+		int end = MAX_STRING_BYTES;
+		while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+			end--;
+		}
+		return Arrays.copyOf(bytes, end);
+	}
+
+	/**
+	 * Write buffered records to the file.
+	 * @throws IOException if the records could not be written
+	 */
+	public synchronized void flush() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		writeBuffer();
+	}
+
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			size += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void rotate() throws IOException {
+		writeBuffer();
+		channel.force(false);
+		channel.close();
+		final File active = new File(directory, ACTIVE_NAME);
+		long stamp = System.currentTimeMillis();
+		File rotated;
+		while ((rotated = new File(directory, ROTATED_PREFIX + stamp + SUFFIX)).exists()) {
+			stamp++;
+		}
+		if (!active.renameTo(rotated)) {
+			// keep appending to the active file rather than losing records
+			nextRotation = System.currentTimeMillis() + ROTATE_RETRY_MILLIS;
+			logger.warning("Unable to rotate " + active + " to " + rotated.getName() + ", retrying in a minute.");
+			openActive();
+			return;
+		}
+		final File[] old = getRotatedFiles(directory);
+		for (int i = 0; i < old.length - keepFiles; i++) {
+			//noinspection ResultOfMethodCallIgnored
+			old[i].delete();
+		}
+		openActive();
+	}
+
+	/**
+	 * Get the rotated journal files of a directory.
+	 * @param directory directory holding the journal files
+	 * @return rotated files, oldest first
+	 */
+	public static File[] getRotatedFiles(File directory) {
+		final File[] files = directory.listFiles((dir, name) -> name.startsWith(ROTATED_PREFIX) && name.endsWith(SUFFIX));
+		if (files == null) {
+			return new File[0];
+		}
+		// names embed the rotation time, so name order is age order
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Get the file currently being written.
+	 * @return active file
+	 */
+	public File getActiveFile() {
+		return new File(directory, ACTIVE_NAME);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel.isOpen()) {
+			writeBuffer();
+			channel.force(false);
+			channel.close();
+		}
+	}
+}
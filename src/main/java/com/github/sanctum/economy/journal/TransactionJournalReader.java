@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.journal;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decodes the files written by {@link TransactionJournal}.
+ * <p>Can also be run on its own to print journal files:</p>
+ * <pre>java -cp Enterprise.jar com.github.sanctum.economy.journal.TransactionJournalReader transactions.journal</pre>
+ */
+public final class TransactionJournalReader implements Closeable {
+
+	private final DataInputStream in;
+
+	/**
+	 * Open a journal file for reading.
+	 * @param file a journal file
+	 * @throws IOException if the file cannot be read or is not a journal
+	 */
+	public TransactionJournalReader(File file) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+		try {
+			if (in.readInt() != TransactionJournal.MAGIC || in.readInt() != TransactionJournal.VERSION) {
+				throw new IOException(file + " is not a transaction journal");
+			}
+		} catch (IOException e) {
+			in.close();
+			throw e instanceof EOFException ? new IOException(file + " is not a transaction journal", e) : e;
+		}
+	}
+
+	/**
+	 * Read the next record.
+	 * @return the record, or null at the end of the file or at a record
+	 * which was cut short
+	 * @throws IOException if the file cannot be read
+	 */
+	@Nullable
+	public JournalEntry next() throws IOException {
+		final byte[] record;
+		try {
+			final int length = in.readInt();
+			if (length <= 0) {
+				return null;
+			}
+			record = new byte[length];
+			in.readFully(record);
+		} catch (EOFException e) {
+			return null;
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(record);
+		final long timestamp = buffer.getLong();
+		final byte flags = buffer.get();
+		final String id = readString(buffer);
+		BigDecimal amount = null;
+		if ((flags & TransactionJournal.HAS_AMOUNT) != 0) {
+			final int scale = buffer.getInt();
+			final byte[] unscaled = new byte[buffer.getShort() & 0xFFFF];
+			buffer.get(unscaled);
+			amount = new BigDecimal(new BigInteger(unscaled), scale);
+		}
+		final String info = readString(buffer);
+		return new JournalEntry(timestamp, id, (flags & TransactionJournal.SUCCESS) != 0, amount, info);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		final int length = buffer.getShort() & 0xFFFF;
+		final String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Find the end of the last complete record of a journal file.
+	 * @param channel an open journal file
+	 * @return length of the valid part of the file, or 0 if it has no
+	 * valid header
+	 * @throws IOException if the file cannot be read
+	 */
+	static long validLength(FileChannel channel) throws IOException {
+		final long size = channel.size();
+		if (size < TransactionJournal.HEADER_SIZE) {
+			return 0;
+		}
+		final ByteBuffer header = ByteBuffer.allocate(TransactionJournal.HEADER_SIZE);
+		readFully(channel, header, 0);
+		if (header.getInt(0) != TransactionJournal.MAGIC || header.getInt(4) != TransactionJournal.VERSION) {
+			return 0;
+		}
+		final ByteBuffer length = ByteBuffer.allocate(4);
+		long position = TransactionJournal.HEADER_SIZE;
+		while (position + 4 <= size) {
+			length.clear();
+			readFully(channel, length, position);
+			final int recordLength = length.getInt(0);
+			if (recordLength <= 0 || position + 4 + recordLength > size) {
+				break;
+			}
+			position += 4 + recordLength;
+		}
+		return position;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: TransactionJournalReader <journal file>...");
+			System.exit(1);
+		}
+		for (String name : args) {
+			try (TransactionJournalReader reader = new TransactionJournalReader(new File(name))) {
+				JournalEntry entry;
+				while ((entry = reader.next()) != null) {
+					System.out.println(Instant.ofEpochMilli(entry.getTimestamp()) + " " + entry.getEntityId()
+							+ " [" + entry.isSuccess() + "]"
+							+ (entry.getAmount() != null ? " Amount: " + entry.getAmount().toPlainString() : "")
+							+ " Info: " + entry.getInfo());
+				}
+			}
+		}
+	}
+}
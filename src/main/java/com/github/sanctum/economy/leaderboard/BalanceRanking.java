@@ -0,0 +1,370 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.leaderboard;
+
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Balances of one world and kind of balance, ordered from richest to
+ * poorest.
+ * <p>An indexable skip list: every link also stores how many entries it
+ * skips, so updates, {@link #getRank(String)}, {@link #top(int)} and
+ * {@link #range(int, int)} take O(log n) plus the size of the result.
+ * Equal balances are ordered by id. Readers share a read lock; updates
+ * take the write lock.</p>
+ * <p>Every entry keeps the version of the update that set it, and an
+ * update older than that is ignored, so a balance read before another
+ * write can't replace the newer one.</p>
+ */
+public final class BalanceRanking {
+
+	private static final int MAX_LEVEL = 32;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Node> nodes = new HashMap<>();
+	private final Node head = new Node(null, null, null, 0, MAX_LEVEL);
+	private int level = 1;
+	private int size;
+
+	private static final class Node {
+		final String id;
+		final EconomyEntity holder;
+		final BigDecimal balance;
+		long version;
+		final Node[] next;
+		// entries passed by following next[i], this one excluded
+		final int[] span;
+
+		Node(String id, EconomyEntity holder, BigDecimal balance, long version, int level) {
+			this.id = id;
+			this.holder = holder;
+			this.balance = balance;
+			this.version = version;
+			this.next = new Node[level];
+			this.span = new int[level];
+		}
+	}
+
+	/**
+	 * One ranked balance, as of the query that returned it.
+	 */
+	public static final class Entry {
+		private final int rank;
+		private final String id;
+		private final EconomyEntity holder;
+		private final BigDecimal balance;
+
+		Entry(int rank, Node node) {
+			this.rank = rank;
+			this.id = node.id;
+			this.holder = node.holder;
+			this.balance = node.balance;
+		}
+
+		/**
+		 * @return 1 for the richest
+		 */
+		public int getRank() {
+			return rank;
+		}
+
+		/**
+		 * @return holder id for wallets, account id for accounts
+		 */
+		public String getId() {
+			return id;
+		}
+
+		public EconomyEntity getHolder() {
+			return holder;
+		}
+
+		public BigDecimal getBalance() {
+			return balance;
+		}
+
+		@Override
+		public String toString() {
+			return "Entry{" +
+					"rank=" + rank +
+					", id='" + id + '\'' +
+					", balance=" + balance +
+					'}';
+		}
+	}
+
+	// true if 'node' ranks above (balance, id)
+	private static boolean before(Node node, BigDecimal balance, String id) {
+		final int c = node.balance.compareTo(balance);
+		return c > 0 || (c == 0 && node.id.compareTo(id) < 0);
+	}
+
+	private static int randomLevel() {
+		int level = 1;
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (level < MAX_LEVEL && random.nextInt(4) == 0) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * Set the balance of an entry, adding it if missing, unless the entry
+	 * was set by a newer update.
+	 * @param id      holder id for wallets, account id for accounts
+	 * @param holder  the holder
+	 * @param balance the new balance, or null to remove the entry
+	 * @param version taken before the balance was read
+	 * @return true if the entry was missing and has been added
+	 */
+	boolean update(String id, EconomyEntity holder, @Nullable BigDecimal balance, long version) {
+		lock.writeLock().lock();
+		try {
+			final Node old = nodes.get(id);
+			if (old != null) {
+				if (old.version >= version) return false;
+				if (balance != null && old.balance.compareTo(balance) == 0) {
+					old.version = version;
+					return false;
+				}
+				unlink(old);
+			}
+			if (balance != null) {
+				insert(id, holder, balance, version);
+			}
+			return old == null && balance != null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Remove an entry unless it was set by a newer update.
+	 * @param id      holder id for wallets, account id for accounts
+	 * @param version taken once the entry was deleted
+	 */
+	void remove(String id, long version) {
+		update(id, null, null, version);
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			nodes.clear();
+			for (int i = 0; i < MAX_LEVEL; i++) {
+				head.next[i] = null;
+				head.span[i] = 0;
+			}
+			level = 1;
+			size = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void insert(String id, EconomyEntity holder, BigDecimal balance, long version) {
+		final Node[] update = new Node[MAX_LEVEL];
+		final int[] rank = new int[MAX_LEVEL];
+		Node x = head;
+		for (int i = level - 1; i >= 0; i--) {
+			rank[i] = i == level - 1 ? 0 : rank[i + 1];
+			while (x.next[i] != null && before(x.next[i], balance, id)) {
+				rank[i] += x.span[i];
+				x = x.next[i];
+			}
+			update[i] = x;
+		}
+		final int newLevel = randomLevel();
+		if (newLevel > level) {
+			for (int i = level; i < newLevel; i++) {
+				rank[i] = 0;
+				update[i] = head;
+				head.span[i] = size;
+			}
+			level = newLevel;
+		}
+		final Node node = new Node(id, holder, balance, version, newLevel);
+		for (int i = 0; i < newLevel; i++) {
+			node.next[i] = update[i].next[i];
+			update[i].next[i] = node;
+			node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+			update[i].span[i] = rank[0] - rank[i] + 1;
+		}
+		for (int i = newLevel; i < level; i++) {
+			update[i].span[i]++;
+		}
+		nodes.put(id, node);
+		size++;
+	}
+
+	private void unlink(Node node) {
+		Node x = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (x.next[i] != null && before(x.next[i], node.balance, node.id)) {
+				x = x.next[i];
+			}
+			if (x.next[i] == node) {
+				x.span[i] += node.span[i] - 1;
+				x.next[i] = node.next[i];
+			} else {
+				x.span[i]--;
+			}
+		}
+		while (level > 1 && head.next[level - 1] == null) {
+			level--;
+		}
+		nodes.remove(node.id);
+		size--;
+	}
+
+	// node at 1-based 'rank', or null
+	private Node byRank(int rank) {
+		Node x = head;
+		int traversed = 0;
+		for (int i = level - 1; i >= 0; i--) {
+			while (x.next[i] != null && traversed + x.span[i] <= rank) {
+				traversed += x.span[i];
+				x = x.next[i];
+			}
+			if (traversed == rank) {
+				return x;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the rank of an entry.
+	 * @param id holder id for wallets, account id for accounts
+	 * @return 1 for the richest, 0 if not ranked
+	 */
+	public int getRank(String id) {
+		lock.readLock().lock();
+		try {
+			final Node node = nodes.get(id);
+			if (node == null) return 0;
+			Node x = head;
+			int rank = 0;
+			for (int i = level - 1; i >= 0; i--) {
+				while (x.next[i] != null && (x.next[i] == node || before(x.next[i], node.balance, node.id))) {
+					rank += x.span[i];
+					x = x.next[i];
+				}
+				if (x == node) {
+					return rank;
+				}
+			}
+			return 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get an entry with its rank.
+	 * @param id holder id for wallets, account id for accounts
+	 * @return the entry or null if not ranked
+	 */
+	public @Nullable Entry get(String id) {
+		lock.readLock().lock();
+		try {
+			final int rank = getRank(id);
+			return rank == 0 ? null : new Entry(rank, nodes.get(id));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the richest entries.
+	 * @param count maximum entries
+	 * @return entries from rank 1
+	 */
+	public List<Entry> top(int count) {
+		return range(1, count);
+	}
+
+	/**
+	 * Get the entries ranked 'from' to 'to', both inclusive, e.g. one
+	 * page of a baltop.
+	 * @param from first rank, 1 for the richest
+	 * @param to   last rank
+	 * @return entries in rank order, fewer if the ranking is shorter
+	 */
+	public List<Entry> range(int from, int to) {
+		lock.readLock().lock();
+		try {
+			final int first = Math.max(1, from);
+			final int last = Math.min(to, size);
+			if (first > last) return Collections.emptyList();
+			final List<Entry> list = new ArrayList<>(last - first + 1);
+			Node x = byRank(first);
+			for (int rank = first; rank <= last && x != null; rank++) {
+				list.add(new Entry(rank, x));
+				x = x.next[0];
+			}
+			return list;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Count the entries with a balance of at least 'amount', i.e. the
+	 * rank an entry with exactly that balance would have at worst.
+	 * @param amount the balance
+	 * @return number of entries
+	 */
+	public int countAtLeast(BigDecimal amount) {
+		lock.readLock().lock();
+		try {
+			Node x = head;
+			int count = 0;
+			for (int i = level - 1; i >= 0; i--) {
+				while (x.next[i] != null && x.next[i].balance.compareTo(amount) >= 0) {
+					count += x.span[i];
+					x = x.next[i];
+				}
+			}
+			return count;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.leaderboard;
+
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@link BalanceRanking}s of one provider: one for wallets and one
+ * per {@link AccountType}, each for the general context and for every
+ * world with its own balances.
+ * <p>Kept current by {@link RankedAdvancedEconomy}. Wallets and accounts
+ * appear once they are written to or once the initial load reaches
+ * them. Removals are remembered for a while, so that neither a late read
+ * nor the load puts a deleted balance back.</p>
+ */
+public final class Leaderboard {
+
+	private static final String WALLETS = "wallet";
+	private static final String WALLET = "w:";
+	private static final String ACCOUNT = "a:";
+
+	private final String name;
+	private final Map<String, BalanceRanking> rankings = new ConcurrentHashMap<>();
+	private final AtomicLong updates = new AtomicLong();
+	private final AtomicLong versions = new AtomicLong();
+	// recent removals by "w:" + holder id or "a:" + account id
+	private final Map<String, Tombstone> removed = new ConcurrentHashMap<>();
+	private final AtomicInteger loads = new AtomicInteger();
+	private volatile long pruneBefore;
+	private volatile boolean loaded;
+
+	Leaderboard(String name) {
+		this.name = name;
+	}
+
+	private static final class Tombstone {
+		final long version;
+		// null for every context
+		final String world;
+
+		Tombstone(long version, @Nullable String world) {
+			this.version = version;
+			this.world = world;
+		}
+
+		boolean covers(@Nullable String world, long version) {
+			return this.version >= version && (this.world == null || this.world.equals(world));
+		}
+	}
+
+	private static String key(@Nullable AccountType type, @Nullable String world) {
+		return (type == null ? WALLETS : type.name()) + '/' + (world == null ? "" : world);
+	}
+
+	/**
+	 * Get the name of the provider's plugin.
+	 * @return plugin name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get a ranking, creating it empty if nothing was recorded for it yet.
+	 * @param type  account type, or null for wallets
+	 * @param world world name, or null for the general context
+	 * @return the ranking
+	 */
+	public BalanceRanking getRanking(@Nullable AccountType type, @Nullable String world) {
+		return rankings.computeIfAbsent(key(type, world), k -> new BalanceRanking());
+	}
+
+	/**
+	 * Get the ranking of the general context of wallets.
+	 * @return the ranking
+	 */
+	public BalanceRanking getWallets() {
+		return getRanking(null, null);
+	}
+
+	/**
+	 * Get the version to record a balance with; take it before reading the
+	 * balance, so that a later read wins over an earlier one.
+	 * @return a new version
+	 */
+	long nextVersion() {
+		return versions.incrementAndGet();
+	}
+
+	/**
+	 * Record the current balance of a Wallet or Account.
+	 * @param balance the wallet or account
+	 * @param world   world name, or null for the general context
+	 * @param value   its balance, or null if it no longer exists
+	 * @param version from {@link #nextVersion()}, taken before the read
+	 */
+	void update(Balance balance, @Nullable String world, @Nullable BigDecimal value, long version) {
+		final EconomyEntity holder = balance.getHolder();
+		if (balance instanceof Account) {
+			final Account account = (Account) balance;
+			if (account.getId() == null) return;
+			apply(ACCOUNT + account.getId(), world, getRanking(account.getType(), world), account.getId(), holder, value, version);
+		} else {
+			apply(WALLET + holder.id(), world, getRanking(null, world), holder.id(), holder, value, version);
+		}
+		recorded();
+	}
+
+	/**
+	 * Record a balance written with
+	 * {@link com.github.sanctum.economy.construct.implement.AdvancedEconomy#importBatch(java.util.List)}.
+	 * @param snapshot the balance written
+	 */
+	void update(BalanceSnapshot snapshot) {
+		update(snapshot, nextVersion());
+	}
+
+	/**
+	 * Record a balance known as of a version.
+	 * @param snapshot the balance
+	 * @param version  from {@link #nextVersion()}, taken before the balance was known
+	 */
+	void update(BalanceSnapshot snapshot, long version) {
+		apply(snapshot, version);
+		recorded();
+	}
+
+	private boolean apply(BalanceSnapshot snapshot, long version) {
+		final EconomyEntity holder = snapshot.getHolder();
+		if (snapshot.isWallet()) {
+			return apply(WALLET + holder.id(), snapshot.getWorld(), getRanking(null, snapshot.getWorld()), holder.id(), holder, snapshot.getBalance(), version);
+		}
+		return apply(ACCOUNT + snapshot.getAccountId(), snapshot.getWorld(), getRanking(snapshot.getAccountType(), snapshot.getWorld()),
+				snapshot.getAccountId(), holder, snapshot.getBalance(), version);
+	}
+
+	// runs under the key's lock in 'removed', so it can't interleave with a removal of the same balance
+	private boolean apply(String key, @Nullable String world, BalanceRanking ranking, String id, EconomyEntity holder,
+	                      @Nullable BigDecimal value, long version) {
+		final boolean[] added = new boolean[1];
+		removed.compute(key, (k, tombstone) -> {
+			if (tombstone == null || !tombstone.covers(world, version)) {
+				added[0] = ranking.update(id, holder, value, version);
+			}
+			return tombstone;
+		});
+		return added[0];
+	}
+
+	private void recorded() {
+		// forget removals every so often, once no read from before them can still be in flight
+		if ((updates.incrementAndGet() & 1023) == 0 && loads.get() == 0) {
+			final long before = pruneBefore;
+			pruneBefore = versions.get();
+			removed.values().removeIf(tombstone -> tombstone.version < before);
+		}
+	}
+
+	/**
+	 * Remove a wallet from the wallet rankings.
+	 * @param holder the wallet's holder
+	 * @param world  world name, or null for every context
+	 */
+	public void removeWallet(EconomyEntity holder, @Nullable String world) {
+		final long version = nextVersion();
+		removed.compute(WALLET + holder.id(), (k, tombstone) -> {
+			for (Map.Entry<String, BalanceRanking> e : rankings.entrySet()) {
+				if (e.getKey().equals(key(null, world)) || world == null && e.getKey().startsWith(WALLETS + '/')) {
+					e.getValue().remove(holder.id(), version);
+				}
+			}
+			// removals in two different contexts are remembered as one for every context
+			return new Tombstone(version, tombstone == null || Objects.equals(tombstone.world, world) ? world : null);
+		});
+	}
+
+	/**
+	 * Remove an account from every account ranking.
+	 * @param accountId id of the account
+	 */
+	public void removeAccount(String accountId) {
+		removeAccount(accountId, null);
+	}
+
+	/**
+	 * Remove an account from the account rankings of one context.
+	 * @param accountId id of the account
+	 * @param world     world name, or null for every context
+	 */
+	public void removeAccount(String accountId, @Nullable String world) {
+		final long version = nextVersion();
+		final String context = world == null ? "" : world;
+		removed.compute(ACCOUNT + accountId, (k, tombstone) -> {
+			for (Map.Entry<String, BalanceRanking> e : rankings.entrySet()) {
+				final String key = e.getKey();
+				if (!key.startsWith(WALLETS + '/') && (world == null || key.substring(key.indexOf('/') + 1).equals(context))) {
+					e.getValue().remove(accountId, version);
+				}
+			}
+			return new Tombstone(version, tombstone == null || Objects.equals(tombstone.world, world) ? world : null);
+		});
+	}
+
+	/**
+	 * Add every balance of a full export. Balances recorded by writes
+	 * made while it runs, and balances removed meanwhile, are kept as
+	 * they are.
+	 * @param export e.g. {@link com.github.sanctum.economy.construct.implement.AdvancedEconomy#exportBalances()},
+	 *               called once the load has started
+	 * @return number of balances added
+	 */
+	public long load(Supplier<Stream<BalanceSnapshot>> export) {
+		loads.incrementAndGet();
+		try {
+			// older than anything recorded after the export started reading
+			final long version = nextVersion();
+			final long[] added = new long[1];
+			try (Stream<BalanceSnapshot> snapshots = export.get()) {
+				snapshots.forEach(snapshot -> {
+					if (apply(snapshot, version)) added[0]++;
+				});
+			}
+			loaded = true;
+			return added[0];
+		} finally {
+			loads.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Check whether the initial load has completed; before that, rankings
+	 * only hold balances written since the provider was wrapped.
+	 * @return true once loaded
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Get the number of writes recorded since startup.
+	 * @return writes recorded
+	 */
+	public long getUpdates() {
+		return updates.get();
+	}
+
+	public void clear() {
+		rankings.values().forEach(BalanceRanking::clear);
+		removed.clear();
+		loaded = false;
+	}
+}
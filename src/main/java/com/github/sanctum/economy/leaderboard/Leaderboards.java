@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.leaderboard;
+
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import com.github.sanctum.economy.construct.implement.ForwardingAdvancedEconomy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicesManager;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Entry point to the balance leaderboards shown by /enterprise top.
+ * <p>{@link #rank(ServicesManager, Logger)} replaces every AdvancedEconomy
+ * registration with a {@link RankedAdvancedEconomy} owned by the same
+ * plugin at the same priority, and loads each provider's balances once in
+ * the background with {@link AdvancedEconomy#exportBalances()}.</p>
+ */
+public final class Leaderboards {
+
+	private static final Map<String, Leaderboard> LEADERBOARDS = new ConcurrentHashMap<>();
+
+	private Leaderboards() {
+	}
+
+	/**
+	 * Wrap every AdvancedEconomy registration which is not yet ranked.
+	 * Must be called on the main thread, before
+	 * {@link com.github.sanctum.economy.metrics.EconomyMetrics#instrument(ServicesManager)}
+	 * so provider calls are measured once.
+	 * @param servicesManager the server's services manager
+	 * @param logger          receives failures of the initial load
+	 * @return number of registrations wrapped
+	 */
+	public static int rank(ServicesManager servicesManager, Logger logger) {
+		int wrapped = 0;
+		for (RegisteredServiceProvider<AdvancedEconomy> registration : new ArrayList<>(servicesManager.getRegistrations(AdvancedEconomy.class))) {
+			final AdvancedEconomy provider = registration.getProvider();
+			if (isRanked(provider)) {
+				continue;
+			}
+			final RankedAdvancedEconomy ranked = wrap(provider);
+			servicesManager.unregister(AdvancedEconomy.class, provider);
+			servicesManager.register(AdvancedEconomy.class, ranked, registration.getPlugin(), registration.getPriority());
+			load(ranked, logger);
+			wrapped++;
+		}
+		return wrapped;
+	}
+
+	private static boolean isRanked(AdvancedEconomy economy) {
+		while (economy instanceof ForwardingAdvancedEconomy) {
+			if (economy instanceof RankedAdvancedEconomy) {
+				return true;
+			}
+			economy = ((ForwardingAdvancedEconomy) economy).getDelegate();
+		}
+		return false;
+	}
+
+	/**
+	 * Wrap a provider without registering or loading it.
+	 * @param provider the economy to rank
+	 * @return the ranked economy, sharing its leaderboard with any other
+	 * wrapper of a provider from the same plugin
+	 */
+	public static RankedAdvancedEconomy wrap(AdvancedEconomy provider) {
+		if (provider instanceof RankedAdvancedEconomy) {
+			return (RankedAdvancedEconomy) provider;
+		}
+		final String name = provider.getPlugin().getName();
+		return new RankedAdvancedEconomy(provider, LEADERBOARDS.computeIfAbsent(name, Leaderboard::new));
+	}
+
+	/**
+	 * Load the current balances of a provider into its leaderboard on the
+	 * provider's {@link AdvancedEconomy#getAsyncExecutor()}.
+	 * @param ranked the ranked economy
+	 * @param logger receives failures
+	 * @return completes with the number of balances added
+	 */
+	public static CompletableFuture<Long> load(RankedAdvancedEconomy ranked, Logger logger) {
+		final Leaderboard leaderboard = ranked.getLeaderboard();
+		return CompletableFuture.supplyAsync(() -> leaderboard.load(ranked.getDelegate()::exportBalances), ranked.getAsyncExecutor())
+				.whenComplete((added, error) -> {
+					if (error != null) {
+						logger.log(Level.WARNING, "Unable to load the leaderboard of " + leaderboard.getName(), error);
+					}
+				});
+	}
+
+	/**
+	 * Get the leaderboard of a provider.
+	 * @param pluginName name of the provider's plugin, case-insensitive
+	 * @return leaderboard or null if the provider has not been ranked
+	 */
+	@Nullable
+	public static Leaderboard get(String pluginName) {
+		final Leaderboard leaderboard = LEADERBOARDS.get(pluginName);
+		if (leaderboard != null) {
+			return leaderboard;
+		}
+		for (Leaderboard candidate : LEADERBOARDS.values()) {
+			if (candidate.getName().equalsIgnoreCase(pluginName)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the leaderboard of every ranked provider.
+	 * @return leaderboards by provider
+	 */
+	public static Collection<Leaderboard> getAll() {
+		return Collections.unmodifiableCollection(LEADERBOARDS.values());
+	}
+}
@@ -0,0 +1,503 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.leaderboard;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.AccountPage;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.account.helpers.ForwardingAccount;
+import com.github.sanctum.economy.construct.account.helpers.ForwardingWallet;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import com.github.sanctum.economy.construct.implement.ForwardingAdvancedEconomy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps a {@link Leaderboard} current with every successful write made
+ * through an AdvancedEconomy and the Wallets and Accounts it returns.
+ * <p>After a write the new balance is read back from the provider, so a
+ * write costs one extra balance lookup. Writes made to the provider
+ * directly, bypassing this wrapper, are not seen.</p>
+ */
+public final class RankedAdvancedEconomy extends ForwardingAdvancedEconomy {
+
+	private final Leaderboard leaderboard;
+
+	RankedAdvancedEconomy(AdvancedEconomy delegate, Leaderboard leaderboard) {
+		super(delegate);
+		this.leaderboard = leaderboard;
+	}
+
+	public Leaderboard getLeaderboard() {
+		return leaderboard;
+	}
+
+	private Wallet wrap(Wallet wallet) {
+		return wallet == null ? null : new RankedWallet(wallet);
+	}
+
+	private Account wrap(Account account) {
+		return account == null ? null : new RankedAccount(account);
+	}
+
+	private Balance wrap(Balance balance) {
+		if (balance instanceof Account) return wrap((Account) balance);
+		if (balance instanceof Wallet) return wrap((Wallet) balance);
+		return balance;
+	}
+
+	private List<Account> wrap(List<Account> accounts) {
+		return accounts.stream().map(this::wrap).collect(Collectors.toList());
+	}
+
+	private AccountPage wrap(AccountPage page) {
+		return new AccountPage(wrap(page.getAccounts()), page.getNextCursor());
+	}
+
+	/**
+	 * Read back and record a balance after a successful write.
+	 */
+	private EconomyAction recorded(Balance balance, @Nullable String world, EconomyAction result) {
+		if (result != null && result.isSuccess()) {
+			record(balance, world);
+		}
+		return result;
+	}
+
+	private EconomyAction recorded(Balance from, Balance to, @Nullable String world, EconomyAction result) {
+		if (result != null && result.isSuccess()) {
+			record(from, world);
+			record(to, world);
+		}
+		return result;
+	}
+
+	private void record(Balance balance, @Nullable String world) {
+		// without per-world balances every world shares the general one
+		final String context = world != null && delegate.isMultiWorld() ? world : null;
+		final long version = leaderboard.nextVersion();
+		final BigDecimal value = context == null ? balance.getBalance() : balance.getBalance(context);
+		leaderboard.update(balance, context, value, version);
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String name) {
+		return wrap(delegate.getAccount(name));
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String name, AccountType type) {
+		return wrap(delegate.getAccount(name, type));
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String accountId, String name) {
+		return wrap(delegate.getAccount(accountId, name));
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player, AccountType type) {
+		return wrap(delegate.getAccount(player, type));
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player) {
+		return wrap(delegate.getAccount(player));
+	}
+
+	@Override
+	public Account getAccount(String accountId, OfflinePlayer player) {
+		return wrap(delegate.getAccount(accountId, player));
+	}
+
+	@Override
+	public Account getAccount(UUID uuid) {
+		return wrap(delegate.getAccount(uuid));
+	}
+
+	@Override
+	public Account getAccount(UUID uuid, AccountType type) {
+		return wrap(delegate.getAccount(uuid, type));
+	}
+
+	@Override
+	public Account getAccount(String accountId, UUID uuid) {
+		return wrap(delegate.getAccount(accountId, uuid));
+	}
+
+	@Override
+	@Deprecated
+	public Wallet getWallet(String name) {
+		return wrap(delegate.getWallet(name));
+	}
+
+	@Override
+	public Wallet getWallet(OfflinePlayer player) {
+		return wrap(delegate.getWallet(player));
+	}
+
+	@Override
+	public Wallet getWallet(UUID uuid) {
+		return wrap(delegate.getWallet(uuid));
+	}
+
+	@Override
+	public Wallet getWallet(EconomyEntity entity) {
+		return wrap(delegate.getWallet(entity));
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(UUID uuid) {
+		return delegate.getWalletAsync(uuid).thenApply(this::wrap);
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(OfflinePlayer player) {
+		return delegate.getWalletAsync(player).thenApply(this::wrap);
+	}
+
+	@Override
+	public @Nullable Wallet getSessionWallet(UUID uuid, String name) {
+		return wrap(delegate.getSessionWallet(uuid, name));
+	}
+
+	@Override
+	public List<Account> getAccounts() {
+		return wrap(delegate.getAccounts());
+	}
+
+	@Override
+	public List<Account> getAccountsOf(EconomyEntity entity) {
+		return wrap(delegate.getAccountsOf(entity));
+	}
+
+	@Override
+	public Stream<Account> streamAccounts() {
+		return delegate.streamAccounts().map(this::wrap);
+	}
+
+	@Override
+	public Stream<Account> streamAccounts(@Nullable AccountType type, @Nullable String world) {
+		return delegate.streamAccounts(type, world).map(this::wrap);
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize) {
+		return wrap(delegate.getAccountPage(cursor, pageSize));
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize, @Nullable AccountType type, @Nullable String world) {
+		return wrap(delegate.getAccountPage(cursor, pageSize, type, world));
+	}
+
+	@Override
+	public Balance resolveBalance(BalanceSnapshot snapshot) {
+		return wrap(delegate.resolveBalance(snapshot));
+	}
+
+	@Override
+	public EconomyAction transfer(Balance from, Balance to, BigDecimal amount) {
+		return recorded(from, to, null, super.transfer(from, to, amount));
+	}
+
+	@Override
+	public EconomyAction transfer(Balance from, Balance to, BigDecimal amount, String world) {
+		return recorded(from, to, world, super.transfer(from, to, amount, world));
+	}
+
+	@Override
+	public Map<EconomyEntity, EconomyAction> depositAll(Map<EconomyEntity, BigDecimal> amounts) {
+		return recordedAll(super.depositAll(amounts));
+	}
+
+	@Override
+	public Map<EconomyEntity, EconomyAction> withdrawAll(Map<EconomyEntity, BigDecimal> amounts) {
+		return recordedAll(super.withdrawAll(amounts));
+	}
+
+	private Map<EconomyEntity, EconomyAction> recordedAll(Map<EconomyEntity, EconomyAction> results) {
+		for (Map.Entry<EconomyEntity, EconomyAction> e : results.entrySet()) {
+			if (e.getValue().isSuccess()) {
+				record(delegate.getWallet(e.getKey()), null);
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public List<EconomyAction> importBatch(List<BalanceSnapshot> batch) {
+		final List<EconomyAction> results = super.importBatch(batch);
+		for (int i = 0; i < results.size() && i < batch.size(); i++) {
+			if (results.get(i).isSuccess()) {
+				leaderboard.update(batch.get(i));
+			}
+		}
+		return results;
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet) {
+		final EconomyAction result = super.deleteWalletAccount(wallet);
+		if (result.isSuccess()) leaderboard.removeWallet(wallet.getHolder(), null);
+		return result;
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet, String world) {
+		final EconomyAction result = super.deleteWalletAccount(wallet, world);
+		if (result.isSuccess()) leaderboard.removeWallet(wallet.getHolder(), delegate.isMultiWorld() ? world : null);
+		return result;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID) {
+		final EconomyAction result = super.deleteAccount(accountID);
+		if (result.isSuccess()) leaderboard.removeAccount(accountID);
+		return result;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID, String world) {
+		final EconomyAction result = super.deleteAccount(accountID, world);
+		if (result.isSuccess()) leaderboard.removeAccount(accountID, delegate.isMultiWorld() ? world : null);
+		return result;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account) {
+		final EconomyAction result = super.deleteAccount(account);
+		if (result.isSuccess() && account.getId() != null) leaderboard.removeAccount(account.getId());
+		return result;
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account, String world) {
+		final EconomyAction result = super.deleteAccount(account, world);
+		if (result.isSuccess() && account.getId() != null) leaderboard.removeAccount(account.getId(), delegate.isMultiWorld() ? world : null);
+		return result;
+	}
+
+	@Override
+	protected Wallet unwrap(Wallet wallet) {
+		return wallet instanceof RankedWallet && ((RankedWallet) wallet).owner() == this ? ((RankedWallet) wallet).getDelegate() : wallet;
+	}
+
+	@Override
+	protected Account unwrap(Account account) {
+		return account instanceof RankedAccount && ((RankedAccount) account).owner() == this ? ((RankedAccount) account).getDelegate() : account;
+	}
+
+	private final class RankedWallet extends ForwardingWallet {
+		RankedWallet(Wallet delegate) {
+			super(delegate);
+		}
+
+		RankedAdvancedEconomy owner() {
+			return RankedAdvancedEconomy.this;
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return recorded(delegate, null, delegate.setBalance(amount));
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return recorded(delegate, world, delegate.setBalance(amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return recorded(delegate, null, delegate.deposit(amount));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return recorded(delegate, world, delegate.deposit(amount, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			return recorded(delegate, null, delegate.withdraw(amount));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return recorded(delegate, world, delegate.withdraw(amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return recorded(delegate, null, delegate.deposit(minorUnits));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return recorded(delegate, world, delegate.deposit(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return recorded(delegate, null, delegate.withdraw(minorUnits));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return recorded(delegate, world, delegate.withdraw(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			return recorded(delegate, to, null, delegate.transfer(to, amount));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return recorded(delegate, to, world, delegate.transfer(to, amount, world));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return delegate.depositAsync(amount).thenApply(result -> recorded(delegate, null, result));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return delegate.depositAsync(amount, world).thenApply(result -> recorded(delegate, world, result));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return delegate.withdrawAsync(amount).thenApply(result -> recorded(delegate, null, result));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return delegate.withdrawAsync(amount, world).thenApply(result -> recorded(delegate, world, result));
+		}
+	}
+
+	private final class RankedAccount extends ForwardingAccount {
+		RankedAccount(Account delegate) {
+			super(delegate);
+		}
+
+		RankedAdvancedEconomy owner() {
+			return RankedAdvancedEconomy.this;
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return recorded(delegate, null, delegate.setBalance(amount));
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return recorded(delegate, world, delegate.setBalance(amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return recorded(delegate, null, delegate.deposit(amount));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return recorded(delegate, world, delegate.deposit(amount, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			return recorded(delegate, null, delegate.withdraw(amount));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return recorded(delegate, world, delegate.withdraw(amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return recorded(delegate, null, delegate.deposit(minorUnits));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return recorded(delegate, world, delegate.deposit(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return recorded(delegate, null, delegate.withdraw(minorUnits));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return recorded(delegate, world, delegate.withdraw(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			return recorded(delegate, to, null, delegate.transfer(to, amount));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return recorded(delegate, to, world, delegate.transfer(to, amount, world));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return delegate.depositAsync(amount).thenApply(result -> recorded(delegate, null, result));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return delegate.depositAsync(amount, world).thenApply(result -> recorded(delegate, world, result));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return delegate.withdrawAsync(amount).thenApply(result -> recorded(delegate, null, result));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return delegate.withdrawAsync(amount, world).thenApply(result -> recorded(delegate, world, result));
+		}
+	}
+}
@@ -0,0 +1,1177 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.memory;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.EconomyPriority;
+import com.github.sanctum.economy.construct.Money;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.AccountPage;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.AccountRegistry;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.currency.normal.EconomyCurrency;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.entity.EntityInterner;
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reference AdvancedEconomy keeping every balance in memory.
+ * <p>Balances are longs in minor units of the currency (cents for a scale
+ * of 2) held in {@link MinorUnitStore} and changed with compare-and-set,
+ * so deposits and withdrawals never lock. Wallets are found through a
+ * {@link UuidIndex}; accounts through an {@link AccountRegistry}. Wallet
+ * objects are thin views and may be created freely; each Account exists
+ * once and is returned by every lookup. Nothing blocks, so the
+ * {@code *Async} methods complete immediately.</p>
+ * <p>Balances are shared by all worlds; world parameters are accepted
+ * and ignored. Amounts with more decimal places than the scale are
+ * refused. Nothing is persisted.</p>
+ */
+public class MemoryEconomy implements AdvancedEconomy {
+
+	private final Plugin plugin;
+	private final EconomyCurrency currency;
+	private final int scale;
+	private final UuidIndex wallets;
+	private final MinorUnitStore store = new MinorUnitStore();
+	// holders of wallets created through the String methods
+	private final Map<UUID, String> walletNames = new ConcurrentHashMap<>();
+	private final AccountRegistry<MemoryAccount> accounts = new AccountRegistry<>();
+	private final AtomicLong accountIds = new AtomicLong();
+
+	/**
+	 * @param plugin       the plugin providing this economy
+	 * @param currency     the currency of every balance
+	 * @param scale        number of decimal places kept
+	 * @param expectedSize number of wallets to size the index for
+	 */
+	public MemoryEconomy(Plugin plugin, EconomyCurrency currency, int scale, int expectedSize) {
+		if (scale < 0 || scale > 18) throw new IllegalArgumentException("scale must be between 0 and 18");
+		this.plugin = plugin;
+		this.currency = currency;
+		this.scale = scale;
+		this.wallets = new UuidIndex(expectedSize);
+	}
+
+	/**
+	 * Create an economy keeping as many decimal places as the currency.
+	 * @param plugin       the plugin providing this economy
+	 * @param currency     the currency of every balance
+	 * @param expectedSize number of wallets to size the index for
+	 */
+	public MemoryEconomy(Plugin plugin, EconomyCurrency currency, int expectedSize) {
+		this(plugin, currency, currency.getScale(), expectedSize);
+	}
+
+	/**
+	 * Holder of balances created through the deprecated String methods.
+	 */
+	private static final class NamedEntity implements EconomyEntity {
+		private final String name;
+
+		NamedEntity(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public @NotNull String friendlyName() {
+			return name;
+		}
+
+		@Override
+		public @NotNull String id() {
+			return "p_name=" + name;
+		}
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	/**
+	 * Get the number of wallets.
+	 * @return wallet count
+	 */
+	public int getWalletCount() {
+		return wallets.size();
+	}
+
+	// ===== AMOUNTS =====
+
+	private long toMinor(BigDecimal amount) {
+		return amount.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+	}
+
+	private BigDecimal fromMinor(long minor) {
+		return BigDecimal.valueOf(minor, scale);
+	}
+
+	private static EconomyAction failure(BigDecimal amount, EconomyEntity holder, String info) {
+		return new EconomyAction(amount, holder, false, info);
+	}
+
+	@Nullable
+	private EconomyAction invalid(BigDecimal amount, EconomyEntity holder) {
+		if (amount == null || amount.signum() < 0) {
+			return failure(amount, holder, "Amount must not be negative");
+		}
+		if (amount.scale() > scale && amount.stripTrailingZeros().scale() > scale) {
+			return failure(amount, holder, "Amount has more than " + scale + " decimal places");
+		}
+		try {
+			toMinor(amount);
+		} catch (ArithmeticException e) {
+			return failure(amount, holder, "Amount is too large");
+		}
+		return null;
+	}
+
+	private EconomyAction deposit(int slot, EconomyEntity holder, BigDecimal amount) {
+		final EconomyAction invalid = invalid(amount, holder);
+		if (invalid != null) return invalid;
+		if (!store.add(slot, toMinor(amount))) return failure(amount, holder, "Balance limit reached");
+		return new EconomyAction(amount, holder, true, "Deposited");
+	}
+
+	private EconomyAction withdraw(int slot, EconomyEntity holder, BigDecimal amount) {
+		final EconomyAction invalid = invalid(amount, holder);
+		if (invalid != null) return invalid;
+		if (!store.subtract(slot, toMinor(amount))) return failure(amount, holder, "Insufficient funds");
+		return new EconomyAction(amount, holder, true, "Withdrew");
+	}
+
+	private EconomyAction setBalance(int slot, EconomyEntity holder, BigDecimal amount) {
+		final EconomyAction invalid = invalid(amount, holder);
+		if (invalid != null) return invalid;
+		store.set(slot, toMinor(amount));
+		return new EconomyAction(amount, holder, true, "Balance set");
+	}
+
+	private boolean has(int slot, BigDecimal amount) {
+		if (slot < 0 || amount == null) return false;
+		if (amount.signum() <= 0) return true;
+		final long minor;
+		try {
+			minor = amount.setScale(scale, RoundingMode.CEILING).unscaledValue().longValueExact();
+		} catch (ArithmeticException e) {
+			return false;
+		}
+		return store.get(slot) >= minor;
+	}
+
+	private EconomyAction depositMinor(int slot, EconomyEntity holder, long minorUnits) {
+		if (minorUnits < 0) return new EconomyAction(minorUnits, scale, holder, false, "Amount must not be negative");
+		if (!store.add(slot, minorUnits)) return new EconomyAction(minorUnits, scale, holder, false, "Balance limit reached");
+		return new EconomyAction(minorUnits, scale, holder, true, "Deposited");
+	}
+
+	private EconomyAction withdrawMinor(int slot, EconomyEntity holder, long minorUnits) {
+		if (minorUnits < 0) return new EconomyAction(minorUnits, scale, holder, false, "Amount must not be negative");
+		if (slot < 0 || !store.subtract(slot, minorUnits)) return new EconomyAction(minorUnits, scale, holder, false, "Insufficient funds");
+		return new EconomyAction(minorUnits, scale, holder, true, "Withdrew");
+	}
+
+	private long balanceMinor(int slot) {
+		return slot < 0 ? Money.ABSENT : store.get(slot);
+	}
+
+	// both slots belong to this economy, so no locks are needed: the
+	// withdrawal and the deposit are each atomic and a failed deposit is
+	// refunded
+	private EconomyAction transfer(int from, EconomyEntity holder, int to, EconomyEntity recipient, BigDecimal amount) {
+		final EconomyAction invalid = invalid(amount, holder);
+		if (invalid != null) return invalid;
+		if (amount.signum() == 0) return failure(amount, holder, "Transfer amount must be positive");
+		if (from == to) return failure(amount, holder, "Cannot transfer to the same balance");
+		final long minor = toMinor(amount);
+		if (!store.subtract(from, minor)) return failure(amount, holder, "Insufficient funds");
+		if (!store.add(to, minor)) {
+			store.add(from, minor);
+			return failure(amount, holder, "Balance limit reached");
+		}
+		return new EconomyAction(amount, holder, true, "Transferred " + format(amount) + " to " + recipient.id());
+	}
+
+	// ===== ENTITIES =====
+
+	private EconomyEntity player(UUID uuid) {
+		return EntityInterner.global().player(uuid);
+	}
+
+	private static EconomyEntity player(OfflinePlayer player) {
+		return EntityInterner.global().player(player);
+	}
+
+	private static UUID nameKey(String name) {
+		return UUID.nameUUIDFromBytes(("p_name=" + name).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private int walletSlot(UUID uuid) {
+		return wallets.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	private int createWallet(UUID uuid, long initial) {
+		final int slot = store.allocate(initial);
+		final int existing = wallets.putIfAbsent(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), slot);
+		// a lost race leaves one unused slot behind
+		return existing >= 0 ? existing : slot;
+	}
+
+	// ===== AdvancedEconomy =====
+
+	@Override
+	public Plugin getPlugin() {
+		return plugin;
+	}
+
+	@Override
+	public String getVersion() {
+		return plugin.getDescription().getVersion();
+	}
+
+	@Override
+	public EconomyCurrency getCurrency() {
+		return currency;
+	}
+
+	@Override
+	public EconomyCurrency getCurrency(String world) {
+		return currency;
+	}
+
+	@Override
+	public EconomyPriority getPriority() {
+		return EconomyPriority.LOW;
+	}
+
+	@Override
+	public String format(BigDecimal amount) {
+		return format(amount, currency.getLocale() != null ? currency.getLocale() : Locale.getDefault());
+	}
+
+	@Override
+	public String format(BigDecimal amount, Locale locale) {
+		final NumberFormat format = NumberFormat.getNumberInstance(locale);
+		format.setMinimumFractionDigits(scale);
+		format.setMaximumFractionDigits(scale);
+		final String name = amount.compareTo(BigDecimal.ONE) == 0 ? currency.majorSingular() : currency.majorPlural();
+		return name == null ? format.format(amount) : format.format(amount) + " " + name;
+	}
+
+	@Override
+	public BigDecimal getMaxWalletSize() {
+		return fromMinor(Long.MAX_VALUE);
+	}
+
+	@Override
+	public boolean isMultiWorld() {
+		return false;
+	}
+
+	@Override
+	public boolean isMultiCurrency() {
+		return false;
+	}
+
+	@Override
+	public boolean hasMultiAccountSupport() {
+		return true;
+	}
+
+	@Override
+	public boolean hasWalletSizeLimit() {
+		return false;
+	}
+
+	@Override
+	public boolean hasWalletAccount(UUID uuid) {
+		return walletSlot(uuid) >= 0;
+	}
+
+	@Override
+	public boolean hasWalletAccount(UUID uuid, String world) {
+		return hasWalletAccount(uuid);
+	}
+
+	@Override
+	public boolean hasWalletAccount(OfflinePlayer player) {
+		return hasWalletAccount(player.getUniqueId());
+	}
+
+	@Override
+	public boolean hasWalletAccount(OfflinePlayer player, String world) {
+		return hasWalletAccount(player.getUniqueId());
+	}
+
+	@Override
+	public Account getAccount(String name) {
+		return defaultAccount(new NamedEntity(name), null);
+	}
+
+	@Override
+	public Account getAccount(String name, AccountType type) {
+		return defaultAccount(new NamedEntity(name), type);
+	}
+
+	@Override
+	public Account getAccount(String accountId, String name) {
+		return accountById(accountId, new NamedEntity(name));
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player, AccountType type) {
+		return defaultAccount(player(player), type);
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player) {
+		return defaultAccount(player(player), null);
+	}
+
+	@Override
+	public Account getAccount(String accountId, OfflinePlayer player) {
+		return accountById(accountId, player(player));
+	}
+
+	@Override
+	public Account getAccount(UUID uuid) {
+		return defaultAccount(player(uuid), null);
+	}
+
+	@Override
+	public Account getAccount(UUID uuid, AccountType type) {
+		return defaultAccount(player(uuid), type);
+	}
+
+	@Override
+	public Account getAccount(String accountId, UUID uuid) {
+		return accountById(accountId, player(uuid));
+	}
+
+	private Account defaultAccount(EconomyEntity holder, @Nullable AccountType type) {
+		for (MemoryAccount account : accounts.getAccountsOwnedBy(holder)) {
+			if (type == null || account.getType() == type) {
+				return account;
+			}
+		}
+		return new MemoryAccount(null, type != null ? type : AccountType.BANK_ACCOUNT, holder, -1);
+	}
+
+	private Account accountById(String accountId, EconomyEntity holder) {
+		final MemoryAccount account = accounts.get(accountId);
+		return account != null ? account : new MemoryAccount(null, AccountType.BANK_ACCOUNT, holder, -1);
+	}
+
+	@Override
+	public Wallet getWallet(String name) {
+		return new MemoryWallet(nameKey(name), new NamedEntity(name));
+	}
+
+	@Override
+	public Wallet getWallet(OfflinePlayer player) {
+		return new MemoryWallet(player.getUniqueId(), player(player));
+	}
+
+	@Override
+	public Wallet getWallet(UUID uuid) {
+		return new MemoryWallet(uuid, player(uuid));
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(UUID uuid) {
+		return CompletableFuture.completedFuture(getWallet(uuid));
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(OfflinePlayer player) {
+		return CompletableFuture.completedFuture(getWallet(player));
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, String name) {
+		return createAccount(type, new NamedEntity(name), null, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, String name, String accountId) {
+		return createAccount(type, new NamedEntity(name), accountId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, String name, BigDecimal startingAmount) {
+		return createAccount(type, new NamedEntity(name), null, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, String name, String accountId, String world) {
+		return createAccount(type, new NamedEntity(name), accountId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, String name, String accountId, String world, BigDecimal startingAmount) {
+		return createAccount(type, new NamedEntity(name), accountId, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player) {
+		return createAccount(type, player(player), null, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId) {
+		return createAccount(type, player(player), accountId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, BigDecimal startingAmount) {
+		return createAccount(type, player(player), null, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId, String world) {
+		return createAccount(type, player(player), accountId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, OfflinePlayer player, String accountId, String world, BigDecimal startingAmount) {
+		return createAccount(type, player(player), accountId, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid) {
+		return createAccount(type, player(uuid), null, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId) {
+		return createAccount(type, player(uuid), accountId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, BigDecimal startingAmount) {
+		return createAccount(type, player(uuid), null, startingAmount);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId, String world) {
+		return createAccount(type, player(uuid), accountId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public EconomyAction createAccount(AccountType type, UUID uuid, String accountId, String world, BigDecimal startingAmount) {
+		return createAccount(type, player(uuid), accountId, startingAmount);
+	}
+
+	private EconomyAction createAccount(AccountType type, EconomyEntity holder, @Nullable String accountId, BigDecimal startingAmount) {
+		final EconomyAction invalid = invalid(startingAmount, holder);
+		if (invalid != null) return invalid;
+		final String id = accountId != null ? accountId : "account-" + accountIds.incrementAndGet();
+		if (accounts.contains(id)) {
+			return new EconomyAction(holder, false, "Account " + id + " already exists");
+		}
+		final int slot = store.allocate(toMinor(startingAmount));
+		if (!accounts.register(new MemoryAccount(id, type, holder, slot))) {
+			store.set(slot, 0);
+			return new EconomyAction(holder, false, "Account " + id + " already exists");
+		}
+		return new EconomyAction(startingAmount, holder, true, "Account " + id + " created");
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet) {
+		final EconomyEntity holder = wallet.getHolder();
+		if (!(wallet instanceof MemoryWallet) || ((MemoryWallet) wallet).economy() != this) {
+			return new EconomyAction(holder, false, "Wallet does not belong to this economy");
+		}
+		final UUID key = ((MemoryWallet) wallet).key;
+		final int slot = wallets.remove(key.getMostSignificantBits(), key.getLeastSignificantBits());
+		if (slot < 0) return new EconomyAction(holder, false, "Wallet does not exist");
+		store.set(slot, 0);
+		walletNames.remove(key);
+		return new EconomyAction(holder, true, "Wallet deleted");
+	}
+
+	@Override
+	public EconomyAction deleteWalletAccount(Wallet wallet, String world) {
+		return deleteWalletAccount(wallet);
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID) {
+		final MemoryAccount account = accounts.remove(accountID);
+		if (account == null) return new EconomyAction(null, false, "Account " + accountID + " does not exist");
+		store.set(account.slot, 0);
+		return new EconomyAction(account.getHolder(), true, "Account " + accountID + " deleted");
+	}
+
+	@Override
+	public EconomyAction deleteAccount(String accountID, String world) {
+		return deleteAccount(accountID);
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account) {
+		return deleteAccount(account.getId());
+	}
+
+	@Override
+	public EconomyAction deleteAccount(Account account, String world) {
+		return deleteAccount(account.getId());
+	}
+
+	@Override
+	public List<Account> getAccounts() {
+		return new ArrayList<>(accounts.values());
+	}
+
+	@Override
+	public List<String> getAccountList() {
+		return new ArrayList<>(accounts.ids());
+	}
+
+	@Override
+	public List<Account> getAccountsOf(EconomyEntity entity) {
+		return new ArrayList<>(accounts.getAccountsOf(entity));
+	}
+
+	@Override
+	public Stream<Account> streamAccounts() {
+		return accounts.stream().map(Account.class::cast);
+	}
+
+	@Override
+	public Stream<String> streamAccountList() {
+		return accounts.ids().stream();
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize, @Nullable AccountType type, @Nullable String world) {
+		// balances are shared by all worlds, so only the type can differ
+		return accounts.page(cursor, pageSize, AccountPage.filter(type, null));
+	}
+
+	@Override
+	public List<String> getBalanceWorlds() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Stream<BalanceSnapshot> exportWallets() {
+		return wallets.stream((msb, lsb, slot) -> {
+			final UUID uuid = new UUID(msb, lsb);
+			final String name = walletNames.get(uuid);
+			final EconomyEntity holder = name != null ? new NamedEntity(name) : player(uuid);
+			return BalanceSnapshot.ofWallet(holder, null, fromMinor(store.get(slot)));
+		});
+	}
+
+	@Override
+	public Stream<BalanceSnapshot> exportAccounts() {
+		return accounts.values().stream().map(account ->
+				BalanceSnapshot.ofAccount(account.getHolder(), account.getType(), account.getId(), null, fromMinor(store.get(account.slot))));
+	}
+
+	// ===== BALANCES =====
+
+	private int slotOf(Balance balance) {
+		if (balance instanceof MemoryWallet && ((MemoryWallet) balance).economy() == this) {
+			return ((MemoryWallet) balance).slotOrCreate();
+		}
+		if (balance instanceof MemoryAccount && ((MemoryAccount) balance).economy() == this) {
+			return ((MemoryAccount) balance).slot();
+		}
+		return -1;
+	}
+
+	/**
+	 * A view of one wallet; the wallet is created by its first write.
+	 */
+	private final class MemoryWallet extends Wallet {
+		private final UUID key;
+
+		MemoryWallet(UUID key, EconomyEntity holder) {
+			super(holder);
+			this.key = key;
+		}
+
+		MemoryEconomy economy() {
+			return MemoryEconomy.this;
+		}
+
+		int slot() {
+			return walletSlot(key);
+		}
+
+		int slotOrCreate() {
+			final int slot = slot();
+			if (slot >= 0) return slot;
+			if (holder instanceof NamedEntity) walletNames.put(key, holder.friendlyName());
+			return createWallet(key, 0);
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return MemoryEconomy.this.setBalance(slotOrCreate(), holder, amount);
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return setBalance(amount);
+		}
+
+		@Override
+		public boolean exists() {
+			return slot() >= 0;
+		}
+
+		@Override
+		public boolean exists(String world) {
+			return exists();
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance() {
+			final int slot = slot();
+			return slot < 0 ? null : fromMinor(store.get(slot));
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance(String world) {
+			return getBalance();
+		}
+
+		@Override
+		public boolean has(BigDecimal amount) {
+			return MemoryEconomy.this.has(slot(), amount);
+		}
+
+		@Override
+		public boolean has(BigDecimal amount, String world) {
+			return has(amount);
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return MemoryEconomy.this.deposit(slotOrCreate(), holder, amount);
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return deposit(amount);
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			final int slot = slot();
+			if (slot < 0) return failure(amount, holder, "Insufficient funds");
+			return MemoryEconomy.this.withdraw(slot, holder, amount);
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return withdraw(amount);
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			final int target = slotOf(to);
+			if (target < 0) return super.transfer(to, amount);
+			final int slot = slot();
+			if (slot < 0) return failure(amount, holder, "Insufficient funds");
+			return MemoryEconomy.this.transfer(slot, holder, target, to.getHolder(), amount);
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return transfer(to, amount);
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return depositMinor(slotOrCreate(), holder, minorUnits);
+		}
+
+		@Override
+		public int getScale() {
+			return scale;
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return deposit(minorUnits);
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return withdrawMinor(slot(), holder, minorUnits);
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return withdraw(minorUnits);
+		}
+
+		@Override
+		public boolean has(long minorUnits) {
+			final int slot = slot();
+			return slot >= 0 && store.get(slot) >= minorUnits;
+		}
+
+		@Override
+		public boolean has(long minorUnits, String world) {
+			return has(minorUnits);
+		}
+
+		@Override
+		public long getBalanceMinor() {
+			return balanceMinor(slot());
+		}
+
+		@Override
+		public long getBalanceMinor(String world) {
+			return getBalanceMinor();
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return CompletableFuture.completedFuture(deposit(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return CompletableFuture.completedFuture(deposit(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return CompletableFuture.completedFuture(withdraw(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return CompletableFuture.completedFuture(withdraw(amount));
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync() {
+			return CompletableFuture.completedFuture(getBalance());
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+			return CompletableFuture.completedFuture(getBalance());
+		}
+	}
+
+	/**
+	 * A registered account, or a view of a missing account if 'id' is null.
+	 */
+	private final class MemoryAccount extends Account {
+		private final int slot;
+
+		MemoryAccount(@Nullable String id, AccountType type, EconomyEntity holder, int slot) {
+			super(id, type, holder);
+			this.slot = slot;
+		}
+
+		MemoryEconomy economy() {
+			return MemoryEconomy.this;
+		}
+
+		/**
+		 * Get the slot of this account, or -1 once it has been deleted.
+		 */
+		int slot() {
+			return slot >= 0 && accounts.isRegistered(this) ? slot : -1;
+		}
+
+		private EconomyAction missing(BigDecimal amount) {
+			return failure(amount, holder, "Account does not exist");
+		}
+
+		@Override
+		public Set<String> getMemberIds() {
+			return slot() < 0 ? Collections.emptySet() : super.getMemberIds();
+		}
+
+		@Override
+		public boolean hasMember(String entityId) {
+			return slot() >= 0 && super.hasMember(entityId);
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			final int slot = slot();
+			return slot < 0 ? missing(amount) : MemoryEconomy.this.setBalance(slot, holder, amount);
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return setBalance(amount);
+		}
+
+		@Override
+		public boolean exists() {
+			return slot() >= 0;
+		}
+
+		@Override
+		public boolean exists(String world) {
+			return exists();
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance() {
+			final int slot = slot();
+			return slot < 0 ? null : fromMinor(store.get(slot));
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance(String world) {
+			return getBalance();
+		}
+
+		@Override
+		public boolean has(BigDecimal amount) {
+			return MemoryEconomy.this.has(slot(), amount);
+		}
+
+		@Override
+		public boolean has(BigDecimal amount, String world) {
+			return has(amount);
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			final int slot = slot();
+			return slot < 0 ? missing(amount) : MemoryEconomy.this.deposit(slot, holder, amount);
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return deposit(amount);
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			final int slot = slot();
+			return slot < 0 ? missing(amount) : MemoryEconomy.this.withdraw(slot, holder, amount);
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return withdraw(amount);
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			final int target = slotOf(to);
+			if (target < 0) return super.transfer(to, amount);
+			final int slot = slot();
+			if (slot < 0) return missing(amount);
+			return MemoryEconomy.this.transfer(slot, holder, target, to.getHolder(), amount);
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return transfer(to, amount);
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			final int slot = slot();
+			return slot < 0 ? new EconomyAction(minorUnits, scale, holder, false, "Account does not exist") : depositMinor(slot, holder, minorUnits);
+		}
+
+		@Override
+		public int getScale() {
+			return scale;
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return deposit(minorUnits);
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return withdrawMinor(slot(), holder, minorUnits);
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return withdraw(minorUnits);
+		}
+
+		@Override
+		public boolean has(long minorUnits) {
+			final int slot = slot();
+			return slot >= 0 && store.get(slot) >= minorUnits;
+		}
+
+		@Override
+		public boolean has(long minorUnits, String world) {
+			return has(minorUnits);
+		}
+
+		@Override
+		public long getBalanceMinor() {
+			return balanceMinor(slot());
+		}
+
+		@Override
+		public long getBalanceMinor(String world) {
+			return getBalanceMinor();
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return CompletableFuture.completedFuture(deposit(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return CompletableFuture.completedFuture(deposit(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return CompletableFuture.completedFuture(withdraw(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return CompletableFuture.completedFuture(withdraw(amount));
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync() {
+			return CompletableFuture.completedFuture(getBalance());
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+			return CompletableFuture.completedFuture(getBalance());
+		}
+
+		// ===== MEMBER MANAGEMENT =====
+
+		private EconomyAction ownerCheck(String entityId, @Nullable String name) {
+			final boolean owner = holder.id().equals(entityId) || (name != null && name.equals(holder.friendlyName()));
+			return new EconomyAction(holder, owner, owner ? "Is the owner" : "Is not the owner");
+		}
+
+		private EconomyAction jointOwnerCheck(String entityId) {
+			final boolean joint = hasMember(entityId);
+			return new EconomyAction(holder, joint, joint ? "Is a joint owner" : "Is not a joint owner");
+		}
+
+		private EconomyAction memberCheck(String entityId, @Nullable String name) {
+			if (ownerCheck(entityId, name).isSuccess()) return new EconomyAction(holder, true, "Is the owner");
+			final boolean member = hasMember(entityId);
+			return new EconomyAction(holder, member, member ? "Is a member" : "Is not a member");
+		}
+
+		private EconomyAction memberAdd(String entityId) {
+			if (slot() < 0) return new EconomyAction(holder, false, "Account does not exist");
+			final boolean added = addMemberId(entityId);
+			return new EconomyAction(holder, added, added ? "Member added" : "Already a member");
+		}
+
+		private EconomyAction memberRemove(String entityId) {
+			if (slot() < 0) return new EconomyAction(holder, false, "Account does not exist");
+			final boolean removed = removeMemberId(entityId);
+			return new EconomyAction(holder, removed, removed ? "Member removed" : "Not a member");
+		}
+
+		@Override
+		public EconomyAction isOwner(String name) {
+			return ownerCheck("p_name=" + name, name);
+		}
+
+		@Override
+		public EconomyAction isOwner(String name, String world) {
+			return isOwner(name);
+		}
+
+		@Override
+		public EconomyAction isOwner(OfflinePlayer player) {
+			return ownerCheck("p_uid=" + player.getUniqueId(), null);
+		}
+
+		@Override
+		public EconomyAction isOwner(OfflinePlayer player, String world) {
+			return isOwner(player);
+		}
+
+		@Override
+		public EconomyAction isOwner(UUID uuid) {
+			return ownerCheck("p_uid=" + uuid, null);
+		}
+
+		@Override
+		public EconomyAction isOwner(UUID uuid, String world) {
+			return isOwner(uuid);
+		}
+
+		@Override
+		public EconomyAction isJointOwner(String name) {
+			return jointOwnerCheck("p_name=" + name);
+		}
+
+		@Override
+		public EconomyAction isJointOwner(String name, String world) {
+			return isJointOwner(name);
+		}
+
+		@Override
+		public EconomyAction isJointOwner(OfflinePlayer player) {
+			return jointOwnerCheck("p_uid=" + player.getUniqueId());
+		}
+
+		@Override
+		public EconomyAction isJointOwner(OfflinePlayer player, String world) {
+			return isJointOwner(player);
+		}
+
+		@Override
+		public EconomyAction isJointOwner(UUID uuid) {
+			return jointOwnerCheck("p_uid=" + uuid);
+		}
+
+		@Override
+		public EconomyAction isJointOwner(UUID uuid, String world) {
+			return isJointOwner(uuid);
+		}
+
+		@Override
+		public EconomyAction isMember(String name) {
+			return memberCheck("p_name=" + name, name);
+		}
+
+		@Override
+		public EconomyAction isMember(String name, String world) {
+			return isMember(name);
+		}
+
+		@Override
+		public EconomyAction isMember(OfflinePlayer player) {
+			return memberCheck("p_uid=" + player.getUniqueId(), null);
+		}
+
+		@Override
+		public EconomyAction isMember(OfflinePlayer player, String world) {
+			return isMember(player);
+		}
+
+		@Override
+		public EconomyAction isMember(UUID uuid) {
+			return memberCheck("p_uid=" + uuid, null);
+		}
+
+		@Override
+		public EconomyAction isMember(UUID uuid, String world) {
+			return isMember(uuid);
+		}
+
+		@Override
+		public EconomyAction addMember(String name) {
+			return memberAdd("p_name=" + name);
+		}
+
+		@Override
+		public EconomyAction addMember(String name, String world) {
+			return addMember(name);
+		}
+
+		@Override
+		public EconomyAction addMember(OfflinePlayer player) {
+			return memberAdd("p_uid=" + player.getUniqueId());
+		}
+
+		@Override
+		public EconomyAction addMember(OfflinePlayer player, String world) {
+			return addMember(player);
+		}
+
+		@Override
+		public EconomyAction addMember(UUID uuid) {
+			return memberAdd("p_uid=" + uuid);
+		}
+
+		@Override
+		public EconomyAction addMember(UUID uuid, String world) {
+			return addMember(uuid);
+		}
+
+		@Override
+		public EconomyAction removeMember(String name) {
+			return memberRemove("p_name=" + name);
+		}
+
+		@Override
+		public EconomyAction removeMember(String name, String world) {
+			return removeMember(name);
+		}
+
+		@Override
+		public EconomyAction removeMember(OfflinePlayer player) {
+			return memberRemove("p_uid=" + player.getUniqueId());
+		}
+
+		@Override
+		public EconomyAction removeMember(OfflinePlayer player, String world) {
+			return removeMember(player);
+		}
+
+		@Override
+		public EconomyAction removeMember(UUID uuid) {
+			return memberRemove("p_uid=" + uuid);
+		}
+
+		@Override
+		public EconomyAction removeMember(UUID uuid, String world) {
+			return removeMember(uuid);
+		}
+	}
+}
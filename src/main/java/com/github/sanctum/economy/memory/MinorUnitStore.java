@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Growable array of balances in minor units, updated with compare-and-set.
+ * <p>Slots are handed out in order and never reused, so a stale slot
+ * can only ever point at a balance that was deleted.</p>
+ */
+final class MinorUnitStore {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+	private int next;
+
+	synchronized int allocate(long initial) {
+		final int slot = next;
+		final int chunk = slot >>> CHUNK_BITS;
+		AtomicLongArray[] current = chunks;
+		if (chunk >= current.length) {
+			final AtomicLongArray[] grown = new AtomicLongArray[Math.max(4, current.length * 2)];
+			System.arraycopy(current, 0, grown, 0, current.length);
+			for (int i = current.length; i < grown.length; i++) {
+				grown[i] = new AtomicLongArray(CHUNK_SIZE);
+			}
+			chunks = current = grown;
+		}
+		current[chunk].set(slot & CHUNK_MASK, initial);
+		next = slot + 1;
+		return slot;
+	}
+
+	synchronized int size() {
+		return next;
+	}
+
+	private AtomicLongArray chunk(int slot) {
+		return chunks[slot >>> CHUNK_BITS];
+	}
+
+	long get(int slot) {
+		return chunk(slot).get(slot & CHUNK_MASK);
+	}
+
+	void set(int slot, long value) {
+		chunk(slot).set(slot & CHUNK_MASK, value);
+	}
+
+	/**
+	 * @return false if the balance would overflow
+	 */
+	boolean add(int slot, long amount) {
+		final AtomicLongArray chunk = chunk(slot);
+		final int i = slot & CHUNK_MASK;
+		while (true) {
+			final long current = chunk.get(i);
+			final long updated = current + amount;
+			// overflow iff both operands share a sign the result lacks
+			if (((current ^ updated) & (amount ^ updated)) < 0) return false;
+			if (chunk.compareAndSet(i, current, updated)) return true;
+		}
+	}
+
+	/**
+	 * @return false if the balance is below 'amount'
+	 */
+	boolean subtract(int slot, long amount) {
+		final AtomicLongArray chunk = chunk(slot);
+		final int i = slot & CHUNK_MASK;
+		while (true) {
+			final long current = chunk.get(i);
+			if (current < amount) return false;
+			if (chunk.compareAndSet(i, current, current - amount)) return true;
+		}
+	}
+}
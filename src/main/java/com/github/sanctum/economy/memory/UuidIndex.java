@@ -0,0 +1,271 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.memory;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Open-addressing map from UUID to a non-negative int.
+ * <p>Keys are stored as their two halves in one long array, so neither
+ * keys nor values are boxed. Lookups run under an optimistic read stamp
+ * and only take the read lock if a writer got in the way; inserts and
+ * removals take the write lock.</p>
+ */
+public final class UuidIndex {
+
+	private static final int EMPTY = 0;
+	private static final int REMOVED = -1;
+
+	private final StampedLock lock = new StampedLock();
+	private Table table;
+	private int size;
+	private int used;
+
+	/**
+	 * @param expectedSize number of keys to size the table for
+	 */
+	public UuidIndex(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		this.table = new Table(capacity);
+	}
+
+	private static final class Table {
+		// two longs per slot: most then least significant bits
+		final long[] keys;
+		// EMPTY, REMOVED or value + 1
+		final int[] values;
+
+		Table(int capacity) {
+			this.keys = new long[capacity * 2];
+			this.values = new int[capacity];
+		}
+	}
+
+	private static int hash(long msb, long lsb) {
+		long h = msb ^ lsb;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	private static int find(Table table, long msb, long lsb) {
+		final long[] keys = table.keys;
+		final int[] values = table.values;
+		final int mask = values.length - 1;
+		int i = hash(msb, lsb) & mask;
+		for (int probes = 0; probes < values.length; probes++) {
+			final int v = values[i];
+			if (v == EMPTY) return -1;
+			if (v != REMOVED && keys[i << 1] == msb && keys[(i << 1) + 1] == lsb) return v - 1;
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	public int get(UUID uuid) {
+		return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Look up a key.
+	 * @param msb most significant bits of the UUID
+	 * @param lsb least significant bits of the UUID
+	 * @return the value or -1 if absent
+	 */
+	public int get(long msb, long lsb) {
+		final long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			final int value = find(table, msb, lsb);
+			if (lock.validate(stamp)) return value;
+		}
+		final long read = lock.readLock();
+		try {
+			return find(table, msb, lsb);
+		} finally {
+			lock.unlockRead(read);
+		}
+	}
+
+	/**
+	 * Associate a value with a key unless it already has one.
+	 * @param msb   most significant bits of the UUID
+	 * @param lsb   least significant bits of the UUID
+	 * @param value non-negative value
+	 * @return the existing value, or -1 if 'value' was inserted
+	 */
+	public int putIfAbsent(long msb, long lsb, int value) {
+		if (value < 0) throw new IllegalArgumentException("value must be non-negative");
+		final long stamp = lock.writeLock();
+		try {
+			final int existing = find(table, msb, lsb);
+			long[] keys = table.keys;
+			int[] values = table.values;
+			if (existing >= 0) return existing;
+			if ((used + 1) * 2 > values.length) {
+				rehash(size + 1 > values.length / 4 ? values.length * 2 : values.length);
+				keys = table.keys;
+				values = table.values;
+			}
+			final int mask = values.length - 1;
+			int i = hash(msb, lsb) & mask;
+			while (values[i] != EMPTY && values[i] != REMOVED) {
+				i = (i + 1) & mask;
+			}
+			if (values[i] == EMPTY) used++;
+			keys[i << 1] = msb;
+			keys[(i << 1) + 1] = lsb;
+			values[i] = value + 1;
+			size++;
+			return -1;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Remove a key.
+	 * @param msb most significant bits of the UUID
+	 * @param lsb least significant bits of the UUID
+	 * @return the removed value or -1 if absent
+	 */
+	public int remove(long msb, long lsb) {
+		final long stamp = lock.writeLock();
+		try {
+			final long[] keys = table.keys;
+			final int[] values = table.values;
+			final int mask = values.length - 1;
+			int i = hash(msb, lsb) & mask;
+			for (int probes = 0; probes < values.length; probes++) {
+				final int v = values[i];
+				if (v == EMPTY) return -1;
+				if (v != REMOVED && keys[i << 1] == msb && keys[(i << 1) + 1] == lsb) {
+					values[i] = REMOVED;
+					size--;
+					return v - 1;
+				}
+				i = (i + 1) & mask;
+			}
+			return -1;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	// drops REMOVED markers; called with the write lock held
+	private void rehash(int capacity) {
+		final long[] oldKeys = table.keys;
+		final int[] oldValues = table.values;
+		final Table rehashed = new Table(capacity);
+		final long[] newKeys = rehashed.keys;
+		final int[] newValues = rehashed.values;
+		final int mask = capacity - 1;
+		for (int j = 0; j < oldValues.length; j++) {
+			final int v = oldValues[j];
+			if (v == EMPTY || v == REMOVED) continue;
+			final long msb = oldKeys[j << 1];
+			final long lsb = oldKeys[(j << 1) + 1];
+			int i = hash(msb, lsb) & mask;
+			while (newValues[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			newKeys[i << 1] = msb;
+			newKeys[(i << 1) + 1] = lsb;
+			newValues[i] = v;
+		}
+		table = rehashed;
+		used = size;
+	}
+
+	public int size() {
+		final long stamp = lock.readLock();
+		try {
+			return size;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Receives the entries of a {@link UuidIndex}.
+	 */
+	@FunctionalInterface
+	public interface Visitor {
+		void visit(long msb, long lsb, int value);
+	}
+
+	/**
+	 * Turns the entries of a {@link UuidIndex} into objects.
+	 * @param <T> the object type
+	 */
+	@FunctionalInterface
+	public interface Mapper<T> {
+		T map(long msb, long lsb, int value);
+	}
+
+	// the table's arrays are replaced, never shrunk in place, so a copy is a consistent snapshot
+	private Table copy() {
+		final long stamp = lock.readLock();
+		try {
+			final Table copy = new Table(table.values.length);
+			System.arraycopy(table.keys, 0, copy.keys, 0, copy.keys.length);
+			System.arraycopy(table.values, 0, copy.values, 0, copy.values.length);
+			return copy;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Visit every entry. The visitor runs on a copy of the table, so it
+	 * may modify the index.
+	 * @param visitor receives each key and value
+	 */
+	public void forEach(Visitor visitor) {
+		final Table copy = copy();
+		for (int i = 0; i < copy.values.length; i++) {
+			final int v = copy.values[i];
+			if (v != EMPTY && v != REMOVED) {
+				visitor.visit(copy.keys[i << 1], copy.keys[(i << 1) + 1], v - 1);
+			}
+		}
+	}
+
+	/**
+	 * Stream the entries as of this call. Only the primitive table is
+	 * copied up front; the mapper runs as the stream is consumed.
+	 * @param mapper turns each key and value into an element
+	 * @param <T>    the element type
+	 * @return lazily mapped stream
+	 */
+	public <T> Stream<T> stream(Mapper<T> mapper) {
+		final Table copy = copy();
+		return IntStream.range(0, copy.values.length)
+				.filter(i -> copy.values[i] != EMPTY && copy.values[i] != REMOVED)
+				.mapToObj(i -> mapper.map(copy.keys[i << 1], copy.keys[(i << 1) + 1], copy.values[i] - 1));
+	}
+}
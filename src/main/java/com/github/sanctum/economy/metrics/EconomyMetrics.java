@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.metrics;
+
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicesManager;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Entry point to the per-provider operation metrics shown by
+ * /enterprise stats.
+ * <p>{@link #instrument(ServicesManager)} replaces every AdvancedEconomy
+ * registration with an {@link InstrumentedAdvancedEconomy} owned by the
+ * same plugin at the same priority, so callers resolving the service
+ * afterwards are measured transparently.</p>
+ */
+public final class EconomyMetrics {
+
+	private static final Map<String, ProviderMetrics> METRICS = new ConcurrentHashMap<>();
+
+	private EconomyMetrics() {
+	}
+
+	/**
+	 * Wrap every AdvancedEconomy registration which is not yet instrumented.
+	 * Must be called on the main thread.
+	 * @param servicesManager the server's services manager
+	 * @return number of registrations wrapped
+	 */
+	public static int instrument(ServicesManager servicesManager) {
+		int wrapped = 0;
+		for (RegisteredServiceProvider<AdvancedEconomy> registration : new ArrayList<>(servicesManager.getRegistrations(AdvancedEconomy.class))) {
+			final AdvancedEconomy provider = registration.getProvider();
+			if (provider instanceof InstrumentedAdvancedEconomy) {
+				continue;
+			}
+			final InstrumentedAdvancedEconomy instrumented = wrap(provider);
+			servicesManager.unregister(AdvancedEconomy.class, provider);
+			servicesManager.register(AdvancedEconomy.class, instrumented, registration.getPlugin(), registration.getPriority());
+			wrapped++;
+		}
+		return wrapped;
+	}
+
+	/**
+	 * Wrap a provider without registering it, e.g. for a plugin which holds
+	 * on to its own economy reference.
+	 * @param provider the economy to measure
+	 * @return the instrumented economy, sharing metrics with any other
+	 * wrapper of a provider from the same plugin
+	 */
+	public static InstrumentedAdvancedEconomy wrap(AdvancedEconomy provider) {
+		if (provider instanceof InstrumentedAdvancedEconomy) {
+			return (InstrumentedAdvancedEconomy) provider;
+		}
+		final String name = provider.getPlugin().getName();
+		return new InstrumentedAdvancedEconomy(provider, METRICS.computeIfAbsent(name, ProviderMetrics::new));
+	}
+
+	/**
+	 * Get the metrics of a provider.
+	 * @param pluginName name of the provider's plugin, case-insensitive
+	 * @return metrics or null if the provider has not been instrumented
+	 */
+	@Nullable
+	public static ProviderMetrics get(String pluginName) {
+		final ProviderMetrics metrics = METRICS.get(pluginName);
+		if (metrics != null) {
+			return metrics;
+		}
+		for (ProviderMetrics candidate : METRICS.values()) {
+			if (candidate.getName().equalsIgnoreCase(pluginName)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the metrics of every instrumented provider.
+	 * @return metrics by provider
+	 */
+	public static Collection<ProviderMetrics> getAll() {
+		return Collections.unmodifiableCollection(METRICS.values());
+	}
+}
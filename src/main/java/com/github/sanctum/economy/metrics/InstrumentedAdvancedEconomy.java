@@ -0,0 +1,518 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.metrics;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.Account;
+import com.github.sanctum.economy.construct.account.AccountPage;
+import com.github.sanctum.economy.construct.account.Balance;
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.Wallet;
+import com.github.sanctum.economy.construct.account.helpers.ForwardingAccount;
+import com.github.sanctum.economy.construct.account.helpers.ForwardingWallet;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import com.github.sanctum.economy.construct.implement.AdvancedEconomy;
+import com.github.sanctum.economy.construct.implement.ForwardingAdvancedEconomy;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Measures the calls made to an AdvancedEconomy and the Wallets and
+ * Accounts it returns.
+ */
+public final class InstrumentedAdvancedEconomy extends ForwardingAdvancedEconomy {
+
+	private final ProviderMetrics metrics;
+	// Wrappers handed out, reused while both they and the delegate are in use.
+	private final Map<Wallet, WeakReference<InstrumentedWallet>> wallets = Collections.synchronizedMap(new WeakHashMap<>());
+	private final Map<Account, WeakReference<InstrumentedAccount>> accounts = Collections.synchronizedMap(new WeakHashMap<>());
+
+	InstrumentedAdvancedEconomy(AdvancedEconomy delegate, ProviderMetrics metrics) {
+		super(delegate);
+		this.metrics = metrics;
+	}
+
+	public ProviderMetrics getMetrics() {
+		return metrics;
+	}
+
+	private Wallet wrap(Wallet wallet) {
+		if (wallet == null) {
+			return null;
+		}
+		final WeakReference<InstrumentedWallet> reference = wallets.get(wallet);
+		InstrumentedWallet wrapper = reference == null ? null : reference.get();
+		if (wrapper == null || wrapper.getDelegate() != wallet) {
+			wrapper = new InstrumentedWallet(wallet);
+			wallets.put(wallet, new WeakReference<>(wrapper));
+		}
+		return wrapper;
+	}
+
+	private Account wrap(Account account) {
+		if (account == null) {
+			return null;
+		}
+		final WeakReference<InstrumentedAccount> reference = accounts.get(account);
+		InstrumentedAccount wrapper = reference == null ? null : reference.get();
+		if (wrapper == null || wrapper.getDelegate() != account) {
+			wrapper = new InstrumentedAccount(account);
+			accounts.put(account, new WeakReference<>(wrapper));
+		}
+		return wrapper;
+	}
+
+	private Balance wrap(Balance balance) {
+		if (balance instanceof Account) return wrap((Account) balance);
+		if (balance instanceof Wallet) return wrap((Wallet) balance);
+		return balance;
+	}
+
+	private List<Account> wrap(List<Account> accounts) {
+		return accounts.stream().map(this::wrap).collect(Collectors.toList());
+	}
+
+	private AccountPage wrap(AccountPage page) {
+		return new AccountPage(wrap(page.getAccounts()), page.getNextCursor());
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String name) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(name)));
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String name, AccountType type) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(name, type)));
+	}
+
+	@Override
+	@Deprecated
+	public Account getAccount(String accountId, String name) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(accountId, name)));
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player, AccountType type) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(player, type)));
+	}
+
+	@Override
+	public Account getAccount(OfflinePlayer player) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(player)));
+	}
+
+	@Override
+	public Account getAccount(String accountId, OfflinePlayer player) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(accountId, player)));
+	}
+
+	@Override
+	public Account getAccount(UUID uuid) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(uuid)));
+	}
+
+	@Override
+	public Account getAccount(UUID uuid, AccountType type) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(uuid, type)));
+	}
+
+	@Override
+	public Account getAccount(String accountId, UUID uuid) {
+		return wrap(metrics.time(Operation.GET_ACCOUNT, () -> delegate.getAccount(accountId, uuid)));
+	}
+
+	@Override
+	@Deprecated
+	public Wallet getWallet(String name) {
+		return wrap(metrics.time(Operation.GET_WALLET, () -> delegate.getWallet(name)));
+	}
+
+	@Override
+	public Wallet getWallet(OfflinePlayer player) {
+		return wrap(metrics.time(Operation.GET_WALLET, () -> delegate.getWallet(player)));
+	}
+
+	@Override
+	public Wallet getWallet(UUID uuid) {
+		return wrap(metrics.time(Operation.GET_WALLET, () -> delegate.getWallet(uuid)));
+	}
+
+	@Override
+	public Wallet getWallet(EconomyEntity entity) {
+		return wrap(metrics.time(Operation.GET_WALLET, () -> delegate.getWallet(entity)));
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(UUID uuid) {
+		return metrics.timeAsync(Operation.GET_WALLET, () -> delegate.getWalletAsync(uuid)).thenApply(this::wrap);
+	}
+
+	@Override
+	public CompletableFuture<Wallet> getWalletAsync(OfflinePlayer player) {
+		return metrics.timeAsync(Operation.GET_WALLET, () -> delegate.getWalletAsync(player)).thenApply(this::wrap);
+	}
+
+	@Override
+	public @Nullable Wallet getSessionWallet(UUID uuid, String name) {
+		return wrap(metrics.time(Operation.GET_WALLET, () -> delegate.getSessionWallet(uuid, name)));
+	}
+
+	@Override
+	public List<Account> getAccounts() {
+		return wrap(delegate.getAccounts());
+	}
+
+	@Override
+	public List<Account> getAccountsOf(EconomyEntity entity) {
+		return wrap(delegate.getAccountsOf(entity));
+	}
+
+	@Override
+	public Stream<Account> streamAccounts() {
+		return delegate.streamAccounts().map(this::wrap);
+	}
+
+	@Override
+	public Stream<Account> streamAccounts(@Nullable AccountType type, @Nullable String world) {
+		return delegate.streamAccounts(type, world).map(this::wrap);
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize) {
+		return wrap(delegate.getAccountPage(cursor, pageSize));
+	}
+
+	@Override
+	public AccountPage getAccountPage(@Nullable String cursor, int pageSize, @Nullable AccountType type, @Nullable String world) {
+		return wrap(delegate.getAccountPage(cursor, pageSize, type, world));
+	}
+
+	@Override
+	public Balance resolveBalance(BalanceSnapshot snapshot) {
+		return wrap(delegate.resolveBalance(snapshot));
+	}
+
+	@Override
+	public EconomyAction transfer(Balance from, Balance to, BigDecimal amount) {
+		return metrics.time(Operation.TRANSFER, () -> super.transfer(from, to, amount));
+	}
+
+	@Override
+	public EconomyAction transfer(Balance from, Balance to, BigDecimal amount, String world) {
+		return metrics.time(Operation.TRANSFER, () -> super.transfer(from, to, amount, world));
+	}
+
+	@Override
+	protected Wallet unwrap(Wallet wallet) {
+		return wallet instanceof InstrumentedWallet && ((InstrumentedWallet) wallet).owner() == this ? ((InstrumentedWallet) wallet).getDelegate() : wallet;
+	}
+
+	@Override
+	protected Account unwrap(Account account) {
+		return account instanceof InstrumentedAccount && ((InstrumentedAccount) account).owner() == this ? ((InstrumentedAccount) account).getDelegate() : account;
+	}
+
+	private final class InstrumentedWallet extends ForwardingWallet {
+		InstrumentedWallet(Wallet delegate) {
+			super(delegate);
+		}
+
+		InstrumentedAdvancedEconomy owner() {
+			return InstrumentedAdvancedEconomy.this;
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return metrics.time(Operation.SET_BALANCE, () -> delegate.setBalance(amount));
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return metrics.time(Operation.SET_BALANCE, () -> delegate.setBalance(amount, world));
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance() {
+			return metrics.time(Operation.GET_BALANCE, () -> delegate.getBalance());
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance(String world) {
+			return metrics.time(Operation.GET_BALANCE, () -> delegate.getBalance(world));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(amount));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(amount, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(amount));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(amount, world));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			return metrics.time(Operation.TRANSFER, () -> delegate.transfer(to, amount));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return metrics.time(Operation.TRANSFER, () -> delegate.transfer(to, amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(minorUnits));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(minorUnits));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(minorUnits, world));
+		}
+
+		@Override
+		public long getBalanceMinor() {
+			final long start = System.nanoTime();
+			boolean error = true;
+			try {
+				final long balance = delegate.getBalanceMinor();
+				error = false;
+				return balance;
+			} finally {
+				metrics.record(Operation.GET_BALANCE, start, error, false);
+			}
+		}
+
+		@Override
+		public long getBalanceMinor(String world) {
+			final long start = System.nanoTime();
+			boolean error = true;
+			try {
+				final long balance = delegate.getBalanceMinor(world);
+				error = false;
+				return balance;
+			} finally {
+				metrics.record(Operation.GET_BALANCE, start, error, false);
+			}
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return metrics.timeAsync(Operation.DEPOSIT, () -> delegate.depositAsync(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return metrics.timeAsync(Operation.DEPOSIT, () -> delegate.depositAsync(amount, world));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return metrics.timeAsync(Operation.WITHDRAW, () -> delegate.withdrawAsync(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return metrics.timeAsync(Operation.WITHDRAW, () -> delegate.withdrawAsync(amount, world));
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync() {
+			return metrics.timeAsync(Operation.GET_BALANCE, () -> delegate.getBalanceAsync());
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+			return metrics.timeAsync(Operation.GET_BALANCE, () -> delegate.getBalanceAsync(world));
+		}
+	}
+
+	private final class InstrumentedAccount extends ForwardingAccount {
+		InstrumentedAccount(Account delegate) {
+			super(delegate);
+		}
+
+		InstrumentedAdvancedEconomy owner() {
+			return InstrumentedAdvancedEconomy.this;
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount) {
+			return metrics.time(Operation.SET_BALANCE, () -> delegate.setBalance(amount));
+		}
+
+		@Override
+		public EconomyAction setBalance(BigDecimal amount, String world) {
+			return metrics.time(Operation.SET_BALANCE, () -> delegate.setBalance(amount, world));
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance() {
+			return metrics.time(Operation.GET_BALANCE, () -> delegate.getBalance());
+		}
+
+		@Override
+		public @Nullable BigDecimal getBalance(String world) {
+			return metrics.time(Operation.GET_BALANCE, () -> delegate.getBalance(world));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(amount));
+		}
+
+		@Override
+		public EconomyAction deposit(BigDecimal amount, String world) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(amount, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(amount));
+		}
+
+		@Override
+		public EconomyAction withdraw(BigDecimal amount, String world) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(amount, world));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount) {
+			return metrics.time(Operation.TRANSFER, () -> delegate.transfer(to, amount));
+		}
+
+		@Override
+		public EconomyAction transfer(Balance to, BigDecimal amount, String world) {
+			return metrics.time(Operation.TRANSFER, () -> delegate.transfer(to, amount, world));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(minorUnits));
+		}
+
+		@Override
+		public EconomyAction deposit(long minorUnits, String world) {
+			return metrics.time(Operation.DEPOSIT, () -> delegate.deposit(minorUnits, world));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(minorUnits));
+		}
+
+		@Override
+		public EconomyAction withdraw(long minorUnits, String world) {
+			return metrics.time(Operation.WITHDRAW, () -> delegate.withdraw(minorUnits, world));
+		}
+
+		@Override
+		public long getBalanceMinor() {
+			final long start = System.nanoTime();
+			boolean error = true;
+			try {
+				final long balance = delegate.getBalanceMinor();
+				error = false;
+				return balance;
+			} finally {
+				metrics.record(Operation.GET_BALANCE, start, error, false);
+			}
+		}
+
+		@Override
+		public long getBalanceMinor(String world) {
+			final long start = System.nanoTime();
+			boolean error = true;
+			try {
+				final long balance = delegate.getBalanceMinor(world);
+				error = false;
+				return balance;
+			} finally {
+				metrics.record(Operation.GET_BALANCE, start, error, false);
+			}
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount) {
+			return metrics.timeAsync(Operation.DEPOSIT, () -> delegate.depositAsync(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> depositAsync(BigDecimal amount, String world) {
+			return metrics.timeAsync(Operation.DEPOSIT, () -> delegate.depositAsync(amount, world));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount) {
+			return metrics.timeAsync(Operation.WITHDRAW, () -> delegate.withdrawAsync(amount));
+		}
+
+		@Override
+		public CompletableFuture<EconomyAction> withdrawAsync(BigDecimal amount, String world) {
+			return metrics.timeAsync(Operation.WITHDRAW, () -> delegate.withdrawAsync(amount, world));
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync() {
+			return metrics.timeAsync(Operation.GET_BALANCE, () -> delegate.getBalanceAsync());
+		}
+
+		@Override
+		public CompletableFuture<BigDecimal> getBalanceAsync(String world) {
+			return metrics.timeAsync(Operation.GET_BALANCE, () -> delegate.getBalanceAsync(world));
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.metrics;
+
+/**
+ * The provider operations measured by {@link ProviderMetrics}.
+ */
+public enum Operation {
+	DEPOSIT, WITHDRAW, TRANSFER, SET_BALANCE, GET_BALANCE, GET_WALLET, GET_ACCOUNT;
+
+	/**
+	 * Get the name of this operation as shown in /enterprise stats.
+	 * @return camel-case method name
+	 */
+	public String getMethodName() {
+		switch (this) {
+			case SET_BALANCE:
+				return "setBalance";
+			case GET_BALANCE:
+				return "getBalance";
+			case GET_WALLET:
+				return "getWallet";
+			case GET_ACCOUNT:
+				return "getAccount";
+			default:
+				return name().toLowerCase();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts, errors and latency of one {@link Operation} of one provider.
+ */
+public final class OperationStats {
+
+	private final Operation operation;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	OperationStats(Operation operation) {
+		this.operation = operation;
+	}
+
+	void record(long nanos, boolean error, boolean failure) {
+		calls.increment();
+		if (error) {
+			errors.increment();
+		} else if (failure) {
+			failures.increment();
+		}
+		latency.record(nanos);
+	}
+
+	public Operation getOperation() {
+		return operation;
+	}
+
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	/**
+	 * Get the number of calls which threw an exception.
+	 * @return error count
+	 */
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * Get the number of calls which returned an unsuccessful
+	 * {@link com.github.sanctum.economy.construct.EconomyAction}, such as a
+	 * withdrawal without enough funds.
+	 * @return failure count
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Get the share of calls which threw an exception.
+	 * @return error rate between 0 and 1
+	 */
+	public double getErrorRate() {
+		final long n = calls.sum();
+		return n == 0 ? 0 : (double) errors.sum() / n;
+	}
+
+	/**
+	 * Get the latency of this operation.
+	 * @return histogram of call durations in nanoseconds
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	void reset() {
+		calls.reset();
+		errors.reset();
+		failures.reset();
+		latency.reset();
+	}
+}
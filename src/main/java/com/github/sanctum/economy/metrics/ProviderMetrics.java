@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.metrics;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The measurements of one AdvancedEconomy provider.
+ */
+public final class ProviderMetrics {
+
+	private final String name;
+	private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+	ProviderMetrics(String name) {
+		this.name = name;
+		for (Operation operation : Operation.values()) {
+			stats.put(operation, new OperationStats(operation));
+		}
+	}
+
+	/**
+	 * Get the name of the provider's plugin.
+	 * @return plugin name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public OperationStats get(Operation operation) {
+		return stats.get(operation);
+	}
+
+	/**
+	 * Get the stats of every operation.
+	 * @return stats in {@link Operation} order
+	 */
+	public Collection<OperationStats> getAll() {
+		return Collections.unmodifiableCollection(stats.values());
+	}
+
+	/**
+	 * Forget everything measured so far.
+	 */
+	public void reset() {
+		for (OperationStats operationStats : stats.values()) {
+			operationStats.reset();
+		}
+	}
+
+	/**
+	 * Run and measure one call.
+	 * @param operation the operation being called
+	 * @param call      the call
+	 * @param <T>       result type
+	 * @return the call's result
+	 */
+	<T> T time(Operation operation, Supplier<T> call) {
+		final long start = System.nanoTime();
+		boolean error = true;
+		T result = null;
+		try {
+			result = call.get();
+			error = false;
+			return result;
+		} finally {
+			record(operation, start, error, result instanceof EconomyAction && !((EconomyAction) result).isSuccess());
+		}
+	}
+
+	/**
+	 * Record one call measured by the caller, for calls returning a
+	 * primitive that {@link #time(Operation, Supplier)} would box.
+	 * @param operation the operation called
+	 * @param start     {@link System#nanoTime()} before the call
+	 * @param error     whether the call threw
+	 * @param failure   whether the call returned a failed action
+	 */
+	void record(Operation operation, long start, boolean error, boolean failure) {
+		stats.get(operation).record(System.nanoTime() - start, error, failure);
+	}
+
+	/**
+	 * Start and measure one asynchronous call; the time recorded runs
+	 * until the future completes.
+	 * @param operation the operation being called
+	 * @param call      starts the call
+	 * @param <T>       result type
+	 * @return the call's future
+	 */
+	<T> CompletableFuture<T> timeAsync(Operation operation, Supplier<CompletableFuture<T>> call) {
+		final long start = System.nanoTime();
+		final CompletableFuture<T> future;
+		try {
+			future = call.get();
+		} catch (RuntimeException | Error e) {
+			stats.get(operation).record(System.nanoTime() - start, true, false);
+			throw e;
+		}
+		return future.whenComplete((result, error) -> {
+			final boolean failure = result instanceof EconomyAction && !((EconomyAction) result).isSuccess();
+			stats.get(operation).record(System.nanoTime() - start, error != null, failure);
+		});
+	}
+}
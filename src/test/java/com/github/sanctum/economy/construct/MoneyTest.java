@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class MoneyTest {
+
+	@Test
+	public void convertsExactly() {
+		assertEquals(1234, Money.toMinorUnits(new BigDecimal("12.34"), 2));
+		assertEquals(1200, Money.toMinorUnits(new BigDecimal("12"), 2));
+		assertEquals(new BigDecimal("12.34"), Money.toBigDecimal(1234, 2));
+		assertEquals(Money.of(1234, 2), Money.of(new BigDecimal("12.340"), 2));
+		assertEquals("-0.05", Money.of(-5, 2).toString());
+	}
+
+	@Test
+	public void refusesToRoundOrOverflow() {
+		assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("0.001"), 2));
+		assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("1e30"), 2));
+		assertThrows(ArithmeticException.class, () -> Money.of(Long.MAX_VALUE, 2).plus(Money.of(1, 2)));
+		assertThrows(ArithmeticException.class, () -> Money.of(Long.MIN_VALUE, 2).minus(Money.of(1, 2)));
+	}
+
+	@Test
+	public void floorsAndClamps() {
+		assertEquals(1234, Money.toMinorUnitsFloor(new BigDecimal("12.349"), 2));
+		assertEquals(-1235, Money.toMinorUnitsFloor(new BigDecimal("-12.341"), 2));
+		assertEquals(Long.MAX_VALUE, Money.toMinorUnitsFloor(new BigDecimal("1e30"), 2));
+		// Long.MIN_VALUE is kept for ABSENT
+		assertEquals(Long.MIN_VALUE + 1, Money.toMinorUnitsFloor(new BigDecimal("-1e30"), 2));
+	}
+
+	@Test
+	public void validatesScales() {
+		assertThrows(IllegalArgumentException.class, () -> Money.of(1, -1));
+		assertThrows(IllegalArgumentException.class, () -> Money.of(1, Money.MAX_SCALE + 1));
+		assertThrows(IllegalArgumentException.class, () -> Money.of(1, 2).plus(Money.of(1, 3)));
+		assertEquals(Money.MAX_SCALE, Money.of(1, Money.MAX_SCALE).getScale());
+	}
+
+	@Test
+	public void comparesAcrossScales() {
+		assertEquals(0, Money.of(150, 2).compareTo(Money.of(1500, 3)));
+		assertTrue(Money.of(151, 2).compareTo(Money.of(1500, 3)) > 0);
+		assertTrue(Money.of(-1, 0).compareTo(Money.of(0, 2)) < 0);
+		assertEquals(Money.of(300, 2), Money.of(100, 2).plus(Money.of(200, 2)));
+		assertEquals(-1, Money.of(100, 2).minus(Money.of(200, 2)).signum());
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AccountPageTest {
+
+	private static final EconomyEntity ALICE = () -> "test=alice";
+
+	private static List<Account> accounts(String... ids) {
+		final List<Account> accounts = new ArrayList<>();
+		for (String id : ids) {
+			accounts.add(new TestAccount(id, ALICE));
+		}
+		return accounts;
+	}
+
+	private static List<String> ids(AccountPage page) {
+		return page.getAccounts().stream().map(Account::getId).collect(Collectors.toList());
+	}
+
+	@Test
+	public void pagesInIdOrder() {
+		final List<Account> accounts = accounts("d", "a", "e", "c", "b");
+		AccountPage page = AccountPage.after(accounts.stream(), null, 2);
+		assertEquals(Arrays.asList("a", "b"), ids(page));
+		assertEquals("b", page.getNextCursor());
+		page = AccountPage.after(accounts.stream(), page.getNextCursor(), 2);
+		assertEquals(Arrays.asList("c", "d"), ids(page));
+		page = AccountPage.after(accounts.stream(), page.getNextCursor(), 2);
+		assertEquals(Arrays.asList("e"), ids(page));
+		assertFalse(page.hasNext());
+	}
+
+	@Test
+	public void resumesAfterADeletedCursor() {
+		final List<Account> accounts = accounts("a", "b", "c", "d");
+		final AccountPage first = AccountPage.after(accounts.stream(), null, 2);
+		accounts.removeIf(account -> account.getId().equals(first.getNextCursor()));
+		final AccountPage second = AccountPage.after(accounts.stream(), first.getNextCursor(), 2);
+		assertEquals(Arrays.asList("c", "d"), ids(second));
+		assertNull(second.getNextCursor());
+	}
+
+	@Test
+	public void leavesOutAccountsWithoutAnId() {
+		final List<Account> accounts = accounts("a", null, "b", null);
+		final AccountPage page = AccountPage.after(accounts.stream(), null, 1);
+		assertEquals(Arrays.asList("a"), ids(page));
+		assertTrue(page.hasNext());
+		assertEquals(Arrays.asList("b"), ids(AccountPage.after(accounts.stream(), page.getNextCursor(), 1)));
+	}
+}
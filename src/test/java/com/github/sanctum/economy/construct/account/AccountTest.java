@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AccountTest {
+
+	private static final EconomyEntity ALICE = () -> "test=alice";
+
+	@Test
+	public void accountsWithTheSameIdAreEqual() {
+		final TestAccount a = new TestAccount("bank", ALICE);
+		final TestAccount b = new TestAccount("bank", () -> "test=bob");
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertNotEquals(a, new TestAccount("shop", ALICE));
+	}
+
+	@Test
+	public void derivedIdsDoNotMakeAccountsEqual() {
+		final TestAccount a = new TestAccount(ALICE);
+		final TestAccount b = new TestAccount(ALICE);
+		assertEquals(a.getId(), b.getId());
+		assertNotEquals(a, b);
+		assertNotEquals(a, new TestAccount(a.getId(), ALICE));
+		assertNotEquals(new TestAccount(null), new TestAccount(null));
+		final Set<Account> set = new HashSet<>();
+		set.add(a);
+		set.add(b);
+		assertEquals(2, set.size());
+	}
+}
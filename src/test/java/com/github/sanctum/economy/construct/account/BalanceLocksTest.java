@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class BalanceLocksTest {
+
+	private static BigDecimal amount(String value) {
+		return new BigDecimal(value);
+	}
+
+	@Test
+	public void movesTheAmount() {
+		final TestWallet alice = new TestWallet("test=alice", amount("10"));
+		final TestWallet bob = new TestWallet("test=bob", amount("1"));
+		assertTrue(alice.transfer(bob, amount("2.50")).isSuccess());
+		assertEquals(amount("7.50"), alice.getBalance());
+		assertEquals(amount("3.50"), bob.getBalance());
+		// nothing to move in another world
+		assertFalse(alice.transfer(bob, amount("1"), "world").isSuccess());
+	}
+
+	@Test
+	public void rejectsInvalidTransfers() {
+		final TestWallet alice = new TestWallet("test=alice", amount("10"));
+		final TestWallet bob = new TestWallet("test=bob", amount("0"));
+		assertFalse(alice.transfer(bob, amount("11")).isSuccess());
+		assertFalse(alice.transfer(bob, BigDecimal.ZERO).isSuccess());
+		assertFalse(alice.transfer(bob, amount("-1")).isSuccess());
+		assertFalse(alice.transfer(alice, amount("1")).isSuccess());
+		assertEquals(0, alice.writes.get() + bob.writes.get());
+		assertEquals(amount("10"), alice.getBalance());
+	}
+
+	@Test
+	public void refundsAFailedDeposit() {
+		final TestWallet alice = new TestWallet("test=alice", amount("10"));
+		final TestWallet bob = new TestWallet("test=bob", amount("0"));
+		bob.failures = 1;
+		final EconomyAction result = alice.transfer(bob, amount("4"));
+		assertFalse(result.isSuccess());
+		assertEquals("write failed", result.getInfo());
+		assertEquals(amount("10"), alice.getBalance());
+		assertEquals(amount("0"), bob.getBalance());
+	}
+
+	@Test
+	public void refundsAThrowingDeposit() {
+		final TestWallet alice = new TestWallet("test=alice", amount("10"));
+		final TestWallet bob = new TestWallet("test=bob", amount("0"));
+		bob.throwOnDeposit = true;
+		final IllegalStateException e = assertThrows(IllegalStateException.class, () -> alice.transfer(bob, amount("4")));
+		assertEquals(0, e.getSuppressed().length);
+		assertEquals(amount("10"), alice.getBalance());
+	}
+
+	@Test
+	public void concurrentTransfersKeepTheTotal() throws InterruptedException {
+		final TestWallet[] wallets = new TestWallet[6];
+		for (int i = 0; i < wallets.length; i++) {
+			wallets[i] = new TestWallet("test=w" + i, amount("100"));
+		}
+		final List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			final Random random = new Random(t);
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 5000; i++) {
+					final TestWallet from = wallets[random.nextInt(wallets.length)];
+					final TestWallet to = wallets[random.nextInt(wallets.length)];
+					from.transfer(to, BigDecimal.valueOf(1 + random.nextInt(30)));
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		BigDecimal total = BigDecimal.ZERO;
+		for (TestWallet wallet : wallets) {
+			assertTrue(wallet.getBalance().signum() >= 0);
+			total = total.add(wallet.getBalance());
+		}
+		assertEquals(amount("600"), total);
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MembershipIndexTest {
+
+	@Test
+	public void recordsMemberships() {
+		final MembershipIndex index = new MembershipIndex();
+		assertTrue(index.add("alice", "bank"));
+		assertFalse(index.add("alice", "bank"));
+		assertTrue(index.add("alice", "shop"));
+		assertTrue(index.add("bob", "bank"));
+		assertTrue(index.contains("alice", "shop"));
+		assertFalse(index.contains("bob", "shop"));
+		assertEquals(new HashSet<>(Arrays.asList("bank", "shop")), index.getAccountIds("alice"));
+		assertTrue(index.getAccountIds("carol").isEmpty());
+	}
+
+	@Test
+	public void forgetsMemberships() {
+		final MembershipIndex index = new MembershipIndex();
+		index.add("alice", "bank");
+		index.add("bob", "bank");
+		index.add("bob", "shop");
+		assertTrue(index.remove("alice", "bank"));
+		assertFalse(index.remove("alice", "bank"));
+		assertTrue(index.getAccountIds("alice").isEmpty());
+		index.removeAccount("bank", Arrays.asList("alice", "bob"));
+		assertEquals(new HashSet<>(Arrays.asList("shop")), index.getAccountIds("bob"));
+		index.clear();
+		assertFalse(index.contains("bob", "shop"));
+	}
+
+	@Test
+	public void memberListWritesReachTheIndex() {
+		final MembershipIndex index = new MembershipIndex();
+		final TestAccount account = index.track(new TestAccount("bank", () -> "test=alice", () -> "test=bob"));
+		final List<String> members = account.getMembers();
+		assertTrue(members.add("test=carol"));
+		assertFalse(members.add("test=carol"));
+		assertTrue(account.hasMember("test=carol"));
+		assertTrue(index.contains("test=carol", "bank"));
+		assertTrue(members.remove("test=bob"));
+		assertFalse(index.contains("test=bob", "bank"));
+		members.clear();
+		assertTrue(account.getMemberIds().isEmpty());
+		assertTrue(index.getAccountIds("test=carol").isEmpty());
+	}
+
+	@Test
+	public void removedAccountsStopUpdatingTheIndex() {
+		final AccountRegistry<TestAccount> registry = new AccountRegistry<>();
+		final TestAccount account = new TestAccount("bank", () -> "test=alice", () -> "test=bob");
+		assertTrue(registry.register(account));
+		assertEquals(1, registry.getAccountsOf(() -> "test=bob").size());
+		assertEquals(account, registry.remove("bank"));
+		assertNull(account.index);
+		account.addMemberId("test=carol");
+		assertTrue(registry.getAccountsOf(() -> "test=bob").isEmpty());
+		assertTrue(registry.getAccountsOf(() -> "test=carol").isEmpty());
+	}
+
+	@Test
+	public void addsAreNotLostToConcurrentRemoves() throws InterruptedException {
+		final MembershipIndex index = new MembershipIndex();
+		for (int round = 0; round < 2000; round++) {
+			final String member = "m" + round;
+			index.add(member, "old");
+			final CountDownLatch start = new CountDownLatch(1);
+			final Thread remover = new Thread(() -> {
+				await(start);
+				index.remove(member, "old");
+			});
+			final Thread adder = new Thread(() -> {
+				await(start);
+				index.add(member, "new");
+			});
+			remover.start();
+			adder.start();
+			start.countDown();
+			remover.join();
+			adder.join();
+			assertTrue(member, index.contains(member, "new"));
+			assertFalse(member, index.contains(member, "old"));
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.bukkit.OfflinePlayer;
+
+/**
+ * An Account with no balance, for testing member bookkeeping.
+ */
+public class TestAccount extends Account {
+
+	public TestAccount(String id, EconomyEntity holder, EconomyEntity... members) {
+		super(id, AccountType.BANK_ACCOUNT, holder, members);
+	}
+
+	public TestAccount(EconomyEntity holder, EconomyEntity... members) {
+		super(AccountType.BANK_ACCOUNT, holder, members);
+	}
+
+	private EconomyAction unsupported() {
+		return new EconomyAction(holder, false, "unsupported");
+	}
+
+	@Override
+	public EconomyAction setBalance(BigDecimal amount) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction setBalance(BigDecimal amount, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public boolean exists() {
+		return true;
+	}
+
+	@Override
+	public boolean exists(String world) {
+		return true;
+	}
+
+	@Override
+	public BigDecimal getBalance() {
+		return BigDecimal.ZERO;
+	}
+
+	@Override
+	public BigDecimal getBalance(String world) {
+		return BigDecimal.ZERO;
+	}
+
+	@Override
+	public boolean has(BigDecimal amount) {
+		return false;
+	}
+
+	@Override
+	public boolean has(BigDecimal amount, String world) {
+		return false;
+	}
+
+	@Override
+	public EconomyAction deposit(BigDecimal amount) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction deposit(BigDecimal amount, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction withdraw(BigDecimal amount) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction withdraw(BigDecimal amount, String world) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction isOwner(String name) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction isOwner(String name, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isOwner(OfflinePlayer player) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isOwner(OfflinePlayer player, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isOwner(UUID uuid) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isOwner(UUID uuid, String world) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction isJointOwner(String name) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction isJointOwner(String name, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isJointOwner(OfflinePlayer player) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isJointOwner(OfflinePlayer player, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isJointOwner(UUID uuid) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isJointOwner(UUID uuid, String world) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction isMember(String name) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction isMember(String name, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isMember(OfflinePlayer player) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isMember(OfflinePlayer player, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isMember(UUID uuid) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction isMember(UUID uuid, String world) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction addMember(String name) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction addMember(String name, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction addMember(OfflinePlayer player) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction addMember(OfflinePlayer player, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction addMember(UUID uuid) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction addMember(UUID uuid, String world) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction removeMember(String name) {
+		return unsupported();
+	}
+
+	@Override
+	@Deprecated
+	public EconomyAction removeMember(String name, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction removeMember(OfflinePlayer player) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction removeMember(OfflinePlayer player, String world) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction removeMember(UUID uuid) {
+		return unsupported();
+	}
+
+	@Override
+	public EconomyAction removeMember(UUID uuid, String world) {
+		return unsupported();
+	}
+}
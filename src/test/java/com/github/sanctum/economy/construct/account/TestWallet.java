@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory Wallet whose writes can be made to fail.
+ */
+public class TestWallet extends Wallet {
+
+	private static final String GENERAL = "";
+
+	private final Map<String, BigDecimal> balances = new ConcurrentHashMap<>();
+	/**
+	 * Deposits and withdrawals that reached this wallet.
+	 */
+	public final AtomicInteger writes = new AtomicInteger();
+	/**
+	 * Number of upcoming writes which fail.
+	 */
+	public volatile int failures;
+	/**
+	 * Whether deposits throw instead of failing.
+	 */
+	public volatile boolean throwOnDeposit;
+
+	public TestWallet(String id, BigDecimal balance) {
+		this(() -> id, balance);
+	}
+
+	public TestWallet(EconomyEntity holder, BigDecimal balance) {
+		super(holder);
+		balances.put(GENERAL, balance);
+	}
+
+	private static String context(String world) {
+		return world == null ? GENERAL : world;
+	}
+
+	private synchronized EconomyAction write(String world, BigDecimal amount, boolean deposit) {
+		writes.incrementAndGet();
+		if (deposit && throwOnDeposit) {
+			throw new IllegalStateException("deposit failed");
+		}
+		if (failures > 0) {
+			failures--;
+			return new EconomyAction(amount, holder, false, "write failed");
+		}
+		final BigDecimal balance = getBalance(world);
+		if (!deposit && balance.compareTo(amount) < 0) {
+			return new EconomyAction(amount, holder, false, "Insufficient funds");
+		}
+		balances.put(context(world), deposit ? balance.add(amount) : balance.subtract(amount));
+		return new EconomyAction(amount, holder, true, deposit ? "Deposited" : "Withdrew");
+	}
+
+	@Override
+	public EconomyAction setBalance(BigDecimal amount) {
+		return setBalance(amount, null);
+	}
+
+	@Override
+	public EconomyAction setBalance(BigDecimal amount, String world) {
+		balances.put(context(world), amount);
+		return new EconomyAction(amount, holder, true, "Set");
+	}
+
+	@Override
+	public boolean exists() {
+		return true;
+	}
+
+	@Override
+	public boolean exists(String world) {
+		return true;
+	}
+
+	@Override
+	public BigDecimal getBalance() {
+		return getBalance(null);
+	}
+
+	@Override
+	public BigDecimal getBalance(String world) {
+		return balances.getOrDefault(context(world), BigDecimal.ZERO);
+	}
+
+	@Override
+	public boolean has(BigDecimal amount) {
+		return has(amount, null);
+	}
+
+	@Override
+	public boolean has(BigDecimal amount, String world) {
+		return getBalance(world).compareTo(amount) >= 0;
+	}
+
+	@Override
+	public int getScale() {
+		return 2;
+	}
+
+	@Override
+	public EconomyAction deposit(BigDecimal amount) {
+		return write(null, amount, true);
+	}
+
+	@Override
+	public EconomyAction deposit(BigDecimal amount, String world) {
+		return write(world, amount, true);
+	}
+
+	@Override
+	public EconomyAction withdraw(BigDecimal amount) {
+		return write(null, amount, false);
+	}
+
+	@Override
+	public EconomyAction withdraw(BigDecimal amount, String world) {
+		return write(world, amount, false);
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.account.helpers;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.account.TestWallet;
+import com.github.sanctum.economy.construct.account.Wallet;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindBufferTest {
+
+    private static BigDecimal amount(String value) {
+        return new BigDecimal(value);
+    }
+
+    @Test
+    public void coalescesChangesUntilFlushed() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        assertTrue(wallet.deposit(amount("5")).isSuccess());
+        assertTrue(wallet.deposit(amount("2.50")).isSuccess());
+        assertTrue(wallet.withdraw(amount("1")).isSuccess());
+        assertEquals(amount("16.50"), wallet.getBalance());
+        assertTrue(wallet.has(amount("16.50")));
+        assertEquals(amount("10"), target.getBalance());
+        assertEquals(0, target.writes.get());
+        assertEquals(3, buffer.getPendingOperations());
+        assertEquals(1, buffer.getPendingBalances());
+
+        assertTrue(buffer.flush().isEmpty());
+        assertEquals(amount("16.50"), target.getBalance());
+        assertEquals(1, target.writes.get());
+        assertEquals(0, buffer.getPendingOperations());
+        assertEquals(0, buffer.getPendingBalances());
+    }
+
+    @Test
+    public void skipsWritesWithNoNetChange() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        wallet.deposit(amount("3"));
+        wallet.withdraw(amount("3"));
+        assertTrue(buffer.flush().isEmpty());
+        assertEquals(0, target.writes.get());
+        assertEquals(0, buffer.getPendingBalances());
+    }
+
+    @Test
+    public void refusesWithdrawalsBeyondTheMergedBalance() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        assertTrue(wallet.withdraw(amount("8")).isSuccess());
+        assertFalse(wallet.withdraw(amount("3")).isSuccess());
+        assertEquals(amount("2"), wallet.getBalance());
+        assertTrue(wallet.deposit(amount("1")).isSuccess());
+        assertTrue(wallet.withdraw(amount("3")).isSuccess());
+        buffer.flush();
+        assertEquals(amount("0"), target.getBalance());
+    }
+
+    @Test
+    public void retriesAFailedWrite() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        wallet.deposit(amount("4"));
+        target.failures = 1;
+
+        final List<EconomyAction> failed = buffer.flush();
+        assertEquals(1, failed.size());
+        assertFalse(failed.get(0).isSuccess());
+        assertEquals(amount("10"), target.getBalance());
+        assertEquals(1, buffer.getPendingBalances());
+        assertEquals(amount("14"), wallet.getBalance());
+
+        assertTrue(buffer.flush().isEmpty());
+        assertEquals(amount("14"), target.getBalance());
+        assertEquals(0, buffer.getPendingBalances());
+    }
+
+    @Test
+    public void flushesWhenFull() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(3);
+        final TestWallet target = new TestWallet("test=alice", amount("0"));
+        final Wallet wallet = buffer.wrap(target);
+        wallet.deposit(amount("1"));
+        wallet.deposit(amount("1"));
+        assertEquals(0, target.writes.get());
+        wallet.deposit(amount("1"));
+        assertEquals(amount("3"), target.getBalance());
+        assertEquals(1, target.writes.get());
+        assertEquals(0, buffer.getPendingOperations());
+    }
+
+    @Test
+    public void setBalanceWritesThrough() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        wallet.deposit(amount("5"));
+        assertTrue(wallet.setBalance(amount("50")).isSuccess());
+        assertEquals(1, target.writes.get());
+        assertEquals(amount("50"), target.getBalance());
+        assertEquals(0, buffer.getPendingBalances());
+        assertTrue(buffer.flush().isEmpty());
+        assertEquals(amount("50"), wallet.getBalance());
+    }
+
+    @Test
+    public void keepsWorldsApart() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        wallet.deposit(amount("2"));
+        wallet.deposit(amount("7"), "nether");
+        assertEquals(2, buffer.getPendingBalances());
+        assertEquals(amount("7"), wallet.getBalance("nether"));
+        buffer.flush();
+        assertEquals(amount("12"), target.getBalance());
+        assertEquals(amount("7"), target.getBalance("nether"));
+    }
+
+    @Test
+    public void buffersMinorUnitWrites() {
+        final WriteBehindBuffer buffer = new WriteBehindBuffer(100);
+        final TestWallet target = new TestWallet("test=alice", amount("10"));
+        final Wallet wallet = buffer.wrap(target);
+        assertTrue(wallet.deposit(250L).isSuccess());
+        assertTrue(wallet.has(1250L));
+        assertEquals(1250L, wallet.getBalanceMinor());
+        assertEquals(0, target.writes.get());
+        buffer.flush();
+        assertEquals(amount("12.50"), target.getBalance());
+    }
+}
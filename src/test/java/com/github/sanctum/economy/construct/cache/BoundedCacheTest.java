@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest {
+
+	@Test
+	public void staysWithinItsSize() {
+		final BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+		for (int i = 0; i < 10000; i++) {
+			cache.put(i, "v" + i);
+			assertTrue(cache.size() <= 100);
+		}
+	}
+
+	@Test
+	public void keepsFrequentKeysThroughAScan() {
+		final BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+		for (int round = 0; round < 8; round++) {
+			for (int i = 0; i < 50; i++) {
+				cache.computeIfAbsent(i, key -> "hot" + key);
+			}
+		}
+		// one-off lookups, e.g. of offline players
+		for (int i = 1000; i < 1500; i++) {
+			cache.computeIfAbsent(i, key -> "cold" + key);
+		}
+		for (int i = 0; i < 50; i++) {
+			assertEquals("hot" + i, cache.get(i));
+		}
+	}
+
+	@Test
+	public void invalidatesAndCountsHits() {
+		final BoundedCache<String, String> cache = new BoundedCache<>(10);
+		assertNull(cache.computeIfAbsent("absent", key -> null));
+		assertEquals(0, cache.size());
+		cache.put("a", "1");
+		assertEquals("1", cache.get("a"));
+		assertEquals("1", cache.invalidate("a"));
+		assertNull(cache.get("a"));
+		cache.put("b", "2");
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+		// 'absent' and the second lookup of 'a' missed, the first hit
+		assertEquals(1.0 / 3, cache.getHitRate(), 0);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrequencySketchTest {
+
+	@Test
+	public void countsUpToFifteen() {
+		final FrequencySketch sketch = new FrequencySketch(1000);
+		assertEquals(0, sketch.frequency("a"));
+		for (int i = 1; i <= 20; i++) {
+			sketch.increment("a");
+			assertEquals(Math.min(i, 15), sketch.frequency("a"));
+		}
+	}
+
+	@Test
+	public void neverUnderestimates() {
+		final FrequencySketch sketch = new FrequencySketch(1000);
+		for (int key = 0; key < 500; key++) {
+			for (int i = 0; i < key % 10; i++) {
+				sketch.increment(key);
+			}
+		}
+		for (int key = 0; key < 500; key++) {
+			assertTrue(sketch.frequency(key) >= key % 10);
+		}
+	}
+
+	@Test
+	public void halvesCountsOnceTheSampleIsFull() {
+		// a sample of 10 * 16 increments
+		final FrequencySketch sketch = new FrequencySketch(16);
+		for (int i = 0; i < 15; i++) {
+			sketch.increment("hot");
+		}
+		int key = 0;
+		while (sketch.frequency("hot") == 15) {
+			sketch.increment(key++);
+		}
+		assertTrue(sketch.frequency("hot") <= 7);
+		assertTrue(key <= 160);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.entity;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+public class EntityKeyTest {
+
+    private static final UUID UUID_1 = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+
+    @Test
+    public void playerIdsKeepTheirUniqueId() {
+        final EntityKey key = EntityKey.of("p_uid=" + UUID_1);
+        assertEquals(EntityKey.PLAYER, key.getType());
+        assertEquals(UUID_1, key.getUniqueId());
+        assertEquals(EntityKey.player(UUID_1), key);
+        assertEquals(EntityKey.player(UUID_1).hashCode(), key.hashCode());
+    }
+
+    @Test
+    public void playerIdsAreRebuiltFromTheirParts() {
+        final EntityKey key = EntityKey.player(UUID_1);
+        assertEquals("p_uid=" + UUID_1, EntityKey.of(key.getType(), key.getHigh(), key.getLow()).id());
+    }
+
+    @Test
+    public void shortNamesArePacked() {
+        for (String name : new String[]{"a", "Steve", "Notch_1234", "abcdefghijklmnop"}) {
+            final EntityKey key = EntityKey.of("p_name=" + name);
+            assertEquals(name, EntityKey.NAME, key.getType());
+            assertEquals("p_name=" + name, EntityKey.of(EntityKey.NAME, key.getHigh(), key.getLow()).id());
+        }
+        assertNotEquals(EntityKey.of("p_name=Steve"), EntityKey.of("p_name=Steve_"));
+    }
+
+    @Test
+    public void otherNamesAreInterned() {
+        assertEquals(EntityKey.OTHER, EntityKey.parseType("p_name=abcdefghijklmnopq"));
+        assertEquals(EntityKey.OTHER, EntityKey.parseType("p_name=not-packable"));
+        assertEquals(EntityKey.OTHER, EntityKey.parseType("p_uid=not-a-uuid"));
+        assertEquals(EntityKey.NPC, EntityKey.parseType("npc=plugin:guard"));
+    }
+
+    @Test
+    public void internedIdsMatchWhileInUse() {
+        final EntityKey key = EntityKey.of(new String("npc=plugin:guard"));
+        final EntityKey again = EntityKey.of(new String("npc=plugin:guard"));
+        assertEquals(key, again);
+        assertNotEquals(key, EntityKey.of("npc=plugin:other"));
+        assertEquals("npc=plugin:guard", EntityKey.of(EntityKey.NPC, key.getHigh(), key.getLow()).id());
+    }
+
+    @Test
+    public void keysSurviveBuffers() {
+        final EntityKey npc = EntityKey.of("npc=plugin:guard");
+        final ByteBuffer buffer = ByteBuffer.allocate(EntityKey.BYTES * 3);
+        EntityKey.player(UUID_1).writeTo(buffer);
+        EntityKey.of("p_name=Steve").writeTo(buffer);
+        npc.writeTo(buffer);
+        buffer.flip();
+        assertEquals("p_uid=" + UUID_1, EntityKey.readFrom(buffer).id());
+        assertEquals("p_name=Steve", EntityKey.readFrom(buffer).id());
+        assertEquals(npc, EntityKey.readFrom(buffer));
+    }
+
+    @Test
+    public void unknownIndexesAndTypesAreRejected() {
+        assertThrows(IllegalStateException.class, () -> EntityKey.of(EntityKey.OTHER, Long.MAX_VALUE, 0).id());
+        assertThrows(IllegalArgumentException.class, () -> EntityKey.of((byte) 9, 0, 0));
+        assertThrows(IllegalStateException.class, () -> EntityKey.of("p_name=Steve").getUniqueId());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.construct.events;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import org.bukkit.plugin.PluginManager;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EconomyEventDispatcherTest {
+
+	private static PluginManager pluginManager(Consumer<Object> listener) {
+		return (PluginManager) Proxy.newProxyInstance(PluginManager.class.getClassLoader(), new Class<?>[]{PluginManager.class}, (proxy, method, args) -> {
+			if (method.getName().equals("callEvent")) {
+				listener.accept(args[0]);
+			}
+			return null;
+		});
+	}
+
+	private static EconomyAction action() {
+		return new EconomyAction(BigDecimal.ONE, () -> "test=alice", true, "test");
+	}
+
+	private static void awaitDispatched(EconomyEventDispatcher dispatcher, long count) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (dispatcher.getDispatched() < count && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(count, dispatcher.getDispatched());
+	}
+
+	@After
+	public void stop() {
+		EconomyEventDispatcher.stop();
+	}
+
+	@Test
+	public void listenersMayLogWhileTheQueueIsFull() throws InterruptedException {
+		final AtomicInteger fired = new AtomicInteger();
+		final EconomyEventDispatcher[] self = new EconomyEventDispatcher[1];
+		self[0] = EconomyEventDispatcher.start(pluginManager(event -> {
+			if (fired.getAndIncrement() == 0) {
+				for (int i = 0; i < 5; i++) {
+					assertTrue(self[0].submit(action()));
+				}
+			}
+		}), Logger.getAnonymousLogger(), 1, 1, EconomyEventDispatcher.Overflow.BLOCK, 1000, 50);
+		assertTrue(self[0].submit(action()));
+		awaitDispatched(self[0], 6);
+		assertEquals(6, fired.get());
+		assertEquals(0, self[0].getDropped());
+	}
+
+	@Test
+	public void stopDrainsBeforeUninstalling() {
+		final EconomyEventDispatcher[] self = new EconomyEventDispatcher[1];
+		final AtomicInteger fired = new AtomicInteger();
+		self[0] = EconomyEventDispatcher.start(pluginManager(event -> {
+			// still installed while the queue drains
+			assertSame(self[0], EconomyEventDispatcher.getInstance());
+			fired.incrementAndGet();
+		}), Logger.getAnonymousLogger(), 100, 10, EconomyEventDispatcher.Overflow.BLOCK, 1000, 50);
+		for (int i = 0; i < 50; i++) {
+			self[0].submit(action());
+		}
+		assertTrue(EconomyEventDispatcher.stop());
+		assertNull(EconomyEventDispatcher.getInstance());
+		assertEquals(50, fired.get());
+		assertEquals(50, self[0].getDispatched());
+	}
+
+	@Test
+	public void runsTheStopTaskAfterTheLastEvent() {
+		final AtomicInteger fired = new AtomicInteger();
+		final EconomyEventDispatcher dispatcher = EconomyEventDispatcher.start(pluginManager(event -> fired.incrementAndGet()),
+				Logger.getAnonymousLogger(), 100, 10, EconomyEventDispatcher.Overflow.BLOCK, 1000, 50);
+		for (int i = 0; i < 50; i++) {
+			dispatcher.submit(action());
+		}
+		final int[] firedBefore = {-1};
+		assertTrue(EconomyEventDispatcher.stop(() -> firedBefore[0] = fired.get()));
+		assertEquals(50, firedBefore[0]);
+	}
+}
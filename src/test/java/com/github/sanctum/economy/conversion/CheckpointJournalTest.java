@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.conversion;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointJournalTest {
+
+	private static final UUID ALICE = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+	private static final UUID BOB = UUID.fromString("7c9e6679-7425-40de-944b-e07fc1f90ae7");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void resumesFromWhatWasRecorded() throws IOException {
+		final File file = new File(folder.getRoot(), "conversion.checkpoint");
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			journal.complete(0, 42L, Arrays.asList(ALICE, BOB), Collections.singletonList("bank=main"));
+			journal.complete(1, 43L, Collections.emptyList(), Collections.emptyList());
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			assertTrue(journal.isComplete(0, 42L));
+			assertFalse(journal.isComplete(0, 41L));
+			assertTrue(journal.isComplete(1, 43L));
+			assertFalse(journal.isComplete(2, 43L));
+			assertTrue(journal.isComplete(BOB));
+			assertTrue(journal.isComplete("bank=main"));
+			assertEquals(3, journal.getCompletedEntities());
+		}
+	}
+
+	@Test
+	public void ignoresATornRecordAndKeepsAppending() throws IOException {
+		final File file = new File(folder.getRoot(), "conversion.checkpoint");
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			journal.complete(0, 42L, Collections.singletonList(ALICE), Collections.emptyList());
+		}
+		// header, one player record and one partition record
+		final int end = 8 + 17 + 13;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			// a player record whose body was written but whose type byte was not
+			raf.seek(end + 1);
+			raf.writeLong(BOB.getMostSignificantBits());
+			raf.writeLong(BOB.getLeastSignificantBits());
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			assertTrue(journal.isComplete(0, 42L));
+			assertFalse(journal.isComplete(BOB));
+			assertEquals(1, journal.getCompletedEntities());
+			journal.complete(1, 43L, Collections.emptyList(), Collections.singletonList("bank=main"));
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			assertTrue(journal.isComplete(1, 43L));
+			assertTrue(journal.isComplete("bank=main"));
+			assertFalse(journal.isComplete(BOB));
+		}
+	}
+
+	@Test
+	public void growsPastTheInitialMapping() throws IOException {
+		final File file = new File(folder.getRoot(), "conversion.checkpoint");
+		final int partitions = (1 << 20) / 13 + 10;
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			for (int i = 0; i < partitions; i++) {
+				journal.complete(i, i, Collections.emptyList(), Collections.emptyList());
+			}
+		}
+		try (CheckpointJournal journal = CheckpointJournal.open(file)) {
+			assertTrue(journal.isComplete(0, 0));
+			assertTrue(journal.isComplete(partitions - 1, partitions - 1));
+		}
+	}
+
+	@Test
+	public void deleteLeavesNothingToResume() throws IOException {
+		final File file = new File(folder.getRoot(), "conversion.checkpoint");
+		final CheckpointJournal journal = CheckpointJournal.open(file);
+		journal.complete(0, 42L, Collections.singletonList(ALICE), Collections.emptyList());
+		journal.delete();
+		try (CheckpointJournal reopened = CheckpointJournal.open(file)) {
+			assertFalse(reopened.isComplete(0, 42L));
+			assertEquals(0, reopened.getCompletedEntities());
+		}
+	}
+
+	@Test
+	public void rejectsOtherFiles() throws IOException {
+		final File file = new File(folder.getRoot(), "other.bin");
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.writeInt(0x12345678);
+		}
+		assertThrows(IOException.class, () -> CheckpointJournal.open(file));
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.journal;
+
+import com.github.sanctum.economy.construct.EconomyAction;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TransactionJournalTest {
+
+	private static final EconomyEntity HOLDER = () -> "p_uid=0f8fad5b-d9cb-469f-a165-70867728950e";
+	private static final Logger LOGGER = Logger.getLogger(TransactionJournalTest.class.getName());
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<JournalEntry> read(File file) throws IOException {
+		final List<JournalEntry> entries = new ArrayList<>();
+		try (TransactionJournalReader reader = new TransactionJournalReader(file)) {
+			JournalEntry entry;
+			while ((entry = reader.next()) != null) {
+				entries.add(entry);
+			}
+		}
+		return entries;
+	}
+
+	@Test
+	public void readsBackWhatWasAppended() throws IOException {
+		final File directory = folder.newFolder("journal");
+		try (TransactionJournal journal = TransactionJournal.open(directory, 1 << 20, 2, LOGGER)) {
+			journal.append(new EconomyAction(new BigDecimal("12.50"), HOLDER, true, "deposit"));
+			journal.append(new EconomyAction(HOLDER, false, "no amount"));
+			journal.append(new EconomyAction(-1234, 3, HOLDER, true, "minor units"));
+		}
+		final List<JournalEntry> entries = read(new File(directory, "transactions.journal"));
+		assertEquals(3, entries.size());
+		assertEquals(HOLDER.id(), entries.get(0).getEntityId());
+		assertEquals(new BigDecimal("12.50"), entries.get(0).getAmount());
+		assertTrue(entries.get(0).isSuccess());
+		assertEquals("deposit", entries.get(0).getInfo());
+		assertNull(entries.get(1).getAmount());
+		assertFalse(entries.get(1).isSuccess());
+		assertEquals(new BigDecimal("-1.234"), entries.get(2).getAmount());
+	}
+
+	@Test
+	public void cutsATornRecordAndKeepsAppending() throws IOException {
+		final File directory = folder.newFolder("journal");
+		TransactionJournal journal = TransactionJournal.open(directory, 1 << 20, 2, LOGGER);
+		journal.append(new EconomyAction(BigDecimal.ONE, HOLDER, true, "before"));
+		journal.close();
+		try (RandomAccessFile file = new RandomAccessFile(journal.getActiveFile(), "rw")) {
+			// a length with only part of its record
+			file.seek(file.length());
+			file.writeInt(99);
+			file.write(1);
+		}
+		journal = TransactionJournal.open(directory, 1 << 20, 2, LOGGER);
+		journal.append(new EconomyAction(BigDecimal.TEN, HOLDER, true, "after"));
+		journal.close();
+		final List<JournalEntry> entries = read(journal.getActiveFile());
+		assertEquals(2, entries.size());
+		assertEquals("after", entries.get(1).getInfo());
+	}
+
+	@Test
+	public void rotatesAndKeepsTheNewestFiles() throws IOException {
+		final File directory = folder.newFolder("journal");
+		try (TransactionJournal journal = TransactionJournal.open(directory, 16 * 1024, 2, LOGGER)) {
+			for (int i = 0; i < 5000; i++) {
+				journal.append(new EconomyAction(BigDecimal.valueOf(i), HOLDER, true, "payment " + i));
+			}
+		}
+		final File[] rotated = TransactionJournal.getRotatedFiles(directory);
+		assertEquals(2, rotated.length);
+		final List<JournalEntry> newest = new ArrayList<>(read(rotated[1]));
+		newest.addAll(read(new File(directory, "transactions.journal")));
+		assertEquals("payment 4999", newest.get(newest.size() - 1).getInfo());
+		for (File file : rotated) {
+			assertTrue(file.length() <= 16 * 1024);
+		}
+	}
+
+	@Test
+	public void rejectsAmountsTooLargeToStore() throws IOException {
+		final File directory = folder.newFolder("journal");
+		try (TransactionJournal journal = TransactionJournal.open(directory, 1 << 20, 2, LOGGER)) {
+			final BigDecimal huge = new BigDecimal(BigInteger.ONE.shiftLeft(8 * 70000));
+			assertThrows(IllegalArgumentException.class, () -> journal.append(new EconomyAction(huge, HOLDER, true, "huge")));
+			journal.append(new EconomyAction(BigDecimal.ONE, HOLDER, true, "small"));
+		}
+		assertEquals(1, read(new File(directory, "transactions.journal")).size());
+	}
+
+	@Test
+	public void truncatesLongTextOnACharacterBoundary() throws IOException {
+		final File directory = folder.newFolder("journal");
+		final char[] text = new char[40000];
+		// two UTF-8 bytes each, so the limit falls inside a character
+		Arrays.fill(text, '\u00e9');
+		try (TransactionJournal journal = TransactionJournal.open(directory, 1 << 20, 2, LOGGER)) {
+			journal.append(new EconomyAction(HOLDER, true, new String(text)));
+		}
+		final String info = read(new File(directory, "transactions.journal")).get(0).getInfo();
+		assertEquals(0xFFFF / 2, info.length());
+		assertTrue(info.getBytes(StandardCharsets.UTF_8).length <= 0xFFFF);
+		assertFalse(info.contains("\ufffd"));
+	}
+
+	@Test
+	public void movesAnUnreadableFileAside() throws IOException {
+		final File directory = folder.newFolder("journal");
+		final File active = new File(directory, "transactions.journal");
+		final byte[] foreign = "not a journal of this version".getBytes(StandardCharsets.US_ASCII);
+		try (RandomAccessFile file = new RandomAccessFile(active, "rw")) {
+			file.write(foreign);
+		}
+		try (TransactionJournal journal = TransactionJournal.open(directory, 1 << 20, 2, LOGGER)) {
+			journal.append(new EconomyAction(BigDecimal.ONE, HOLDER, true, "after"));
+		}
+		final File[] aside = directory.listFiles((dir, name) -> name.endsWith(".corrupt"));
+		assertEquals(1, aside.length);
+		assertTrue(Arrays.equals(foreign, Files.readAllBytes(aside[0].toPath())));
+		assertEquals(1, read(active).size());
+		assertEquals(0, TransactionJournal.getRotatedFiles(directory).length);
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.leaderboard;
+
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BalanceRankingTest {
+
+	private static final EconomyEntity HOLDER = () -> "test=holder";
+
+	private long version;
+
+	private void set(BalanceRanking ranking, String id, long balance) {
+		ranking.update(id, HOLDER, BigDecimal.valueOf(balance), ++version);
+	}
+
+	@Test
+	public void ranksRichestFirstAndTiesById() {
+		final BalanceRanking ranking = new BalanceRanking();
+		set(ranking, "c", 10);
+		set(ranking, "a", 30);
+		set(ranking, "b", 10);
+		set(ranking, "d", 20);
+		assertEquals(1, ranking.getRank("a"));
+		assertEquals(2, ranking.getRank("d"));
+		assertEquals(3, ranking.getRank("b"));
+		assertEquals(4, ranking.getRank("c"));
+		assertEquals(0, ranking.getRank("missing"));
+		assertEquals(4, ranking.countAtLeast(BigDecimal.TEN));
+		assertEquals(1, ranking.countAtLeast(BigDecimal.valueOf(25)));
+		final List<BalanceRanking.Entry> page = ranking.range(2, 3);
+		assertEquals("d", page.get(0).getId());
+		assertEquals("b", page.get(1).getId());
+		assertEquals(3, page.get(1).getRank());
+		assertTrue(ranking.range(5, 10).isEmpty());
+	}
+
+	@Test
+	public void movesAndRemovesEntries() {
+		final BalanceRanking ranking = new BalanceRanking();
+		set(ranking, "a", 1);
+		set(ranking, "b", 2);
+		set(ranking, "a", 3);
+		assertEquals(1, ranking.getRank("a"));
+		ranking.remove("a", ++version);
+		assertEquals(0, ranking.getRank("a"));
+		assertEquals(1, ranking.size());
+		assertEquals("b", ranking.top(5).get(0).getId());
+		ranking.clear();
+		assertEquals(0, ranking.size());
+		assertNull(ranking.get("b"));
+	}
+
+	@Test
+	public void ignoresOlderVersions() {
+		final BalanceRanking ranking = new BalanceRanking();
+		assertTrue(ranking.update("a", HOLDER, BigDecimal.TEN, 5));
+		assertFalse(ranking.update("a", HOLDER, BigDecimal.ONE, 4));
+		assertEquals(BigDecimal.TEN, ranking.get("a").getBalance());
+		ranking.remove("a", 3);
+		assertEquals(1, ranking.getRank("a"));
+		// an equal balance still takes the newer version
+		assertFalse(ranking.update("a", HOLDER, BigDecimal.TEN, 6));
+		assertFalse(ranking.update("a", HOLDER, BigDecimal.ONE, 6));
+		assertEquals(BigDecimal.TEN, ranking.get("a").getBalance());
+	}
+
+	@Test
+	public void matchesASortedList() {
+		final BalanceRanking ranking = new BalanceRanking();
+		final Map<String, Long> expected = new HashMap<>();
+		final Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			final String id = "id" + random.nextInt(300);
+			if (random.nextInt(4) == 0) {
+				ranking.remove(id, ++version);
+				expected.remove(id);
+			} else {
+				final long balance = random.nextInt(100);
+				set(ranking, id, balance);
+				expected.put(id, balance);
+			}
+		}
+		final List<String> sorted = new ArrayList<>(expected.keySet());
+		sorted.sort(Comparator.<String>comparingLong(expected::get).reversed().thenComparing(Comparator.naturalOrder()));
+		assertEquals(sorted.size(), ranking.size());
+		final List<BalanceRanking.Entry> all = ranking.top(sorted.size());
+		for (int i = 0; i < sorted.size(); i++) {
+			assertEquals(sorted.get(i), all.get(i).getId());
+			assertEquals(i + 1, ranking.getRank(sorted.get(i)));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.leaderboard;
+
+import com.github.sanctum.economy.construct.account.BalanceSnapshot;
+import com.github.sanctum.economy.construct.account.permissive.AccountType;
+import com.github.sanctum.economy.construct.entity.EconomyEntity;
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LeaderboardTest {
+
+	private static final EconomyEntity ALICE = () -> "test=alice";
+	private static final EconomyEntity BOB = () -> "test=bob";
+
+	@Test
+	public void loadKeepsBalancesWrittenMeanwhile() {
+		final Leaderboard leaderboard = new Leaderboard("test");
+		final long added = leaderboard.load(() -> {
+			// a write recorded after the export started reading
+			leaderboard.update(BalanceSnapshot.ofWallet(ALICE, null, BigDecimal.TEN));
+			return Stream.of(BalanceSnapshot.ofWallet(ALICE, null, BigDecimal.ONE),
+					BalanceSnapshot.ofWallet(BOB, null, BigDecimal.ONE));
+		});
+		assertEquals(1, added);
+		assertTrue(leaderboard.isLoaded());
+		assertEquals(BigDecimal.TEN, leaderboard.getWallets().get(ALICE.id()).getBalance());
+		assertEquals(2, leaderboard.getWallets().size());
+	}
+
+	@Test
+	public void loadDoesNotRestoreRemovedBalances() {
+		final Leaderboard leaderboard = new Leaderboard("test");
+		leaderboard.load(() -> {
+			leaderboard.removeWallet(ALICE, null);
+			leaderboard.removeAccount("bank");
+			return Stream.of(BalanceSnapshot.ofWallet(ALICE, "world", BigDecimal.ONE),
+					BalanceSnapshot.ofAccount(BOB, AccountType.BANK_ACCOUNT, "bank", null, BigDecimal.ONE),
+					BalanceSnapshot.ofWallet(BOB, null, BigDecimal.ONE));
+		});
+		assertNull(leaderboard.getRanking(null, "world").get(ALICE.id()));
+		assertNull(leaderboard.getRanking(AccountType.BANK_ACCOUNT, null).get("bank"));
+		assertEquals(1, leaderboard.getWallets().size());
+	}
+
+	@Test
+	public void readsFromBeforeARemovalAreIgnored() {
+		final Leaderboard leaderboard = new Leaderboard("test");
+		leaderboard.update(BalanceSnapshot.ofWallet(ALICE, null, BigDecimal.ONE));
+		final long stale = leaderboard.nextVersion();
+		leaderboard.removeWallet(ALICE, null);
+		leaderboard.update(BalanceSnapshot.ofWallet(ALICE, null, BigDecimal.TEN), stale);
+		assertNull(leaderboard.getWallets().get(ALICE.id()));
+		leaderboard.update(BalanceSnapshot.ofWallet(ALICE, null, BigDecimal.TEN));
+		assertEquals(BigDecimal.TEN, leaderboard.getWallets().get(ALICE.id()).getBalance());
+	}
+
+	@Test
+	public void removingAnAccountFromOneWorldKeepsTheOthers() {
+		final Leaderboard leaderboard = new Leaderboard("test");
+		leaderboard.update(BalanceSnapshot.ofAccount(ALICE, AccountType.BANK_ACCOUNT, "bank", null, BigDecimal.ONE));
+		leaderboard.update(BalanceSnapshot.ofAccount(ALICE, AccountType.BANK_ACCOUNT, "bank", "world", BigDecimal.ONE));
+		leaderboard.update(BalanceSnapshot.ofAccount(ALICE, AccountType.BANK_ACCOUNT, "bank", "nether", BigDecimal.ONE));
+		leaderboard.removeAccount("bank", "world");
+		assertNull(leaderboard.getRanking(AccountType.BANK_ACCOUNT, "world").get("bank"));
+		assertEquals(BigDecimal.ONE, leaderboard.getRanking(AccountType.BANK_ACCOUNT, null).get("bank").getBalance());
+		assertEquals(BigDecimal.ONE, leaderboard.getRanking(AccountType.BANK_ACCOUNT, "nether").get("bank").getBalance());
+		leaderboard.removeAccount("bank");
+		assertNull(leaderboard.getRanking(AccountType.BANK_ACCOUNT, null).get("bank"));
+		assertNull(leaderboard.getRanking(AccountType.BANK_ACCOUNT, "nether").get("bank"));
+	}
+}
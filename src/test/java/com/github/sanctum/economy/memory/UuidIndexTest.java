@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2021 Sanctum <https://github.com/the-h-team>
+ *  Copyright 2020 Hempfest <https://github.com/Hempfest>
+ *  Copyright 2020 ms5984 (Matt) <https://github.com/ms5984>
+ *
+ *  This file is part of Enterprise.
+ *
+ *  Enterprise is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  Enterprise is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.github.sanctum.economy.memory;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class UuidIndexTest {
+
+	@Test
+	public void streamsTheEntriesAsOfTheCall() {
+		final UuidIndex index = new UuidIndex(4);
+		final Map<UUID, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			final UUID uuid = new UUID(i * 31L, ~i);
+			index.putIfAbsent(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), i);
+			expected.put(uuid, i);
+		}
+		final UUID removed = new UUID(0, ~0);
+		index.remove(removed.getMostSignificantBits(), removed.getLeastSignificantBits());
+		expected.remove(removed);
+
+		final Stream<Map.Entry<UUID, Integer>> stream = index.stream((msb, lsb, value) -> new AbstractMap.SimpleEntry<>(new UUID(msb, lsb), value));
+		// later changes are not seen by a stream already taken
+		index.putIfAbsent(1, 1, 1000);
+		assertEquals(expected, stream.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+		assertEquals(100, index.size());
+	}
+}